@@ -0,0 +1,81 @@
+package com.github.marschall.writers.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.marschall.writers.BufferedAsciiOutputStreamWriter;
+import com.github.marschall.writers.UnmappablePolicy;
+
+/**
+ * Writes 1 MiB in writes of different sizes with a fixed size buffer
+ * and an adaptive buffer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class AdaptiveBufferBenchmark {
+
+  private static final int TOTAL_SIZE = 1024 * 1024;
+
+  @Param({"7", "1024", "1048576"})
+  public int writeSize;
+
+  private String value;
+
+  private int writeCount;
+
+  private BufferedAsciiOutputStreamWriter fixedSmallWriter;
+
+  private BufferedAsciiOutputStreamWriter fixedDefaultWriter;
+
+  private BufferedAsciiOutputStreamWriter adaptiveWriter;
+
+  @Setup
+  public void setup() {
+    StringBuilder buffer = new StringBuilder(this.writeSize);
+    for (int i = 0; i < this.writeSize; i++) {
+      buffer.append((char) ('a' + (i % 26)));
+    }
+    this.value = buffer.toString();
+    this.writeCount = TOTAL_SIZE / this.writeSize;
+    OutputStream out = OutputStream.nullOutputStream();
+    this.fixedSmallWriter = new BufferedAsciiOutputStreamWriter(out, 512);
+    this.fixedDefaultWriter = new BufferedAsciiOutputStreamWriter(out);
+    this.adaptiveWriter = new BufferedAsciiOutputStreamWriter(out, 512, 64 * 1024, UnmappablePolicy.REPLACE);
+  }
+
+  private Writer writeAll(BufferedAsciiOutputStreamWriter writer) throws IOException {
+    for (int i = 0; i < this.writeCount; i++) {
+      writer.write(this.value);
+    }
+    writer.flush();
+    return writer;
+  }
+
+  @Benchmark
+  public Writer fixedSmall() throws IOException {
+    return this.writeAll(this.fixedSmallWriter);
+  }
+
+  @Benchmark
+  public Writer fixedDefault() throws IOException {
+    return this.writeAll(this.fixedDefaultWriter);
+  }
+
+  @Benchmark
+  public Writer adaptive() throws IOException {
+    return this.writeAll(this.adaptiveWriter);
+  }
+
+}
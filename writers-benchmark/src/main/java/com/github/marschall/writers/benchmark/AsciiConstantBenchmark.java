@@ -0,0 +1,61 @@
+package com.github.marschall.writers.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.marschall.writers.AsciiConstant;
+import com.github.marschall.writers.BufferedAsciiOutputStreamWriter;
+
+/**
+ * Compares writing an {@link AsciiConstant} to writing the same
+ * {@link String}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class AsciiConstantBenchmark {
+
+  @Param({"7", "24", "64"})
+  public int length;
+
+  private String string;
+
+  private AsciiConstant constant;
+
+  private BufferedAsciiOutputStreamWriter writer;
+
+  @Setup
+  public void setup() {
+    StringBuilder buffer = new StringBuilder(this.length);
+    for (int i = 0; i < this.length; i++) {
+      buffer.append((char) ('a' + (i % 26)));
+    }
+    this.string = buffer.toString();
+    this.constant = AsciiConstant.of(this.string);
+    this.writer = new BufferedAsciiOutputStreamWriter(OutputStream.nullOutputStream());
+  }
+
+  @Benchmark
+  public Writer writeString() throws IOException {
+    this.writer.write(this.string);
+    return this.writer;
+  }
+
+  @Benchmark
+  public Writer writeConstant() throws IOException {
+    this.writer.write(this.constant);
+    return this.writer;
+  }
+
+}
@@ -0,0 +1,60 @@
+package com.github.marschall.writers.benchmark;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.marschall.writers.AsciiOutputStreamWriter;
+import com.github.marschall.writers.ConcurrentAsciiOutputStreamWriter;
+
+/**
+ * Many threads writing short records to a single writer.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ConcurrentWriterBenchmark {
+
+  private static final int THREADS = 8;
+
+  private static final String RECORD = "2020-10-17 12:00:00 INFO request processed in 12 ms\n";
+
+  private Writer asciiOutputStreamWriter;
+
+  private Writer concurrentAsciiOutputStreamWriter;
+
+  @Setup
+  public void setup() {
+    this.asciiOutputStreamWriter = new AsciiOutputStreamWriter(new BufferedOutputStream(OutputStream.nullOutputStream()));
+    this.concurrentAsciiOutputStreamWriter = new ConcurrentAsciiOutputStreamWriter(new BufferedOutputStream(OutputStream.nullOutputStream()));
+  }
+
+  @Benchmark
+  @Group("asciiOutputStreamWriter")
+  @GroupThreads(THREADS)
+  public Writer writeStringAsciiOutputStreamWriter() throws IOException {
+    this.asciiOutputStreamWriter.write(RECORD);
+    return this.asciiOutputStreamWriter;
+  }
+
+  @Benchmark
+  @Group("concurrentAsciiOutputStreamWriter")
+  @GroupThreads(THREADS)
+  public Writer writeStringConcurrentAsciiOutputStreamWriter() throws IOException {
+    this.concurrentAsciiOutputStreamWriter.write(RECORD);
+    return this.concurrentAsciiOutputStreamWriter;
+  }
+
+}
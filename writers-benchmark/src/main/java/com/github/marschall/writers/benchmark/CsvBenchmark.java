@@ -0,0 +1,76 @@
+package com.github.marschall.writers.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.marschall.writers.BufferedAsciiOutputStreamWriter;
+import com.github.marschall.writers.CsvAsciiWriter;
+
+/**
+ * Compares {@link CsvAsciiWriter} to quoting fields with {@link String#replace(CharSequence, CharSequence)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class CsvBenchmark {
+
+  @Param({"plain", "quoted"})
+  public String content;
+
+  private String first;
+
+  private String second;
+
+  private long number;
+
+  private BufferedAsciiOutputStreamWriter writer;
+
+  private CsvAsciiWriter csvWriter;
+
+  @Setup
+  public void setup() {
+    this.first = "2020-06-01T12:00:00Z";
+    this.second = this.content.equals("plain") ? "Widget small red" : "Widget \"small\", red";
+    this.number = 123456789L;
+    this.writer = new BufferedAsciiOutputStreamWriter(OutputStream.nullOutputStream());
+    this.csvWriter = new CsvAsciiWriter(new BufferedAsciiOutputStreamWriter(OutputStream.nullOutputStream()));
+  }
+
+  @Benchmark
+  public CsvAsciiWriter csvAsciiWriter() throws IOException {
+    this.csvWriter.writeField(this.first);
+    this.csvWriter.writeField(this.second);
+    this.csvWriter.writeField(this.number);
+    this.csvWriter.endRecord();
+    return this.csvWriter;
+  }
+
+  @Benchmark
+  public BufferedAsciiOutputStreamWriter stringReplace() throws IOException {
+    this.writer.write(quote(this.first));
+    this.writer.write(',');
+    this.writer.write(quote(this.second));
+    this.writer.write(',');
+    this.writer.write(Long.toString(this.number));
+    this.writer.write("\r\n");
+    return this.writer;
+  }
+
+  private static String quote(String field) {
+    if ((field.indexOf(',') >= 0) || (field.indexOf('"') >= 0) || (field.indexOf('\r') >= 0) || (field.indexOf('\n') >= 0)) {
+      return '"' + field.replace("\"", "\"\"") + '"';
+    }
+    return field;
+  }
+
+}
@@ -0,0 +1,69 @@
+package com.github.marschall.writers.benchmark;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.marschall.writers.AsciiFormat;
+import com.github.marschall.writers.BufferedAsciiOutputStreamWriter;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class FormatBenchmark {
+
+  private static final String PATTERN = "%s %s %3d %8d %.3f%n";
+
+  public String method = "GET";
+
+  public String path = "/index.html";
+
+  public int status = 200;
+
+  public long length = 123456L;
+
+  public double duration = 0.0125d;
+
+  private PrintWriter printWriter;
+
+  private BufferedAsciiOutputStreamWriter writer;
+
+  private AsciiFormat.Renderer renderer;
+
+  @Setup
+  public void setup() {
+    this.printWriter = new PrintWriter(OutputStream.nullOutputStream(), false, US_ASCII);
+    this.writer = new BufferedAsciiOutputStreamWriter(OutputStream.nullOutputStream());
+    this.renderer = AsciiFormat.compile(PATTERN).renderer(this.writer);
+  }
+
+  @Benchmark
+  public PrintWriter printWriterFormat() {
+    return this.printWriter.format(Locale.ROOT, PATTERN, this.method, this.path, this.status, this.length, this.duration);
+  }
+
+  @Benchmark
+  public BufferedAsciiOutputStreamWriter stringFormat() throws IOException {
+    this.writer.write(String.format(Locale.ROOT, PATTERN, this.method, this.path, this.status, this.length, this.duration));
+    return this.writer;
+  }
+
+  @Benchmark
+  public BufferedAsciiOutputStreamWriter asciiFormat() throws IOException {
+    this.renderer.arg(this.method).arg(this.path).arg(this.status).arg(this.length).arg(this.duration).end();
+    return this.writer;
+  }
+
+}
@@ -0,0 +1,91 @@
+package com.github.marschall.writers.benchmark;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.github.marschall.writers.ChannelAsciiWriter;
+import com.github.marschall.writers.GatheringAsciiWriter;
+
+/**
+ * Writes a few small header lines followed by a large already encoded
+ * body to {@code /dev/null}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class GatheringBenchmark {
+
+  @Param({"1024", "65536"})
+  public int bodySize;
+
+  private FileChannel channel;
+
+  private ByteBuffer body;
+
+  private GatheringAsciiWriter gatheringWriter;
+
+  private ChannelAsciiWriter channelWriter;
+
+  @Setup
+  public void setup() throws IOException {
+    this.channel = FileChannel.open(Paths.get("/dev/null"), WRITE);
+    this.body = ByteBuffer.allocateDirect(this.bodySize);
+    while (this.body.hasRemaining()) {
+      this.body.put("0123456789abcdef".getBytes(US_ASCII), 0, Math.min(16, this.body.remaining()));
+    }
+    this.gatheringWriter = new GatheringAsciiWriter(this.channel);
+    this.channelWriter = new ChannelAsciiWriter(this.channel);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    this.channel.close();
+  }
+
+  private static void writeHeaders(Writer writer, int bodySize) throws IOException {
+    writer.write("HTTP/1.1 200 OK\r\n");
+    writer.write("Content-Type: text/plain\r\n");
+    writer.write("Cache-Control: no-cache\r\n");
+    writer.write("Content-Length: ");
+    writer.write(Integer.toString(bodySize));
+    writer.write("\r\n\r\n");
+  }
+
+  @Benchmark
+  public Writer gatheringAsciiWriter() throws IOException {
+    writeHeaders(this.gatheringWriter, this.bodySize);
+    this.body.clear();
+    this.gatheringWriter.write(this.body);
+    this.gatheringWriter.flush();
+    return this.gatheringWriter;
+  }
+
+  @Benchmark
+  public Writer channelAsciiWriter() throws IOException {
+    writeHeaders(this.channelWriter, this.bodySize);
+    this.channelWriter.flush();
+    this.body.clear();
+    while (this.body.hasRemaining()) {
+      this.channel.write(this.body);
+    }
+    return this.channelWriter;
+  }
+
+}
@@ -0,0 +1,65 @@
+package com.github.marschall.writers.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.marschall.writers.BufferedAsciiOutputStreamWriter;
+import com.github.marschall.writers.HtmlEscapingWriter;
+
+/**
+ * Compares {@link HtmlEscapingWriter} to escaping with {@link String#replace(CharSequence, CharSequence)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class HtmlBenchmark {
+
+  @Param({"plain", "escaped"})
+  public String content;
+
+  private String value;
+
+  private Writer writer;
+
+  private HtmlEscapingWriter htmlEscapingWriter;
+
+  @Setup
+  public void setup() {
+    String plain = "The quick brown fox jumps over the lazy dog and keeps on running";
+    this.value = this.content.equals("plain") ? plain : plain.replace("and", "&").replace("dog", "<dog>");
+    this.writer = new BufferedAsciiOutputStreamWriter(OutputStream.nullOutputStream());
+    this.htmlEscapingWriter = new HtmlEscapingWriter(new BufferedAsciiOutputStreamWriter(OutputStream.nullOutputStream()));
+  }
+
+  @Benchmark
+  public Writer htmlEscapingWriter() throws IOException {
+    this.htmlEscapingWriter.write(this.value);
+    return this.htmlEscapingWriter;
+  }
+
+  @Benchmark
+  public Writer stringReplace() throws IOException {
+    this.writer.write(escape(this.value));
+    return this.writer;
+  }
+
+  private static String escape(String s) {
+    return s.replace("&", "&amp;")
+            .replace("<", "&lt;")
+            .replace(">", "&gt;")
+            .replace("\"", "&quot;")
+            .replace("'", "&#39;");
+  }
+
+}
@@ -0,0 +1,77 @@
+package com.github.marschall.writers.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.json.JsonWriteFeature;
+import com.github.marschall.writers.BufferedAsciiOutputStreamWriter;
+import com.github.marschall.writers.JsonEscapingWriter;
+
+/**
+ * Compares writing JSON strings with Jackson, both produce the same
+ * pure ASCII output.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+  @Param({"ascii", "escaped", "nonAscii"})
+  public String content;
+
+  private String value;
+
+  private JsonEscapingWriter jsonEscapingWriter;
+
+  private JsonGenerator jsonGenerator;
+
+  @Setup
+  public void setup() throws IOException {
+    String ascii = "abcdefghijklmnopqrstuvwxyz0123456789abcdefghijklmnopqrstuvwxyz0123456789";
+    switch (this.content) {
+      case "ascii":
+        this.value = ascii;
+        break;
+      case "escaped":
+        this.value = ascii.replace('z', '"').replace('9', '\n');
+        break;
+      case "nonAscii":
+        this.value = ascii.replace('z', 'ü');
+        break;
+      default:
+        throw new IllegalArgumentException("unknown content: " + this.content);
+    }
+    OutputStream outputStream = OutputStream.nullOutputStream();
+    this.jsonEscapingWriter = new JsonEscapingWriter(new BufferedAsciiOutputStreamWriter(outputStream));
+    JsonFactory jsonFactory = JsonFactory.builder()
+            .enable(JsonWriteFeature.ESCAPE_NON_ASCII)
+            .build();
+    this.jsonGenerator = jsonFactory.createGenerator(outputStream);
+    this.jsonGenerator.setRootValueSeparator(null);
+  }
+
+  @Benchmark
+  public JsonEscapingWriter writeStringJsonEscapingWriter() throws IOException {
+    this.jsonEscapingWriter.writeString(this.value);
+    return this.jsonEscapingWriter;
+  }
+
+  @Benchmark
+  public JsonGenerator writeStringJackson() throws IOException {
+    this.jsonGenerator.writeString(this.value);
+    return this.jsonGenerator;
+  }
+
+}
@@ -7,11 +7,26 @@ import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
 
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
 public class MethodBenchmark {
 
+  @Param({"abcd123", "abcdefghijklmnopqrstuvwxyz0123456789abcdefghijklmnopqrstuvwxyz0123456789"})
+  public String value;
+
+  private byte[] buffer;
+
+  @Setup
+  public void setup() {
+    this.buffer = new byte[8192];
+  }
+
   @Benchmark
   public boolean fitsInAsciiMask() throws IOException {
     return fitsInAsciiMask("abcd123");
@@ -22,6 +37,35 @@ public class MethodBenchmark {
     return fitsInAsciiIf("abcd123");
   }
 
+  @Benchmark
+  public boolean scanThenCopy() {
+    boolean ascii = fitsInAsciiIf(this.value);
+    if (ascii) {
+      copy(this.value, this.buffer);
+    }
+    return ascii;
+  }
+
+  @Benchmark
+  public boolean copyAndMask() {
+    return copyAndMask(this.value, this.buffer);
+  }
+
+  @SuppressWarnings("deprecation")
+  static void copy(String s, byte[] buffer) {
+    s.getBytes(0, s.length(), buffer, 0);
+  }
+
+  static boolean copyAndMask(String s, byte[] buffer) {
+    int mask = 0;
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      mask |= c;
+      buffer[i] = (byte) c;
+    }
+    return (mask & 0b1111111110000000) == 0;
+  }
+
   static boolean fitsInAsciiMask(String s) {
     int mask = 0;
     for (int i = 0; i < s.length(); i++) {
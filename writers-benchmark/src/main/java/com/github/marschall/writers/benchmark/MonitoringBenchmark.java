@@ -0,0 +1,69 @@
+package com.github.marschall.writers.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.marschall.writers.BufferedAsciiOutputStreamWriter;
+import com.github.marschall.writers.WriterMonitoring;
+
+/**
+ * Measures the overhead of {@link WriterMonitoring} when disabled, when
+ * enabled without a flight recording and when enabled with a flight
+ * recording.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MonitoringBenchmark {
+
+  private static final int ITERATIONS = 1000;
+
+  @Param({"64", "8192"})
+  public int bufferSize;
+
+  private Writer writer;
+
+  @Setup
+  public void setup() {
+    this.writer = new BufferedAsciiOutputStreamWriter(OutputStream.nullOutputStream(), this.bufferSize);
+  }
+
+  private Writer writeStrings() throws IOException {
+    for (int i = 0; i < ITERATIONS; i++) {
+      this.writer.write("abcd123");
+    }
+    this.writer.flush();
+    return this.writer;
+  }
+
+  @Benchmark
+  @Fork(1)
+  public Writer disabled() throws IOException {
+    return this.writeStrings();
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = "-D" + WriterMonitoring.PROPERTY_NAME + "=true")
+  public Writer enabled() throws IOException {
+    return this.writeStrings();
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = {"-D" + WriterMonitoring.PROPERTY_NAME + "=true", "-XX:StartFlightRecording=settings=profile"})
+  public Writer enabledRecording() throws IOException {
+    return this.writeStrings();
+  }
+
+}
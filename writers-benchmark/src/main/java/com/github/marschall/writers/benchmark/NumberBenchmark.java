@@ -0,0 +1,60 @@
+package com.github.marschall.writers.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.marschall.writers.BufferedAsciiOutputStreamWriter;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class NumberBenchmark {
+
+  @Param({"7", "1234567890123"})
+  public long longValue;
+
+  @Param({"0.1", "3.141592653589793", "1.0E-100"})
+  public double doubleValue;
+
+  private BufferedAsciiOutputStreamWriter writer;
+
+  @Setup
+  public void setup() {
+    this.writer = new BufferedAsciiOutputStreamWriter(OutputStream.nullOutputStream());
+  }
+
+  @Benchmark
+  public BufferedAsciiOutputStreamWriter writeLong() throws IOException {
+    this.writer.writeLong(this.longValue);
+    return this.writer;
+  }
+
+  @Benchmark
+  public BufferedAsciiOutputStreamWriter writeLongToString() throws IOException {
+    this.writer.write(Long.toString(this.longValue));
+    return this.writer;
+  }
+
+  @Benchmark
+  public BufferedAsciiOutputStreamWriter writeDouble() throws IOException {
+    this.writer.writeDouble(this.doubleValue);
+    return this.writer;
+  }
+
+  @Benchmark
+  public BufferedAsciiOutputStreamWriter writeDoubleToString() throws IOException {
+    this.writer.write(Double.toString(this.doubleValue));
+    return this.writer;
+  }
+
+}
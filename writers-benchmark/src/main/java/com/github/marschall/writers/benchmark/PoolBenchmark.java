@@ -0,0 +1,80 @@
+package com.github.marschall.writers.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.marschall.writers.BufferedAsciiOutputStreamWriter;
+import com.github.marschall.writers.BufferedAsciiOutputStreamWriterPool;
+import com.github.marschall.writers.UnmappablePolicy;
+
+/**
+ * Writes a short response with a new writer for every response compared
+ * to a writer from a pool. Run with {@code -prof gc} to see the
+ * allocation rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class PoolBenchmark {
+
+  private OutputStream out;
+
+  private BufferedAsciiOutputStreamWriterPool pool;
+
+  private BufferedAsciiOutputStreamWriterPool leakDetectingPool;
+
+  @Setup
+  public void setup() {
+    // unlike OutputStream.nullOutputStream() can still be written after being closed
+    this.out = new OutputStream() {
+
+      @Override
+      public void write(int b) {
+        // ignore
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) {
+        // ignore
+      }
+
+    };
+    this.pool = new BufferedAsciiOutputStreamWriterPool(16);
+    this.leakDetectingPool = new BufferedAsciiOutputStreamWriterPool(16, 8192, UnmappablePolicy.REPLACE, true);
+  }
+
+  private static Writer writeResponse(BufferedAsciiOutputStreamWriter writer) throws IOException {
+    try (writer) {
+      writer.write("{\"status\":\"OK\",\"count\":");
+      writer.writeInt(42);
+      writer.write('}');
+    }
+    return writer;
+  }
+
+  @Benchmark
+  public Writer newWriter() throws IOException {
+    return writeResponse(new BufferedAsciiOutputStreamWriter(this.out));
+  }
+
+  @Benchmark
+  public Writer pooledWriter() throws IOException {
+    return writeResponse(this.pool.acquire(this.out));
+  }
+
+  @Benchmark
+  public Writer leakDetectingPooledWriter() throws IOException {
+    return writeResponse(this.leakDetectingPool.acquire(this.out));
+  }
+
+}
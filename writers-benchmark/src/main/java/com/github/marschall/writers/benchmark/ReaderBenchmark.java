@@ -0,0 +1,106 @@
+package com.github.marschall.writers.benchmark;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.marschall.writers.AsciiInputStreamReader;
+import com.github.marschall.writers.BufferedAsciiInputStreamReader;
+
+/**
+ * Compares the ASCII readers to {@link InputStreamReader} and
+ * {@link BufferedReader}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ReaderBenchmark {
+
+  private static final int LINES = 1000;
+
+  private byte[] input;
+
+  private char[] cbuf;
+
+  @Setup
+  public void setup() {
+    StringBuilder buffer = new StringBuilder();
+    for (int i = 0; i < LINES; i++) {
+      buffer.append("2021-01-01T00:00:00Z,abcd123,").append(i).append('\n');
+    }
+    this.input = buffer.toString().getBytes(US_ASCII);
+    this.cbuf = new char[128];
+  }
+
+  private ByteArrayInputStream newInputStream() {
+    return new ByteArrayInputStream(this.input);
+  }
+
+  private int readFully(Reader reader) throws IOException {
+    int total = 0;
+    int read = reader.read(this.cbuf);
+    while (read != -1) {
+      total += read;
+      read = reader.read(this.cbuf);
+    }
+    return total;
+  }
+
+  @Benchmark
+  public int readInputStreamReader() throws IOException {
+    return this.readFully(new InputStreamReader(this.newInputStream(), US_ASCII));
+  }
+
+  @Benchmark
+  public int readChunkedAsciiInputStreamReader() throws IOException {
+    return this.readFully(new AsciiInputStreamReader(this.newInputStream(), 128));
+  }
+
+  @Benchmark
+  public int readBufferedReader() throws IOException {
+    return this.readFully(new BufferedReader(new InputStreamReader(this.newInputStream(), US_ASCII)));
+  }
+
+  @Benchmark
+  public int readBufferedAsciiInputStreamReader() throws IOException {
+    return this.readFully(new BufferedAsciiInputStreamReader(this.newInputStream()));
+  }
+
+  @Benchmark
+  public int readLineBufferedReader() throws IOException {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(this.newInputStream(), US_ASCII));
+    int total = 0;
+    String line = reader.readLine();
+    while (line != null) {
+      total += line.length();
+      line = reader.readLine();
+    }
+    return total;
+  }
+
+  @Benchmark
+  public int readLineBufferedAsciiInputStreamReader() throws IOException {
+    BufferedAsciiInputStreamReader reader = new BufferedAsciiInputStreamReader(this.newInputStream());
+    int total = 0;
+    int read = reader.readLine(this.cbuf);
+    while (read != -1) {
+      total += read;
+      read = reader.readLine(this.cbuf);
+    }
+    return total;
+  }
+
+}
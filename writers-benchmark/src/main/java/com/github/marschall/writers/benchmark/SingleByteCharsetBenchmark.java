@@ -0,0 +1,91 @@
+package com.github.marschall.writers.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.marschall.writers.BufferedSingleByteCharsetWriter;
+
+/**
+ * Compares {@link BufferedSingleByteCharsetWriter} to {@link OutputStreamWriter}
+ * for legacy single byte charsets.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SingleByteCharsetBenchmark {
+
+  private static final int ITERATIONS = 1000;
+
+  @Param({"windows-1252", "ISO-8859-15", "IBM037"})
+  public String charsetName;
+
+  @Param({"ascii", "mixed"})
+  public String content;
+
+  private String string;
+
+  private char[] chars;
+
+  private Writer outputStreamWriter;
+
+  private Writer singleByteCharsetWriter;
+
+  @Setup
+  public void setup() {
+    Charset charset = Charset.forName(this.charsetName);
+    this.string = "ascii".equals(this.content) ? "Zurich, 8001, Switzerland" : "Zürich, 8001, Schwéiz €";
+    this.chars = this.string.toCharArray();
+    this.outputStreamWriter = new OutputStreamWriter(OutputStream.nullOutputStream(), charset);
+    this.singleByteCharsetWriter = new BufferedSingleByteCharsetWriter(OutputStream.nullOutputStream(), charset);
+  }
+
+  @Benchmark
+  public Writer writeStringOutputStreamWriter() throws IOException {
+    for (int i = 0; i < ITERATIONS; i++) {
+      this.outputStreamWriter.write(this.string);
+    }
+    this.outputStreamWriter.flush();
+    return this.outputStreamWriter;
+  }
+
+  @Benchmark
+  public Writer writeStringSingleByteCharsetWriter() throws IOException {
+    for (int i = 0; i < ITERATIONS; i++) {
+      this.singleByteCharsetWriter.write(this.string);
+    }
+    this.singleByteCharsetWriter.flush();
+    return this.singleByteCharsetWriter;
+  }
+
+  @Benchmark
+  public Writer writeCharArrayOutputStreamWriter() throws IOException {
+    for (int i = 0; i < ITERATIONS; i++) {
+      this.outputStreamWriter.write(this.chars);
+    }
+    this.outputStreamWriter.flush();
+    return this.outputStreamWriter;
+  }
+
+  @Benchmark
+  public Writer writeCharArraySingleByteCharsetWriter() throws IOException {
+    for (int i = 0; i < ITERATIONS; i++) {
+      this.singleByteCharsetWriter.write(this.chars);
+    }
+    this.singleByteCharsetWriter.flush();
+    return this.singleByteCharsetWriter;
+  }
+
+}
@@ -0,0 +1,49 @@
+package com.github.marschall.writers.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.marschall.writers.BufferedAsciiOutputStreamWriter;
+
+/**
+ * Measures {@link BufferedAsciiOutputStreamWriter#write(String)} for
+ * short and long ASCII {@link String}s.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+public class StringBenchmark {
+
+  @Param({"16", "64", "256", "1024", "8192"})
+  public int length;
+
+  private String value;
+
+  private Writer writer;
+
+  @Setup
+  public void setup() {
+    this.value = "a".repeat(this.length);
+    this.writer = new BufferedAsciiOutputStreamWriter(OutputStream.nullOutputStream(), 8192);
+  }
+
+  @Benchmark
+  public Writer writeString() throws IOException {
+    this.writer.write(this.value);
+    return this.writer;
+  }
+
+}
@@ -0,0 +1,70 @@
+package com.github.marschall.writers.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.marschall.writers.AsciiOutputStreamWriter;
+import com.github.marschall.writers.BufferedAsciiOutputStreamWriter;
+import com.github.marschall.writers.UnmappablePolicy;
+
+/**
+ * Shows that the policy does not influence writing ASCII only text.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class UnmappablePolicyBenchmark {
+
+  @Param({"REPLACE", "SKIP", "ESCAPE_JSON", "ESCAPE_XML"})
+  public UnmappablePolicy policy;
+
+  @Param({"ascii", "nonAscii"})
+  public String content;
+
+  private String value;
+
+  private char[] array;
+
+  private Writer bufferedAsciiOutputStreamWriter;
+
+  private Writer chunkedAsciiOutputStreamWriter;
+
+  @Setup
+  public void setup() {
+    String ascii = "abcdefghijklmnopqrstuvwxyz0123456789abcdefghijklmnopqrstuvwxyz0123456789";
+    this.value = this.content.equals("ascii") ? ascii : ascii.replace('z', 'ü');
+    this.array = this.value.toCharArray();
+    this.bufferedAsciiOutputStreamWriter = new BufferedAsciiOutputStreamWriter(OutputStream.nullOutputStream(), 8192, this.policy);
+    this.chunkedAsciiOutputStreamWriter = new AsciiOutputStreamWriter(OutputStream.nullOutputStream(), 128, this.policy);
+  }
+
+  @Benchmark
+  public Writer writeStringBufferedAsciiOutputStreamWriter() throws IOException {
+    this.bufferedAsciiOutputStreamWriter.write(this.value);
+    return this.bufferedAsciiOutputStreamWriter;
+  }
+
+  @Benchmark
+  public Writer writeCharArrayBufferedAsciiOutputStreamWriter() throws IOException {
+    this.bufferedAsciiOutputStreamWriter.write(this.array);
+    return this.bufferedAsciiOutputStreamWriter;
+  }
+
+  @Benchmark
+  public Writer writeStringChunkedAsciiOutputStreamWriter() throws IOException {
+    this.chunkedAsciiOutputStreamWriter.write(this.value);
+    return this.chunkedAsciiOutputStreamWriter;
+  }
+
+}
@@ -0,0 +1,61 @@
+package com.github.marschall.writers.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.marschall.writers.BufferedAsciiOutputStreamWriter;
+
+/**
+ * Compares the scalar and the vectorized path of
+ * {@link BufferedAsciiOutputStreamWriter#write(char[], int, int)}.
+ * <p>
+ * The vectorized path is only taken on Java 17+ when the
+ * {@code jdk.incubator.vector} module is present.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class VectorizationBenchmark {
+
+  @Param({"7", "16", "64", "256", "1024", "8192"})
+  public int length;
+
+  private char[] value;
+
+  private Writer writer;
+
+  @Setup
+  public void setup() {
+    this.value = new char[this.length];
+    Arrays.fill(this.value, 'a');
+    this.writer = new BufferedAsciiOutputStreamWriter(OutputStream.nullOutputStream(), 8192);
+  }
+
+  @Benchmark
+  @Fork(1)
+  public Writer scalar() throws IOException {
+    this.writer.write(this.value);
+    return this.writer;
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+  public Writer vectorized() throws IOException {
+    this.writer.write(this.value);
+    return this.writer;
+  }
+
+}
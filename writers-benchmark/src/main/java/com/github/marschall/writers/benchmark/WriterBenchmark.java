@@ -28,12 +28,16 @@ public class WriterBenchmark {
 
   private static final int ITERATIONS = 1000;
 
+  private final StringBuilder stringBuilder = new StringBuilder("abcd123");
+
   private PrintWriter printWriter;
 
   private Writer outputStreamWriter;
 
   private Writer asciiOutputStreamWriter;
 
+  private Writer chunkedAsciiOutputStreamWriter;
+
   private Writer bufferedAsciiOutputStreamWriter;
 
   private ByteArrayOutputStream printWriterStream;
@@ -42,6 +46,8 @@ public class WriterBenchmark {
 
   private ByteArrayOutputStream asciiOutputStreamWriterStream;
 
+  private ByteArrayOutputStream chunkedAsciiOutputStreamWriterStream;
+
   private ByteArrayOutputStream bufferedAsciiOutputStreamWriterStream;
 
   @Setup
@@ -49,10 +55,12 @@ public class WriterBenchmark {
     this.printWriterStream = new ByteArrayOutputStream(8196);
     this.outputStreamWriterStream = new ByteArrayOutputStream(8196);
     this.asciiOutputStreamWriterStream = new ByteArrayOutputStream(8196);
+    this.chunkedAsciiOutputStreamWriterStream = new ByteArrayOutputStream(8196);
     this.bufferedAsciiOutputStreamWriterStream = new ByteArrayOutputStream(8196);
     this.printWriter = new PrintWriter(new BufferedOutputStream(printWriterStream), false, US_ASCII);
     this.outputStreamWriter = new OutputStreamWriter(new BufferedOutputStream(outputStreamWriterStream), US_ASCII);
     this.asciiOutputStreamWriter = new AsciiOutputStreamWriter(new BufferedOutputStream(asciiOutputStreamWriterStream));
+    this.chunkedAsciiOutputStreamWriter = new AsciiOutputStreamWriter(new BufferedOutputStream(chunkedAsciiOutputStreamWriterStream), 128);
     this.bufferedAsciiOutputStreamWriter = new BufferedAsciiOutputStreamWriter(bufferedAsciiOutputStreamWriterStream);
   }
 
@@ -126,6 +134,16 @@ public class WriterBenchmark {
     return this.asciiOutputStreamWriter;
   }
 
+  @Benchmark
+  public Writer writeStringChunkedAsciiOutputStreamWriter() throws IOException {
+    for (int i = 0; i < ITERATIONS; i++) {
+      this.chunkedAsciiOutputStreamWriter.write("abcd123");
+    }
+    this.chunkedAsciiOutputStreamWriter.flush();
+    this.chunkedAsciiOutputStreamWriterStream.reset();
+    return this.chunkedAsciiOutputStreamWriter;
+  }
+
   @Benchmark
   public Writer writeStringBufferedAsciiOutputStreamWriter() throws IOException {
     for (int i = 0; i < ITERATIONS; i++) {
@@ -136,4 +154,54 @@ public class WriterBenchmark {
     return this.bufferedAsciiOutputStreamWriter;
   }
 
+  @Benchmark
+  public PrintWriter appendStringBuilderPrintWriter() {
+    for (int i = 0; i < ITERATIONS; i++) {
+      this.printWriter.append(this.stringBuilder);
+    }
+    this.printWriter.flush();
+    this.printWriterStream.reset();
+    return this.printWriter;
+  }
+
+  @Benchmark
+  public Writer appendStringBuilderOutputStreamWriter() throws IOException {
+    for (int i = 0; i < ITERATIONS; i++) {
+      this.outputStreamWriter.append(this.stringBuilder);
+    }
+    this.outputStreamWriter.flush();
+    this.outputStreamWriterStream.reset();
+    return this.outputStreamWriter;
+  }
+
+  @Benchmark
+  public Writer appendStringBuilderAsciiOutputStreamWriter() throws IOException {
+    for (int i = 0; i < ITERATIONS; i++) {
+      this.asciiOutputStreamWriter.append(this.stringBuilder);
+    }
+    this.asciiOutputStreamWriter.flush();
+    this.asciiOutputStreamWriterStream.reset();
+    return this.asciiOutputStreamWriter;
+  }
+
+  @Benchmark
+  public Writer appendStringBuilderChunkedAsciiOutputStreamWriter() throws IOException {
+    for (int i = 0; i < ITERATIONS; i++) {
+      this.chunkedAsciiOutputStreamWriter.append(this.stringBuilder);
+    }
+    this.chunkedAsciiOutputStreamWriter.flush();
+    this.chunkedAsciiOutputStreamWriterStream.reset();
+    return this.chunkedAsciiOutputStreamWriter;
+  }
+
+  @Benchmark
+  public Writer appendStringBuilderBufferedAsciiOutputStreamWriter() throws IOException {
+    for (int i = 0; i < ITERATIONS; i++) {
+      this.bufferedAsciiOutputStreamWriter.append(this.stringBuilder);
+    }
+    this.bufferedAsciiOutputStreamWriter.flush();
+    this.bufferedAsciiOutputStreamWriterStream.reset();
+    return this.bufferedAsciiOutputStreamWriter;
+  }
+
 }
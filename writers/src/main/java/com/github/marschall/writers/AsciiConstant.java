@@ -0,0 +1,103 @@
+package com.github.marschall.writers;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A character sequence that is known to be ASCII and already encoded.
+ * <p>
+ * Intended for literals that are written very often like field names,
+ * delimiters or header names. The characters are checked and encoded once
+ * when the constant is created, writing it with
+ * {@link BufferedAsciiOutputStreamWriter#write(AsciiConstant)} is a single
+ * array copy.
+ * <pre><code>
+ * private static final AsciiConstant CONTENT_TYPE = AsciiConstant.of("Content-Type: ");
+ *
+ * writer.write(CONTENT_TYPE);
+ * </code></pre>
+ *
+ * @implNote This class is immutable and thread-safe.
+ */
+public final class AsciiConstant implements CharSequence {
+
+  private final String value;
+
+  private final byte[] bytes;
+
+  private AsciiConstant(String value, byte[] bytes) {
+    this.value = value;
+    this.bytes = bytes;
+  }
+
+  /**
+   * Creates a new constant.
+   *
+   * @param csq the characters of the constant, not {@code null}, must
+   *            only contain ASCII characters
+   * @return the constant
+   * @throws NullPointerException if {@code csq} is {@code null}
+   * @throws IllegalArgumentException if {@code csq} contains non-ASCII
+   *                                  characters
+   */
+  public static AsciiConstant of(CharSequence csq) {
+    Objects.requireNonNull(csq, "csq");
+    String value = csq.toString();
+    byte[] bytes = new byte[value.length()];
+    for (int i = 0; i < bytes.length; i++) {
+      char c = value.charAt(i);
+      if (!Repertoires.fitsInAscii(c)) {
+        throw new IllegalArgumentException("non-ASCII character at index: " + i);
+      }
+      bytes[i] = (byte) c;
+    }
+    return new AsciiConstant(value, bytes);
+  }
+
+  /**
+   * Returns the encoded characters, must not be modified.
+   *
+   * @return the encoded characters
+   */
+  byte[] bytes() {
+    return this.bytes;
+  }
+
+  @Override
+  public int length() {
+    return this.bytes.length;
+  }
+
+  @Override
+  public char charAt(int index) {
+    return (char) this.bytes[index];
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    return this.value.subSequence(start, end);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof AsciiConstant)) {
+      return false;
+    }
+    AsciiConstant other = (AsciiConstant) obj;
+    return Arrays.equals(this.bytes, other.bytes);
+  }
+
+  @Override
+  public int hashCode() {
+    return this.value.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return this.value;
+  }
+
+}
@@ -0,0 +1,36 @@
+package com.github.marschall.writers;
+
+/**
+ * Narrows {@code char}s to {@code byte}s while checking for non-ASCII characters.
+ * <p>
+ * This is the Java 11 implementation, a vectorized implementation for
+ * newer Java versions is in the multi-release part of the JAR.
+ */
+final class AsciiCopy {
+
+  private AsciiCopy() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Narrows {@code char}s to {@code byte}s.
+   *
+   * @param src the characters to copy
+   * @param srcOffset the offset into {@code src}
+   * @param dst the bytes to copy into
+   * @param dstOffset the offset into {@code dst}
+   * @param length the number of characters to copy
+   * @return the bitwise or of all copied characters, to be checked with
+   *         {@link Repertoires#fitsInAscii(int)}
+   */
+  static int copyAndMask(char[] src, int srcOffset, byte[] dst, int dstOffset, int length) {
+    int mask = 0;
+    for (int i = 0; i < length; i++) {
+      char c = src[srcOffset + i];
+      mask |= c;
+      dst[dstOffset + i] = (byte) c;
+    }
+    return mask;
+  }
+
+}
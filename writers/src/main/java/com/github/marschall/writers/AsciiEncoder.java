@@ -0,0 +1,297 @@
+package com.github.marschall.writers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Narrows {@code char}s to {@code byte}s and replaces non-ASCII
+ * characters with {@code '?'}.
+ * <p>
+ * The characters are copied and checked for non-ASCII characters in a
+ * single pass. Non-ASCII characters are truncated during the copy and
+ * replaced in a second pass that is only done if there were any. The
+ * {@code char[]} methods use {@link AsciiCopy} for the first pass.
+ * {@link ByteBuffer}s backed by an array are encoded like a
+ * {@code byte[]}.
+ * <p>
+ * The methods taking a {@link String} are separate from the methods
+ * taking a {@link CharSequence} so that the {@link String} loops stay
+ * monomorphic. Long {@link String}s are checked first and their ASCII
+ * prefix is copied with {@link String#getBytes(int, int, byte[], int)},
+ * which is a plain array copy for Latin-1 {@link String}s and faster
+ * than narrowing each character.
+ */
+final class AsciiEncoder {
+
+  /**
+   * The length from which {@link String}s are copied with
+   * {@link String#getBytes(int, int, byte[], int)}.
+   */
+  static final int GET_BYTES_THRESHOLD = 64;
+
+  private AsciiEncoder() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Narrows {@code char}s to {@code byte}s.
+   *
+   * @param src the characters to copy
+   * @param srcOffset the offset into {@code src}
+   * @param dst the bytes to copy into
+   * @param dstOffset the offset into {@code dst}
+   * @param length the number of characters to copy
+   * @return a value that is not ASCII if any of the copied characters is
+   *         not, to be checked with {@link Repertoires#fitsInAscii(int)}
+   * @see AsciiCopy#copyAndMask(char[], int, byte[], int, int)
+   */
+  @SuppressWarnings("deprecation") // we know the content is ASCII, therefore this is fine
+  static int copyAndMask(String src, int srcOffset, byte[] dst, int dstOffset, int length) {
+    int start = 0;
+    if (length >= GET_BYTES_THRESHOLD) {
+      int srcEnd = srcOffset + length;
+      int asciiEnd = Repertoires.asciiRunEnd(src, srcOffset, srcEnd);
+      src.getBytes(srcOffset, asciiEnd, dst, dstOffset);
+      if (asciiEnd == srcEnd) {
+        return 0;
+      }
+      start = asciiEnd - srcOffset;
+    }
+    int mask = 0;
+    for (int i = start; i < length; i++) {
+      char c = src.charAt(srcOffset + i);
+      mask |= c;
+      dst[dstOffset + i] = (byte) c;
+    }
+    return mask;
+  }
+
+  /**
+   * Narrows {@code char}s to {@code byte}s.
+   *
+   * @param src the characters to copy
+   * @param srcOffset the offset into {@code src}
+   * @param dst the bytes to copy into
+   * @param dstOffset the offset into {@code dst}
+   * @param length the number of characters to copy
+   * @return the bitwise or of all copied characters, to be checked with
+   *         {@link Repertoires#fitsInAscii(int)}
+   * @see AsciiCopy#copyAndMask(char[], int, byte[], int, int)
+   */
+  static int copyAndMask(CharSequence src, int srcOffset, byte[] dst, int dstOffset, int length) {
+    int mask = 0;
+    for (int i = 0; i < length; i++) {
+      char c = src.charAt(srcOffset + i);
+      mask |= c;
+      dst[dstOffset + i] = (byte) c;
+    }
+    return mask;
+  }
+
+  /**
+   * Replaces the bytes of already copied non-ASCII characters with {@code '?'}.
+   *
+   * @param src the characters that have been copied
+   * @param srcOffset the offset into {@code src}
+   * @param dst the bytes the characters have been copied into
+   * @param dstOffset the offset into {@code dst}
+   * @param length the number of characters that have been copied
+   * @return the number of characters replaced
+   */
+  static int replaceNonAscii(char[] src, int srcOffset, byte[] dst, int dstOffset, int length) {
+    int replaced = 0;
+    for (int i = 0; i < length; i++) {
+      if (!Repertoires.fitsInAscii(src[srcOffset + i])) {
+        dst[dstOffset + i] = (byte) '?';
+        replaced += 1;
+      }
+    }
+    return replaced;
+  }
+
+  /**
+   * Replaces the bytes of already copied non-ASCII characters with {@code '?'}.
+   *
+   * @param src the characters that have been copied
+   * @param srcOffset the offset into {@code src}
+   * @param dst the bytes the characters have been copied into
+   * @param dstOffset the offset into {@code dst}
+   * @param length the number of characters that have been copied
+   * @return the number of characters replaced
+   */
+  static int replaceNonAscii(String src, int srcOffset, byte[] dst, int dstOffset, int length) {
+    int replaced = 0;
+    for (int i = 0; i < length; i++) {
+      if (!Repertoires.fitsInAscii(src.charAt(srcOffset + i))) {
+        dst[dstOffset + i] = (byte) '?';
+        replaced += 1;
+      }
+    }
+    return replaced;
+  }
+
+  /**
+   * Replaces the bytes of already copied non-ASCII characters with {@code '?'}.
+   *
+   * @param src the characters that have been copied
+   * @param srcOffset the offset into {@code src}
+   * @param dst the bytes the characters have been copied into
+   * @param dstOffset the offset into {@code dst}
+   * @param length the number of characters that have been copied
+   * @return the number of characters replaced
+   */
+  static int replaceNonAscii(CharSequence src, int srcOffset, byte[] dst, int dstOffset, int length) {
+    int replaced = 0;
+    for (int i = 0; i < length; i++) {
+      if (!Repertoires.fitsInAscii(src.charAt(srcOffset + i))) {
+        dst[dstOffset + i] = (byte) '?';
+        replaced += 1;
+      }
+    }
+    return replaced;
+  }
+
+  /**
+   * Encodes characters into a {@code byte[]}.
+   *
+   * @param src the characters to encode
+   * @param srcOffset the offset into {@code src}
+   * @param dst the bytes to encode into
+   * @param dstOffset the offset into {@code dst}
+   * @param length the number of characters to encode
+   */
+  static void encode(char[] src, int srcOffset, byte[] dst, int dstOffset, int length) {
+    int mask = AsciiCopy.copyAndMask(src, srcOffset, dst, dstOffset, length);
+    if (!Repertoires.fitsInAscii(mask)) {
+      replaceNonAscii(src, srcOffset, dst, dstOffset, length);
+    }
+  }
+
+  /**
+   * Encodes characters into a {@code byte[]}.
+   *
+   * @param src the characters to encode
+   * @param srcOffset the offset into {@code src}
+   * @param dst the bytes to encode into
+   * @param dstOffset the offset into {@code dst}
+   * @param length the number of characters to encode
+   */
+  static void encode(String src, int srcOffset, byte[] dst, int dstOffset, int length) {
+    int mask = copyAndMask(src, srcOffset, dst, dstOffset, length);
+    if (!Repertoires.fitsInAscii(mask)) {
+      replaceNonAscii(src, srcOffset, dst, dstOffset, length);
+    }
+  }
+
+  /**
+   * Encodes characters into a {@code byte[]}.
+   *
+   * @param src the characters to encode
+   * @param srcOffset the offset into {@code src}
+   * @param dst the bytes to encode into
+   * @param dstOffset the offset into {@code dst}
+   * @param length the number of characters to encode
+   */
+  static void encode(CharSequence src, int srcOffset, byte[] dst, int dstOffset, int length) {
+    int mask = copyAndMask(src, srcOffset, dst, dstOffset, length);
+    if (!Repertoires.fitsInAscii(mask)) {
+      replaceNonAscii(src, srcOffset, dst, dstOffset, length);
+    }
+  }
+
+  /**
+   * Encodes characters into a {@link ByteBuffer} at its position and
+   * advances the position.
+   *
+   * @param src the characters to encode
+   * @param srcOffset the offset into {@code src}
+   * @param dst the buffer to encode into, must have at least {@code length}
+   *            bytes remaining
+   * @param length the number of characters to encode
+   */
+  static void encode(char[] src, int srcOffset, ByteBuffer dst, int length) {
+    int dstStart = dst.position();
+    if (dst.hasArray()) {
+      encode(src, srcOffset, dst.array(), dst.arrayOffset() + dstStart, length);
+      dst.position(dstStart + length);
+      return;
+    }
+    int mask = 0;
+    for (int i = 0; i < length; i++) {
+      char c = src[srcOffset + i];
+      mask |= c;
+      dst.put((byte) c);
+    }
+    if (!Repertoires.fitsInAscii(mask)) {
+      for (int i = 0; i < length; i++) {
+        if (!Repertoires.fitsInAscii(src[srcOffset + i])) {
+          dst.put(dstStart + i, (byte) '?');
+        }
+      }
+    }
+  }
+
+  /**
+   * Encodes characters into a {@link ByteBuffer} at its position and
+   * advances the position.
+   *
+   * @param src the characters to encode
+   * @param srcOffset the offset into {@code src}
+   * @param dst the buffer to encode into, must have at least {@code length}
+   *            bytes remaining
+   * @param length the number of characters to encode
+   */
+  static void encode(String src, int srcOffset, ByteBuffer dst, int length) {
+    int dstStart = dst.position();
+    if (dst.hasArray()) {
+      encode(src, srcOffset, dst.array(), dst.arrayOffset() + dstStart, length);
+      dst.position(dstStart + length);
+      return;
+    }
+    int mask = 0;
+    for (int i = 0; i < length; i++) {
+      char c = src.charAt(srcOffset + i);
+      mask |= c;
+      dst.put((byte) c);
+    }
+    if (!Repertoires.fitsInAscii(mask)) {
+      for (int i = 0; i < length; i++) {
+        if (!Repertoires.fitsInAscii(src.charAt(srcOffset + i))) {
+          dst.put(dstStart + i, (byte) '?');
+        }
+      }
+    }
+  }
+
+  /**
+   * Encodes characters into a {@link ByteBuffer} at its position and
+   * advances the position.
+   *
+   * @param src the characters to encode
+   * @param srcOffset the offset into {@code src}
+   * @param dst the buffer to encode into, must have at least {@code length}
+   *            bytes remaining
+   * @param length the number of characters to encode
+   */
+  static void encode(CharSequence src, int srcOffset, ByteBuffer dst, int length) {
+    int dstStart = dst.position();
+    if (dst.hasArray()) {
+      encode(src, srcOffset, dst.array(), dst.arrayOffset() + dstStart, length);
+      dst.position(dstStart + length);
+      return;
+    }
+    int mask = 0;
+    for (int i = 0; i < length; i++) {
+      char c = src.charAt(srcOffset + i);
+      mask |= c;
+      dst.put((byte) c);
+    }
+    if (!Repertoires.fitsInAscii(mask)) {
+      for (int i = 0; i < length; i++) {
+        if (!Repertoires.fitsInAscii(src.charAt(srcOffset + i))) {
+          dst.put(dstStart + i, (byte) '?');
+        }
+      }
+    }
+  }
+
+}
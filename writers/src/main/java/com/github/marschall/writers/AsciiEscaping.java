@@ -0,0 +1,166 @@
+package com.github.marschall.writers;
+
+/**
+ * Copies runs of characters that do not need escaping for
+ * {@link JsonEscapingWriter} and {@link HtmlEscapingWriter}.
+ * <p>
+ * The characters that need escaping are given as a {@code char[128]}
+ * of flags that is {@code 0x80} for ASCII characters that have to be
+ * escaped and {@code 0} for all others. The flag is combined with the
+ * character so that a single check with
+ * {@link Repertoires#fitsInAscii(int)} finds both non-ASCII characters
+ * and ASCII characters that have to be escaped.
+ * <p>
+ * The writers first copy and check blocks of characters in a single
+ * pass with {@code copySafeBlocks}. From the first block that contains
+ * characters that need escaping on they copy runs of safe characters
+ * with {@code copySafeRun} and write the escape sequences directly into
+ * the buffer.
+ * <p>
+ * The methods taking a {@link CharSequence} are separate from the
+ * methods taking a {@code char[]} so that the loops stay monomorphic.
+ */
+final class AsciiEscaping {
+
+  /**
+   * The number of characters that are copied and checked at once before
+   * switching to escaping.
+   */
+  private static final int BLOCK_SIZE = 16;
+
+  private AsciiEscaping() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Checks whether a character can be copied without escaping.
+   *
+   * @param c the character to check
+   * @param escapeFlags the flags of the ASCII characters that have to be escaped
+   * @return whether {@code c} is ASCII and does not have to be escaped
+   */
+  static boolean isSafe(char c, char[] escapeFlags) {
+    return Repertoires.fitsInAscii(c | escapeFlags[c & 0x7F]);
+  }
+
+  /**
+   * Copies blocks of characters up to the first block that contains a
+   * character that needs escaping.
+   * <p>
+   * The block that contains a character that needs escaping is copied
+   * as well but not included in the return value.
+   *
+   * @param csq the characters to copy
+   * @param start the index of the first character to copy
+   * @param end the index after the last character to copy
+   * @param escapeFlags the flags of the ASCII characters that have to be escaped
+   * @param dst the bytes to copy into, must have space for
+   *            {@code end - start} bytes
+   * @param dstOffset the offset into {@code dst}
+   * @return the index of the first character of the first block that
+   *         contains a character that needs escaping or {@code end}
+   */
+  static int copySafeBlocks(CharSequence csq, int start, int end, char[] escapeFlags, byte[] dst, int dstOffset) {
+    int length = end - start;
+    int i = 0;
+    while (i < length) {
+      int blockEnd = Math.min(i + BLOCK_SIZE, length);
+      int flags = 0;
+      for (int j = i; j < blockEnd; j++) {
+        char c = csq.charAt(start + j);
+        flags |= c | escapeFlags[c & 0x7F];
+        dst[dstOffset + j] = (byte) c;
+      }
+      if (!Repertoires.fitsInAscii(flags)) {
+        return start + i;
+      }
+      i = blockEnd;
+    }
+    return end;
+  }
+
+  /**
+   * Copies blocks of characters up to the first block that contains a
+   * character that needs escaping.
+   * <p>
+   * The block that contains a character that needs escaping is copied
+   * as well but not included in the return value.
+   *
+   * @param cbuf the characters to copy
+   * @param start the index of the first character to copy
+   * @param end the index after the last character to copy
+   * @param escapeFlags the flags of the ASCII characters that have to be escaped
+   * @param dst the bytes to copy into, must have space for
+   *            {@code end - start} bytes
+   * @param dstOffset the offset into {@code dst}
+   * @return the index of the first character of the first block that
+   *         contains a character that needs escaping or {@code end}
+   */
+  static int copySafeBlocks(char[] cbuf, int start, int end, char[] escapeFlags, byte[] dst, int dstOffset) {
+    int length = end - start;
+    int i = 0;
+    while (i < length) {
+      int blockEnd = Math.min(i + BLOCK_SIZE, length);
+      int flags = 0;
+      for (int j = i; j < blockEnd; j++) {
+        char c = cbuf[start + j];
+        flags |= c | escapeFlags[c & 0x7F];
+        dst[dstOffset + j] = (byte) c;
+      }
+      if (!Repertoires.fitsInAscii(flags)) {
+        return start + i;
+      }
+      i = blockEnd;
+    }
+    return end;
+  }
+
+  /**
+   * Copies characters up to the first character that needs escaping.
+   *
+   * @param csq the characters to copy
+   * @param start the index of the first character to copy
+   * @param end the index after the last character to copy
+   * @param escapeFlags the flags of the ASCII characters that have to be escaped
+   * @param dst the bytes to copy into, must have space for
+   *            {@code end - start} bytes
+   * @param dstOffset the offset into {@code dst}
+   * @return the index of the first character that needs escaping or
+   *         {@code end}
+   */
+  static int copySafeRun(CharSequence csq, int start, int end, char[] escapeFlags, byte[] dst, int dstOffset) {
+    for (int i = start; i < end; i++) {
+      char c = csq.charAt(i);
+      if (!isSafe(c, escapeFlags)) {
+        return i;
+      }
+      dst[dstOffset + i - start] = (byte) c;
+    }
+    return end;
+  }
+
+  /**
+   * Copies characters up to the first character that needs escaping.
+   *
+   * @param cbuf the characters to copy
+   * @param start the index of the first character to copy
+   * @param end the index after the last character to copy
+   * @param escapeFlags the flags of the ASCII characters that have to be escaped
+   * @param dst the bytes to copy into, must have space for
+   *            {@code end - start} bytes
+   * @param dstOffset the offset into {@code dst}
+   * @return the index of the first character that needs escaping or
+   *         {@code end}
+   */
+  static int copySafeRun(char[] cbuf, int start, int end, char[] escapeFlags, byte[] dst, int dstOffset) {
+    for (int i = start; i < end; i++) {
+      char c = cbuf[i];
+      if (!isSafe(c, escapeFlags)) {
+        return i;
+      }
+      dst[dstOffset + i - start] = (byte) c;
+    }
+    return end;
+  }
+
+}
@@ -0,0 +1,633 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.DuplicateFormatFlagsException;
+import java.util.FormatFlagsConversionMismatchException;
+import java.util.Formatter;
+import java.util.IllegalFormatConversionException;
+import java.util.IllegalFormatException;
+import java.util.IllegalFormatFlagsException;
+import java.util.IllegalFormatPrecisionException;
+import java.util.IllegalFormatWidthException;
+import java.util.List;
+import java.util.MissingFormatArgumentException;
+import java.util.MissingFormatWidthException;
+import java.util.Objects;
+import java.util.UnknownFormatConversionException;
+import java.util.UnknownFormatFlagsException;
+
+/**
+ * A precompiled format template that renders into a
+ * {@link BufferedAsciiOutputStreamWriter}.
+ * <p>
+ * The pattern is parsed once by {@link #compile(String)}, arguments are
+ * then passed one at a time with primitive overloads to a
+ * {@link Renderer} so that they never have to be boxed.
+ * <pre><code>
+ * AsciiFormat format = AsciiFormat.compile("%s %3d %.3f%n");
+ * AsciiFormat.Renderer renderer = format.renderer(writer);
+ * renderer.arg("GET").arg(200).arg(0.25d).end();
+ * </code></pre>
+ * <p>
+ * The following subset of {@link Formatter} is supported:
+ * <dl>
+ *  <dt>{@code %d}</dt>
+ *  <dd>a decimal integer</dd>
+ *  <dt>{@code %x}, {@code %X}</dt>
+ *  <dd>a hexadecimal integer in lower or upper case, {@code int}
+ *      arguments use 32 bits, {@code long} arguments 64 bits</dd>
+ *  <dt>{@code %f}</dt>
+ *  <dd>a decimal number with a default precision of 6, rounded
+ *      {@link java.math.RoundingMode#HALF_UP half up} from the shortest
+ *      decimal that rounds to the value</dd>
+ *  <dt>{@code %s}</dt>
+ *  <dd>a string, the precision is the maximum number of characters,
+ *      numbers are formatted like {@link Long#toString(long)} and
+ *      {@link Double#toString(double)}</dd>
+ *  <dt>{@code %%}</dt>
+ *  <dd>a literal {@code '%'}</dd>
+ *  <dt>{@code %n}</dt>
+ *  <dd>the line separator</dd>
+ * </dl>
+ * The flags {@code '-'} (left justify) and {@code '0'} (pad with zeros)
+ * can be combined with a width. Argument indices and other flags are not
+ * supported. {@code %%} and {@code %n} do not take flags, width or
+ * precision. Invalid patterns and arguments are reported with the same
+ * {@link IllegalFormatException} subclasses that {@link Formatter} uses.
+ * Like {@link Formatter} {@code null} arguments are rendered as
+ * {@code "null"} and additional arguments are ignored.
+ * <p>
+ * For non-ASCII characters {@code '?'} will be written instead just
+ * like {@link BufferedAsciiOutputStreamWriter} does.
+ *
+ * @implNote This class is thread-safe, {@link Renderer} is <b>not</b>.
+ * @implNote Rendering does not allocate any objects or call methods that
+ *           allocate objects unless an exception is thrown.
+ */
+public final class AsciiFormat {
+
+  private static final int DEFAULT_FLOAT_PRECISION = 6;
+
+  private final String pattern;
+
+  /**
+   * The literal text before every specifier, the last element is the
+   * literal text after the last specifier.
+   */
+  private final byte[][] literals;
+
+  private final Specifier[] specifiers;
+
+  private AsciiFormat(String pattern, byte[][] literals, Specifier[] specifiers) {
+    this.pattern = pattern;
+    this.literals = literals;
+    this.specifiers = specifiers;
+  }
+
+  /**
+   * Parses a pattern.
+   *
+   * @param pattern the pattern to parse, not {@code null}
+   * @return the compiled pattern
+   * @throws NullPointerException if {@code pattern} is {@code null}
+   * @throws IllegalFormatException if {@code pattern} is invalid or uses
+   *                                features not supported by this class
+   */
+  public static AsciiFormat compile(String pattern) {
+    Objects.requireNonNull(pattern, "pattern");
+    byte[] lineSeparator = System.lineSeparator().getBytes(US_ASCII);
+    List<byte[]> literals = new ArrayList<>();
+    List<Specifier> specifiers = new ArrayList<>();
+    byte[] literal = new byte[pattern.length() + lineSeparator.length];
+    int literalLength = 0;
+
+    int i = 0;
+    while (i < pattern.length()) {
+      char c = pattern.charAt(i++);
+      if (c != '%') {
+        if (literalLength == literal.length) {
+          literal = Arrays.copyOf(literal, literal.length * 2);
+        }
+        literal[literalLength++] = Repertoires.fitsInAscii(c) ? (byte) c : (byte) '?';
+        continue;
+      }
+      int specifierStart = i - 1;
+
+      // flags
+      boolean leftJustify = false;
+      boolean zeroPad = false;
+      while (i < pattern.length()) {
+        char flag = pattern.charAt(i);
+        if (flag == '-') {
+          if (leftJustify) {
+            throw new DuplicateFormatFlagsException("-");
+          }
+          leftJustify = true;
+        } else if (flag == '0') {
+          if (zeroPad) {
+            throw new DuplicateFormatFlagsException("0");
+          }
+          zeroPad = true;
+        } else if ((flag == '#') || (flag == '+') || (flag == ' ') || (flag == ',') || (flag == '(') || (flag == '<')) {
+          throw new UnknownFormatFlagsException(String.valueOf(flag));
+        } else {
+          break;
+        }
+        i += 1;
+      }
+
+      // width
+      int width = -1;
+      while ((i < pattern.length()) && isDigit(pattern.charAt(i))) {
+        if (width > (Integer.MAX_VALUE / 10) - 1) {
+          throw new IllegalFormatWidthException(width);
+        }
+        width = Math.max(width, 0) * 10 + (pattern.charAt(i) - '0');
+        i += 1;
+      }
+
+      // precision
+      int precision = -1;
+      if ((i < pattern.length()) && (pattern.charAt(i) == '.')) {
+        i += 1;
+        while ((i < pattern.length()) && isDigit(pattern.charAt(i))) {
+          if (precision > (Integer.MAX_VALUE / 10) - 1) {
+            throw new IllegalFormatPrecisionException(precision);
+          }
+          precision = Math.max(precision, 0) * 10 + (pattern.charAt(i) - '0');
+          i += 1;
+        }
+        if (precision == -1) {
+          throw new UnknownFormatConversionException(pattern.substring(specifierStart, Math.min(i + 1, pattern.length())));
+        }
+      }
+
+      if (i == pattern.length()) {
+        throw new UnknownFormatConversionException(pattern.substring(specifierStart));
+      }
+      char conversion = pattern.charAt(i++);
+      String specifierText = pattern.substring(specifierStart, i);
+
+      if ((conversion == '%') || (conversion == 'n')) {
+        if (leftJustify || zeroPad) {
+          throw new IllegalFormatFlagsException(leftJustify ? "-" : "0");
+        }
+        if (width != -1) {
+          throw new IllegalFormatWidthException(width);
+        }
+        if (precision != -1) {
+          throw new IllegalFormatPrecisionException(precision);
+        }
+        byte[] text = conversion == '%' ? new byte[] {'%'} : lineSeparator;
+        while (literalLength + text.length > literal.length) {
+          literal = Arrays.copyOf(literal, literal.length * 2);
+        }
+        System.arraycopy(text, 0, literal, literalLength, text.length);
+        literalLength += text.length;
+        continue;
+      }
+
+      switch (conversion) {
+        case 'd':
+        case 'x':
+        case 'X':
+          if (precision != -1) {
+            throw new IllegalFormatPrecisionException(precision);
+          }
+          break;
+        case 'f':
+          break;
+        case 's':
+          if (zeroPad) {
+            throw new FormatFlagsConversionMismatchException("0", conversion);
+          }
+          break;
+        default:
+          throw new UnknownFormatConversionException(String.valueOf(conversion));
+      }
+      if (leftJustify && zeroPad) {
+        throw new IllegalFormatFlagsException("-0");
+      }
+      if ((leftJustify || zeroPad) && (width == -1)) {
+        throw new MissingFormatWidthException(specifierText);
+      }
+
+      literals.add(Arrays.copyOf(literal, literalLength));
+      literalLength = 0;
+      specifiers.add(new Specifier(specifierText, conversion, leftJustify, zeroPad, width, precision));
+    }
+    literals.add(Arrays.copyOf(literal, literalLength));
+
+    return new AsciiFormat(pattern, literals.toArray(new byte[0][]), specifiers.toArray(new Specifier[0]));
+  }
+
+  private static boolean isDigit(char c) {
+    return (c >= '0') && (c <= '9');
+  }
+
+  /**
+   * Creates a new renderer that writes to the given writer.
+   * <p>
+   * The renderer should be reused for every line written.
+   *
+   * @param writer the writer to render into, not {@code null}
+   * @return the new renderer
+   * @throws NullPointerException if {@code writer} is {@code null}
+   */
+  public Renderer renderer(BufferedAsciiOutputStreamWriter writer) {
+    Objects.requireNonNull(writer, "writer");
+    return new Renderer(this, writer);
+  }
+
+  /**
+   * Returns the pattern that was compiled.
+   *
+   * @return the pattern that was compiled
+   */
+  @Override
+  public String toString() {
+    return this.pattern;
+  }
+
+  private static final class Specifier {
+
+    final String text;
+
+    final char conversion;
+
+    final boolean leftJustify;
+
+    final boolean zeroPad;
+
+    final int width;
+
+    final int precision;
+
+    Specifier(String text, char conversion, boolean leftJustify, boolean zeroPad, int width, int precision) {
+      this.text = text;
+      this.conversion = conversion;
+      this.leftJustify = leftJustify;
+      this.zeroPad = zeroPad;
+      this.width = width;
+      this.precision = precision;
+    }
+
+  }
+
+  /**
+   * Renders the arguments of an {@link AsciiFormat} into a
+   * {@link BufferedAsciiOutputStreamWriter}.
+   * <p>
+   * Every argument has to be passed in the order of the specifiers by
+   * calling one of the {@code arg} methods, {@link #end()} then writes
+   * the remaining literal text. Afterwards the renderer can be reused.
+   * Output is written as soon as an argument is passed, if an exception
+   * is thrown the output written so far remains and the renderer starts
+   * again with the first specifier.
+   *
+   * @implNote This class is <b>not</b> thread-safe.
+   */
+  public static final class Renderer {
+
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+    private static final byte[] LOWER_HEX_DIGITS = {
+      '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
+    };
+
+    private static final byte[] UPPER_HEX_DIGITS = {
+      '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'
+    };
+
+    private final byte[][] literals;
+
+    private final Specifier[] specifiers;
+
+    private final BufferedAsciiOutputStreamWriter writer;
+
+    private final byte[] scratch;
+
+    /**
+     * The significant digits of a {@code %f} argument, the first
+     * element is reserved for a carry from rounding.
+     */
+    private final byte[] digits;
+
+    private int index;
+
+    Renderer(AsciiFormat format, BufferedAsciiOutputStreamWriter writer) {
+      this.literals = format.literals;
+      this.specifiers = format.specifiers;
+      this.writer = writer;
+      this.scratch = new byte[DoubleToDecimal.MAX_LENGTH];
+      this.digits = new byte[DoubleToDecimal.MAX_LENGTH + 1];
+      this.index = 0;
+    }
+
+    /**
+     * Renders an {@code int} argument for a {@code %d}, {@code %x},
+     * {@code %X} or {@code %s} specifier.
+     *
+     * @param i the argument
+     * @return this renderer
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalFormatConversionException if the specifier does not
+     *                                          accept an {@code int}
+     */
+    public Renderer arg(int i) throws IOException {
+      Specifier specifier = this.next();
+      if ((specifier != null) && ((specifier.conversion == 'x') || (specifier.conversion == 'X'))) {
+        this.writeHex(i & 0xFFFF_FFFFL, specifier);
+        return this;
+      }
+      return this.argLong(i, specifier, Integer.class);
+    }
+
+    /**
+     * Renders a {@code long} argument for a {@code %d}, {@code %x},
+     * {@code %X} or {@code %s} specifier.
+     *
+     * @param l the argument
+     * @return this renderer
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalFormatConversionException if the specifier does not
+     *                                          accept a {@code long}
+     */
+    public Renderer arg(long l) throws IOException {
+      return this.argLong(l, this.next(), Long.class);
+    }
+
+    private Renderer argLong(long l, Specifier specifier, Class<?> argumentClass) throws IOException {
+      if (specifier == null) {
+        return this;
+      }
+      switch (specifier.conversion) {
+        case 'd':
+          this.writeNumber(this.scratch, IntegerToDecimal.writeLong(l, this.scratch, 0), specifier);
+          break;
+        case 'x':
+        case 'X':
+          this.writeHex(l, specifier);
+          break;
+        case 's':
+          this.writeString(this.scratch, IntegerToDecimal.writeLong(l, this.scratch, 0), specifier);
+          break;
+        default:
+          throw this.conversionMismatch(specifier, argumentClass);
+      }
+      return this;
+    }
+
+    /**
+     * Renders a {@code double} argument for a {@code %f} or {@code %s}
+     * specifier.
+     *
+     * @param d the argument
+     * @return this renderer
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalFormatConversionException if the specifier does not
+     *                                          accept a {@code double}
+     */
+    public Renderer arg(double d) throws IOException {
+      Specifier specifier = this.next();
+      if (specifier == null) {
+        return this;
+      }
+      switch (specifier.conversion) {
+        case 'f':
+          this.writeFixed(d, specifier);
+          break;
+        case 's':
+          this.writeString(this.scratch, DoubleToDecimal.write(d, this.scratch, 0), specifier);
+          break;
+        default:
+          throw this.conversionMismatch(specifier, Double.class);
+      }
+      return this;
+    }
+
+    /**
+     * Renders a {@link CharSequence} argument for a {@code %s} specifier.
+     * <p>
+     * {@code null} is rendered as {@code "null"} for every specifier.
+     *
+     * @param csq the argument
+     * @return this renderer
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalFormatConversionException if the specifier does not
+     *                                          accept a {@link CharSequence}
+     */
+    public Renderer arg(CharSequence csq) throws IOException {
+      Specifier specifier = this.next();
+      if (specifier == null) {
+        return this;
+      }
+      if (csq == null) {
+        this.writeString(NULL, NULL.length, specifier);
+      } else if (specifier.conversion == 's') {
+        int length = specifier.precision != -1 ? Math.min(specifier.precision, csq.length()) : csq.length();
+        this.padStart(specifier, length, false, false);
+        this.writer.append(csq, 0, length);
+        this.padEnd(specifier, length);
+      } else {
+        throw this.conversionMismatch(specifier, csq.getClass());
+      }
+      return this;
+    }
+
+    /**
+     * Writes the literal text after the last specifier and resets this
+     * renderer so that it can be reused.
+     *
+     * @throws IOException if an I/O error occurs
+     * @throws MissingFormatArgumentException if fewer arguments than
+     *                                        specifiers were rendered
+     */
+    public void end() throws IOException {
+      int current = this.index;
+      this.index = 0;
+      if (current < this.specifiers.length) {
+        throw new MissingFormatArgumentException(this.specifiers[current].text);
+      }
+      byte[] literal = this.literals[this.specifiers.length];
+      this.writer.writeAsciiBytes(literal, 0, literal.length);
+    }
+
+    /**
+     * Writes the literal text before the next specifier.
+     *
+     * @return the next specifier, {@code null} if all specifiers have
+     *         been rendered
+     */
+    private Specifier next() throws IOException {
+      if (this.index == this.specifiers.length) {
+        return null;
+      }
+      byte[] literal = this.literals[this.index];
+      this.writer.writeAsciiBytes(literal, 0, literal.length);
+      return this.specifiers[this.index++];
+    }
+
+    private IllegalFormatConversionException conversionMismatch(Specifier specifier, Class<?> argumentClass) {
+      this.index = 0;
+      return new IllegalFormatConversionException(specifier.conversion, argumentClass);
+    }
+
+    private void padStart(Specifier specifier, int length, boolean negative, boolean zeroPad) throws IOException {
+      int padding = specifier.width - length;
+      if ((padding > 0) && !specifier.leftJustify && !zeroPad) {
+        this.writer.writeAsciiRepeated((byte) ' ', padding);
+      }
+      if (negative) {
+        this.writer.writeAsciiRepeated((byte) '-', 1);
+      }
+      if ((padding > 0) && zeroPad) {
+        this.writer.writeAsciiRepeated((byte) '0', padding);
+      }
+    }
+
+    private void padEnd(Specifier specifier, int length) throws IOException {
+      int padding = specifier.width - length;
+      if ((padding > 0) && specifier.leftJustify) {
+        this.writer.writeAsciiRepeated((byte) ' ', padding);
+      }
+    }
+
+    /**
+     * Writes a formatted number that may start with a sign.
+     */
+    private void writeNumber(byte[] number, int end, Specifier specifier) throws IOException {
+      boolean negative = number[0] == '-';
+      int start = negative ? 1 : 0;
+      this.padStart(specifier, end, negative, specifier.zeroPad);
+      this.writer.writeAsciiBytes(number, start, end - start);
+      this.padEnd(specifier, end);
+    }
+
+    private void writeString(byte[] string, int end, Specifier specifier) throws IOException {
+      int length = specifier.precision != -1 ? Math.min(specifier.precision, end) : end;
+      this.padStart(specifier, length, false, false);
+      this.writer.writeAsciiBytes(string, 0, length);
+      this.padEnd(specifier, length);
+    }
+
+    private void writeHex(long l, Specifier specifier) throws IOException {
+      byte[] hexDigits = specifier.conversion == 'X' ? UPPER_HEX_DIGITS : LOWER_HEX_DIGITS;
+      int length = Math.max((Long.SIZE - Long.numberOfLeadingZeros(l) + 3) / 4, 1);
+      long value = l;
+      for (int i = length - 1; i >= 0; i--) {
+        this.scratch[i] = hexDigits[(int) value & 0xF];
+        value >>>= 4;
+      }
+      this.writeNumber(this.scratch, length, specifier);
+    }
+
+    private void writeFixed(double d, Specifier specifier) throws IOException {
+      int end = DoubleToDecimal.write(d, this.scratch, 0);
+      if (!Double.isFinite(d)) {
+        // NaN and Infinity are never padded with zeros
+        boolean negative = this.scratch[0] == '-';
+        int start = negative ? 1 : 0;
+        this.padStart(specifier, end, negative, false);
+        this.writer.writeAsciiBytes(this.scratch, start, end - start);
+        this.padEnd(specifier, end);
+        return;
+      }
+      int precision = specifier.precision != -1 ? specifier.precision : DEFAULT_FLOAT_PRECISION;
+      boolean negative = this.scratch[0] == '-';
+
+      // extract the significant digits and the position of the decimal point
+      int from = 1;
+      int to = from;
+      int pointPosition = 0;
+      int exponent = 0;
+      for (int i = negative ? 1 : 0; i < end; i++) {
+        byte b = this.scratch[i];
+        if (b == '.') {
+          pointPosition = to - from;
+        } else if (b == 'E') {
+          exponent = parseExponent(this.scratch, i + 1, end);
+          break;
+        } else {
+          this.digits[to++] = b;
+        }
+      }
+      pointPosition += exponent;
+      while ((to - from > 1) && (this.digits[from] == '0')) {
+        from += 1;
+        pointPosition -= 1;
+      }
+
+      // round half up to the precision
+      int keep = pointPosition + precision;
+      if (keep < 0) {
+        to = from;
+      } else if (keep < to - from) {
+        boolean roundUp = this.digits[from + keep] >= '5';
+        to = from + keep;
+        if (roundUp) {
+          int i = to - 1;
+          while ((i >= from) && (this.digits[i] == '9')) {
+            this.digits[i] = '0';
+            i -= 1;
+          }
+          if (i >= from) {
+            this.digits[i] += 1;
+          } else {
+            this.digits[--from] = '1';
+            pointPosition += 1;
+          }
+        }
+      }
+
+      int digitCount = to - from;
+      int integerLength = Math.max(pointPosition, 1);
+      int length = (negative ? 1 : 0) + integerLength + (precision > 0 ? 1 + precision : 0);
+      this.padStart(specifier, length, negative, specifier.zeroPad);
+
+      // integer part
+      if (pointPosition <= 0) {
+        this.writer.writeAsciiRepeated((byte) '0', 1);
+      } else {
+        int available = Math.min(pointPosition, digitCount);
+        this.writer.writeAsciiBytes(this.digits, from, available);
+        this.writer.writeAsciiRepeated((byte) '0', pointPosition - available);
+      }
+
+      // fraction part
+      if (precision > 0) {
+        this.writer.writeAsciiRepeated((byte) '.', 1);
+        int position = pointPosition;
+        int remaining = precision;
+        if (position < 0) {
+          int zeroes = Math.min(-position, remaining);
+          this.writer.writeAsciiRepeated((byte) '0', zeroes);
+          remaining -= zeroes;
+          position += zeroes;
+        }
+        int available = Math.min(Math.max(digitCount - position, 0), remaining);
+        if (available > 0) {
+          this.writer.writeAsciiBytes(this.digits, from + position, available);
+          remaining -= available;
+        }
+        this.writer.writeAsciiRepeated((byte) '0', remaining);
+      }
+      this.padEnd(specifier, length);
+    }
+
+    private static int parseExponent(byte[] buffer, int start, int end) {
+      boolean negative = buffer[start] == '-';
+      int exponent = 0;
+      for (int i = negative ? start + 1 : start; i < end; i++) {
+        exponent = exponent * 10 + (buffer[i] - '0');
+      }
+      return negative ? -exponent : exponent;
+    }
+
+  }
+
+}
@@ -0,0 +1,145 @@
+package com.github.marschall.writers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Objects;
+
+/**
+ * A reader that decodes ASCII.
+ * <p>
+ * For non-ASCII bytes U+FFFD will be read instead just
+ * like {@link InputStreamReader} does.
+ * <p>
+ * By default every character results in a call to {@link InputStream#read()}.
+ * When constructed with a chunk size arrays are read into a fixed size
+ * {@code byte[]} with {@link InputStream#read(byte[], int, int)} and widened
+ * from there instead.
+ * <p>
+ * Unlike {@link InputStreamReader} this reader never reads more bytes from
+ * the input stream than characters have been requested.
+ *
+ * @implNote This class is thread-safe.
+ * @implNote This reader does not allocate any objects, beyond
+ *           a {@code byte[]} for chunking allocated in the constructor
+ *           if requested, or call methods that allocate objects.
+ */
+public final class AsciiInputStreamReader extends Reader {
+
+  private final InputStream in;
+
+  /**
+   * Guarded by {@link #lock}, {@code null} if not chunking.
+   */
+  private final byte[] chunk;
+
+  /**
+   * Constructs a new {@link AsciiInputStreamReader} that reads
+   * every character individually.
+   *
+   * @param in the input stream to delegate to, not {@code null}
+   * @throws NullPointerException when {@code in} is {@code null}
+   */
+  public AsciiInputStreamReader(InputStream in) {
+    Objects.requireNonNull(in, "in");
+    this.in = in;
+    this.chunk = null;
+  }
+
+  /**
+   * Constructs a new {@link AsciiInputStreamReader} that reads
+   * arrays in chunks.
+   *
+   * @param in the input stream to delegate to, not {@code null}
+   * @param chunkSize the chunk size in bytes, must be positive
+   * @throws NullPointerException when {@code in} is {@code null}
+   * @throws IllegalArgumentException if {@code chunkSize} negative or 0
+   */
+  public AsciiInputStreamReader(InputStream in, int chunkSize) {
+    Objects.requireNonNull(in, "in");
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("chunk size must be positive");
+    }
+    this.in = in;
+    this.chunk = new byte[chunkSize];
+  }
+
+  @Override
+  public int read() throws IOException {
+    synchronized (this.lock) {
+      int b = this.in.read();
+      if (b < 0) {
+        return -1;
+      }
+      return AsciiWiden.widen((byte) b);
+    }
+  }
+
+  @Override
+  public int read(char[] cbuf, int offset, int length) throws IOException {
+    Objects.checkFromIndexSize(offset, length, cbuf.length);
+    if (length == 0) {
+      return 0;
+    }
+    synchronized (this.lock) {
+      if (this.chunk != null) {
+        return this.readChunked(cbuf, offset, length);
+      } else {
+        return this.readIndividually(cbuf, offset, length);
+      }
+    }
+  }
+
+  private int readChunked(char[] cbuf, int offset, int length) throws IOException {
+    byte[] buffer = this.chunk;
+    int read = this.in.read(buffer, 0, Math.min(length, buffer.length));
+    if (read > 0) {
+      AsciiWiden.widen(buffer, 0, cbuf, offset, read);
+    }
+    return read;
+  }
+
+  private int readIndividually(char[] cbuf, int offset, int length) throws IOException {
+    int b = this.in.read();
+    if (b < 0) {
+      return -1;
+    }
+    cbuf[offset] = AsciiWiden.widen((byte) b);
+    int read = 1;
+    // only block for the first character
+    while ((read < length) && (this.in.available() > 0)) {
+      b = this.in.read();
+      if (b < 0) {
+        break;
+      }
+      cbuf[offset + read] = AsciiWiden.widen((byte) b);
+      read += 1;
+    }
+    return read;
+  }
+
+  @Override
+  public boolean ready() throws IOException {
+    synchronized (this.lock) {
+      return this.in.available() > 0;
+    }
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    if (n < 0L) {
+      throw new IllegalArgumentException("skip value is negative");
+    }
+    synchronized (this.lock) {
+      // every character is exactly one byte
+      return this.in.skip(n);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.in.close();
+  }
+
+}
@@ -4,38 +4,127 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.CharBuffer;
 import java.util.Objects;
 
 /**
  * A writer that encodes to ASCII.
  * <p>
  * For non-ASCII characters {@code '?'} will be written instead just
- * like {@link OutputStreamWriter} does.
+ * like {@link OutputStreamWriter} does unless a different
+ * {@link UnmappablePolicy} is given.
  * <p>
+ * By default every character results in a call to {@link OutputStream#write(int)}.
+ * When constructed with a chunk size strings and arrays are encoded into a
+ * fixed size {@code byte[]} that is passed to
+ * {@link OutputStream#write(byte[], int, int)} instead.
  *
  * @implNote This class is thread-safe.
- * @implNote This writer does not allocate any objects
- *           or call methods that allocate objects.
+ * @implNote This writer does not allocate any objects, beyond
+ *           a {@code byte[]} for chunking allocated in the constructor
+ *           if requested and a small {@code byte[]} for encoding
+ *           non-ASCII characters if the policy is not
+ *           {@link UnmappablePolicy#REPLACE}, or call methods that
+ *           allocate objects. When chunking a small {@code char[]} is
+ *           allocated when a {@link StringBuilder}, {@link StringBuffer}
+ *           or {@link CharBuffer} is appended the first time.
  */
 public final class AsciiOutputStreamWriter extends Writer {
 
   private final OutputStream out;
 
   /**
-   * Constructs a new {@link AsciiOutputStreamWriter}
+   * Guarded by {@link #lock}, {@code null} if not chunking.
+   */
+  private final byte[] chunk;
+
+  private final UnmappablePolicy policy;
+
+  /**
+   * Guarded by {@link #lock}, {@code null} for {@link UnmappablePolicy#REPLACE}.
+   */
+  private final byte[] encoded;
+
+  /**
+   * Guarded by {@link #lock}, scratch space for copying characters out of
+   * {@link StringBuilder}s, {@link StringBuffer}s and {@link CharBuffer}s
+   * when chunking, allocated on first use.
+   */
+  private char[] scratch;
+
+  /**
+   * Constructs a new {@link AsciiOutputStreamWriter} that writes
+   * every character individually.
+   *
+   * @param out the output stream to delegate to, not {@code null}
+   * @param policy what to write for non-ASCII characters, not {@code null}
+   * @throws NullPointerException when {@code out} or {@code policy} is {@code null}
+   */
+  public AsciiOutputStreamWriter(OutputStream out, UnmappablePolicy policy) {
+    Objects.requireNonNull(out, "out");
+    Objects.requireNonNull(policy, "policy");
+    this.out = out;
+    this.chunk = null;
+    this.policy = policy;
+    this.encoded = newEncoded(policy);
+  }
+
+  /**
+   * Constructs a new {@link AsciiOutputStreamWriter} that writes
+   * every character individually and {@code '?'} for non-ASCII characters.
    *
    * @param out the output stream to delegate to, not {@code null}
    * @throws NullPointerException when {@code out} is {@code null}
    */
   public AsciiOutputStreamWriter(OutputStream out) {
+    this(out, UnmappablePolicy.REPLACE);
+  }
+
+  /**
+   * Constructs a new {@link AsciiOutputStreamWriter} that writes
+   * strings and arrays in chunks.
+   *
+   * @param out the output stream to delegate to, not {@code null}
+   * @param chunkSize the chunk size in bytes, must be positive
+   * @param policy what to write for non-ASCII characters, not {@code null}
+   * @throws NullPointerException when {@code out} or {@code policy} is {@code null}
+   * @throws IllegalArgumentException if {@code chunkSize} negative or 0
+   */
+  public AsciiOutputStreamWriter(OutputStream out, int chunkSize, UnmappablePolicy policy) {
     Objects.requireNonNull(out, "out");
+    Objects.requireNonNull(policy, "policy");
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("chunk size must be positive");
+    }
     this.out = out;
+    this.chunk = new byte[chunkSize];
+    this.policy = policy;
+    this.encoded = newEncoded(policy);
+  }
+
+  /**
+   * Constructs a new {@link AsciiOutputStreamWriter} that writes
+   * strings and arrays in chunks and {@code '?'} for non-ASCII characters.
+   *
+   * @param out the output stream to delegate to, not {@code null}
+   * @param chunkSize the chunk size in bytes, must be positive
+   * @throws NullPointerException when {@code out} is {@code null}
+   * @throws IllegalArgumentException if {@code chunkSize} negative or 0
+   */
+  public AsciiOutputStreamWriter(OutputStream out, int chunkSize) {
+    this(out, chunkSize, UnmappablePolicy.REPLACE);
+  }
+
+  private static byte[] newEncoded(UnmappablePolicy policy) {
+    return policy != UnmappablePolicy.REPLACE ? new byte[UnmappablePolicy.MAX_ENCODED_LENGTH] : null;
   }
 
   @Override
   public void write(int c) throws IOException {
     if (c > Character.MAX_VALUE) {
-      this.writeAscii('?');
+      synchronized (this.lock) {
+        this.writeNonAscii((char) c);
+      }
     } else {
       this.writeAscii((char) c);
     }
@@ -93,7 +182,7 @@ public final class AsciiOutputStreamWriter extends Writer {
       if (Repertoires.fitsInAscii(c)) {
         this.out.write(c);
       } else {
-        this.out.write('?');
+        this.writeNonAscii(c);
       }
     }
     return this;
@@ -102,12 +191,25 @@ public final class AsciiOutputStreamWriter extends Writer {
   private Writer writeAsciiStartEnd(CharSequence csq, int start, int end) throws IOException {
     synchronized (this.lock) {
       int from = Objects.checkFromToIndex(start, end, csq.length());
+      if (this.chunk != null) {
+        if (csq instanceof AsciiConstant) {
+          this.out.write(((AsciiConstant) csq).bytes(), from, end - from);
+        } else if ((csq instanceof CharBuffer) && ((CharBuffer) csq).hasArray()) {
+          CharBuffer charBuffer = (CharBuffer) csq;
+          this.writeChunkedOffsetLength(charBuffer.array(), charBuffer.arrayOffset() + charBuffer.position() + from, end - from);
+        } else if (CharSequences.hasGetChars(csq)) {
+          this.writeChunkedGetChars(csq, from, end);
+        } else {
+          this.writeChunkedStartEnd(csq, from, end);
+        }
+        return this;
+      }
       for (int i = from; i < end; i++) {
         char c = csq.charAt(i);
         if (Repertoires.fitsInAscii(c)) {
           this.out.write(c);
         } else {
-          this.out.write('?');
+          i += this.writeNonAscii(csq, i, end) - 1;
         }
       }
     }
@@ -117,12 +219,16 @@ public final class AsciiOutputStreamWriter extends Writer {
   private Writer writeAsciiOffsetLength(String s, int offset, int length) throws IOException {
     synchronized (this.lock) {
       int from = Objects.checkFromIndexSize(offset, length, s.length());
+      if (this.chunk != null) {
+        this.writeChunkedOffsetLength(s, from, length);
+        return this;
+      }
       for (int i = from; i < (offset + length); i++) {
         char c = s.charAt(i);
         if (Repertoires.fitsInAscii(c)) {
           this.out.write(c);
         } else {
-          this.out.write('?');
+          i += this.writeNonAscii(s, i, offset + length) - 1;
         }
       }
     }
@@ -132,15 +238,190 @@ public final class AsciiOutputStreamWriter extends Writer {
   private void writeAsciiOffsetLength(char[] cbuf, int offset, int length) throws IOException {
     synchronized (this.lock) {
       int from = Objects.checkFromIndexSize(offset, length, cbuf.length);
+      if (this.chunk != null) {
+        this.writeChunkedOffsetLength(cbuf, from, length);
+        return;
+      }
       for (int i = from; i < (offset + length); i++) {
         char c = cbuf[i];
         if (Repertoires.fitsInAscii(c)) {
           this.out.write(c);
         } else {
-          this.out.write('?');
+          i += this.writeNonAscii(cbuf, i, offset + length) - 1;
+        }
+      }
+    }
+  }
+
+  // The following methods have to be called while holding the lock.
+  // They write a non-ASCII character according to the policy and return
+  // the number of chars consumed.
+
+  private void writeNonAscii(char c) throws IOException {
+    if (this.policy == UnmappablePolicy.REPLACE) {
+      this.out.write('?');
+    } else {
+      this.writeUnmappable(c);
+    }
+  }
+
+  private int writeNonAscii(CharSequence csq, int index, int end) throws IOException {
+    if (this.policy == UnmappablePolicy.REPLACE) {
+      this.out.write('?');
+      return 1;
+    }
+    char c = csq.charAt(index);
+    int codePoint = (index + 1) < end ? Character.codePointAt(csq, index) : c;
+    this.writeUnmappable(codePoint);
+    return Character.charCount(codePoint);
+  }
+
+  private int writeNonAscii(char[] cbuf, int index, int end) throws IOException {
+    if (this.policy == UnmappablePolicy.REPLACE) {
+      this.out.write('?');
+      return 1;
+    }
+    int codePoint = Character.codePointAt(cbuf, index, end);
+    this.writeUnmappable(codePoint);
+    return Character.charCount(codePoint);
+  }
+
+  private void writeUnmappable(int codePoint) throws IOException {
+    int length = this.policy.encode(codePoint, this.encoded, 0);
+    if (length > 0) {
+      this.out.write(this.encoded, 0, length);
+    }
+  }
+
+  // The following methods have to be called while holding the lock.
+  // They copy and check for non-ASCII characters with AsciiEncoder and only
+  // re-encode according to the policy if there are any.
+
+  private void writeChunkedGetChars(CharSequence csq, int start, int end) throws IOException {
+    char[] scratch = this.scratch;
+    if (scratch == null) {
+      scratch = new char[CharSequences.SCRATCH_SIZE];
+      this.scratch = scratch;
+    }
+    int chunkStart = start;
+    while (chunkStart < end) {
+      int chunkEnd = Math.min(end, chunkStart + scratch.length);
+      CharSequences.getChars(csq, chunkStart, chunkEnd, scratch);
+      int length = chunkEnd - chunkStart;
+      if ((chunkEnd < end) && Character.isHighSurrogate(scratch[length - 1])) {
+        // do not split surrogate pairs
+        length -= 1;
+      }
+      this.writeChunkedOffsetLength(scratch, 0, length);
+      chunkStart += length;
+    }
+  }
+
+  private void writeChunkedStartEnd(CharSequence csq, int start, int end) throws IOException {
+    byte[] buffer = this.chunk;
+    int chunkStart = start;
+    while (chunkStart < end) {
+      int chunkEnd = Math.min(end, chunkStart + buffer.length);
+      int mask = AsciiEncoder.copyAndMask(csq, chunkStart, buffer, 0, chunkEnd - chunkStart);
+      if (!Repertoires.fitsInAscii(mask)) {
+        if (this.policy != UnmappablePolicy.REPLACE) {
+          chunkStart = this.writeChunkNonAscii(csq, chunkStart, chunkEnd, end);
+          continue;
+        }
+        AsciiEncoder.replaceNonAscii(csq, chunkStart, buffer, 0, chunkEnd - chunkStart);
+      }
+      this.out.write(buffer, 0, chunkEnd - chunkStart);
+      chunkStart = chunkEnd;
+    }
+  }
+
+  private void writeChunkedOffsetLength(String s, int offset, int totalLength) throws IOException {
+    byte[] buffer = this.chunk;
+    int written = 0;
+    while (written < totalLength) {
+      int chunkOffset = offset + written;
+      int length = Math.min(buffer.length, totalLength - written);
+      int mask = AsciiEncoder.copyAndMask(s, chunkOffset, buffer, 0, length);
+      if (!Repertoires.fitsInAscii(mask)) {
+        if (this.policy != UnmappablePolicy.REPLACE) {
+          written = this.writeChunkNonAscii(s, chunkOffset, chunkOffset + length, offset + totalLength) - offset;
+          continue;
+        }
+        AsciiEncoder.replaceNonAscii(s, chunkOffset, buffer, 0, length);
+      }
+      this.out.write(buffer, 0, length);
+      written += length;
+    }
+  }
+
+  private void writeChunkedOffsetLength(char[] cbuf, int offset, int totalLength) throws IOException {
+    byte[] buffer = this.chunk;
+    int written = 0;
+    while (written < totalLength) {
+      int chunkOffset = offset + written;
+      int length = Math.min(buffer.length, totalLength - written);
+      int mask = AsciiCopy.copyAndMask(cbuf, chunkOffset, buffer, 0, length);
+      if (!Repertoires.fitsInAscii(mask)) {
+        if (this.policy != UnmappablePolicy.REPLACE) {
+          written = this.writeChunkNonAscii(cbuf, chunkOffset, chunkOffset + length, offset + totalLength) - offset;
+          continue;
         }
+        AsciiEncoder.replaceNonAscii(cbuf, chunkOffset, buffer, 0, length);
       }
+      this.out.write(buffer, 0, length);
+      written += length;
+    }
+  }
+
+  // The following methods have to be called while holding the lock.
+  // They re-encode a chunk containing non-ASCII characters according to the
+  // policy and return the index after the last char consumed, a surrogate
+  // pair at the end of the chunk is consumed entirely.
+
+  private int writeChunkNonAscii(CharSequence csq, int chunkStart, int chunkEnd, int end) throws IOException {
+    byte[] buffer = this.chunk;
+    int length = 0;
+    int i = chunkStart;
+    while (i < chunkEnd) {
+      char c = csq.charAt(i);
+      if (Repertoires.fitsInAscii(c)) {
+        buffer[length++] = (byte) c;
+        i += 1;
+      } else {
+        if (length > 0) {
+          this.out.write(buffer, 0, length);
+          length = 0;
+        }
+        i += this.writeNonAscii(csq, i, end);
+      }
+    }
+    if (length > 0) {
+      this.out.write(buffer, 0, length);
+    }
+    return i;
+  }
+
+  private int writeChunkNonAscii(char[] cbuf, int chunkStart, int chunkEnd, int end) throws IOException {
+    byte[] buffer = this.chunk;
+    int length = 0;
+    int i = chunkStart;
+    while (i < chunkEnd) {
+      char c = cbuf[i];
+      if (Repertoires.fitsInAscii(c)) {
+        buffer[length++] = (byte) c;
+        i += 1;
+      } else {
+        if (length > 0) {
+          this.out.write(buffer, 0, length);
+          length = 0;
+        }
+        i += this.writeNonAscii(cbuf, i, end);
+      }
+    }
+    if (length > 0) {
+      this.out.write(buffer, 0, length);
     }
+    return i;
   }
 
   @Override
@@ -0,0 +1,368 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.Formatter;
+import java.util.Locale;
+
+/**
+ * A {@link PrintWriter} that encodes to ASCII and buffers.
+ * <p>
+ * Follows the contract of {@link PrintWriter}, methods never throw
+ * {@link IOException}, instead {@link #checkError()} has to be called.
+ * Unlike {@link PrintWriter} no method acquires a lock, primitives are
+ * formatted directly into the buffer and the line separator is encoded
+ * only once in the constructor.
+ * <p>
+ * For non-ASCII characters {@code '?'} will be written instead just
+ * like {@link PrintWriter} does.
+ * <p>
+ * {@link #print(double)} and {@link #print(float)} write the shortest
+ * decimal that rounds to the value, this is the same as
+ * {@link PrintWriter} on Java 19+. Older versions of Java sometimes
+ * write more digits than necessary.
+ *
+ * @implNote This class is <b>not</b> thread-safe.
+ * @implNote This writer does not allocate any objects, beyond
+ *           a {@code byte[]} for buffering allocated in the constructor,
+ *           or call methods that allocate objects. The exceptions are
+ *           {@link #print(Object)}, which calls {@link String#valueOf(Object)},
+ *           and {@link #format(String, Object...)} and
+ *           {@link #printf(String, Object...)}, which use a {@link Formatter}.
+ * @see BufferedAsciiOutputStreamWriter
+ */
+public final class AsciiPrintWriter extends PrintWriter {
+
+  private final BufferedAsciiOutputStreamWriter writer;
+
+  private final boolean autoFlush;
+
+  private final byte[] lineSeparator;
+
+  private Formatter formatter;
+
+  private boolean error;
+
+  private boolean closed;
+
+  /**
+   * Constructs a new {@link AsciiPrintWriter}.
+   *
+   * @param out the output stream to delegate to, not {@code null}
+   * @param bufferSize the buffer size in bytes, must be positive
+   * @param autoFlush whether {@code println}, {@code printf} and
+   *                  {@code format} flush the buffer
+   * @throws NullPointerException when {@code out} is {@code null}
+   * @throws IllegalArgumentException if {@code bufferSize} negative or 0
+   */
+  public AsciiPrintWriter(OutputStream out, int bufferSize, boolean autoFlush) {
+    this(new BufferedAsciiOutputStreamWriter(out, bufferSize), autoFlush);
+  }
+
+  /**
+   * Constructs a new {@link AsciiPrintWriter} with a default buffer size
+   * of 8192.
+   *
+   * @param out the output stream to delegate to, not {@code null}
+   * @param autoFlush whether {@code println}, {@code printf} and
+   *                  {@code format} flush the buffer
+   * @throws NullPointerException when {@code out} is {@code null}
+   */
+  public AsciiPrintWriter(OutputStream out, boolean autoFlush) {
+    this(new BufferedAsciiOutputStreamWriter(out), autoFlush);
+  }
+
+  /**
+   * Constructs a new {@link AsciiPrintWriter} with a default buffer size
+   * of 8192 and without automatic flushing.
+   *
+   * @param out the output stream to delegate to, not {@code null}
+   * @throws NullPointerException when {@code out} is {@code null}
+   */
+  public AsciiPrintWriter(OutputStream out) {
+    this(out, false);
+  }
+
+  private AsciiPrintWriter(BufferedAsciiOutputStreamWriter writer, boolean autoFlush) {
+    super(writer, false);
+    this.writer = writer;
+    this.autoFlush = autoFlush;
+    this.lineSeparator = System.lineSeparator().getBytes(US_ASCII);
+    this.error = false;
+    this.closed = false;
+  }
+
+  private void handle(IOException e) {
+    if (e instanceof InterruptedIOException) {
+      Thread.currentThread().interrupt();
+    } else {
+      this.error = true;
+    }
+  }
+
+  @Override
+  public void flush() {
+    try {
+      this.writer.flush();
+    } catch (IOException e) {
+      this.handle(e);
+    }
+  }
+
+  @Override
+  public void close() {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+    try {
+      this.writer.close();
+    } catch (IOException e) {
+      this.error = true;
+    }
+  }
+
+  @Override
+  public boolean checkError() {
+    if (!this.closed) {
+      this.flush();
+    }
+    return this.error;
+  }
+
+  @Override
+  protected void setError() {
+    this.error = true;
+  }
+
+  @Override
+  protected void clearError() {
+    this.error = false;
+  }
+
+  @Override
+  public void write(int c) {
+    try {
+      this.writer.write(c);
+    } catch (IOException e) {
+      this.handle(e);
+    }
+  }
+
+  @Override
+  public void write(char[] buf, int off, int len) {
+    try {
+      this.writer.write(buf, off, len);
+    } catch (IOException e) {
+      this.handle(e);
+    }
+  }
+
+  @Override
+  public void write(char[] buf) {
+    this.write(buf, 0, buf.length);
+  }
+
+  @Override
+  public void write(String s, int off, int len) {
+    try {
+      this.writer.write(s, off, len);
+    } catch (IOException e) {
+      this.handle(e);
+    }
+  }
+
+  @Override
+  public void write(String s) {
+    this.write(s, 0, s.length());
+  }
+
+  @Override
+  public void print(boolean b) {
+    this.write(b ? "true" : "false");
+  }
+
+  @Override
+  public void print(char c) {
+    this.write(c);
+  }
+
+  @Override
+  public void print(int i) {
+    try {
+      this.writer.writeInt(i);
+    } catch (IOException e) {
+      this.handle(e);
+    }
+  }
+
+  @Override
+  public void print(long l) {
+    try {
+      this.writer.writeLong(l);
+    } catch (IOException e) {
+      this.handle(e);
+    }
+  }
+
+  @Override
+  public void print(float f) {
+    try {
+      this.writer.writeFloat(f);
+    } catch (IOException e) {
+      this.handle(e);
+    }
+  }
+
+  @Override
+  public void print(double d) {
+    try {
+      this.writer.writeDouble(d);
+    } catch (IOException e) {
+      this.handle(e);
+    }
+  }
+
+  @Override
+  public void print(char[] s) {
+    this.write(s);
+  }
+
+  @Override
+  public void print(String s) {
+    this.write(s != null ? s : "null");
+  }
+
+  @Override
+  public void print(Object obj) {
+    this.write(String.valueOf(obj));
+  }
+
+  @Override
+  public void println() {
+    try {
+      this.writer.writeAsciiBytes(this.lineSeparator, 0, this.lineSeparator.length);
+      if (this.autoFlush) {
+        this.writer.flush();
+      }
+    } catch (IOException e) {
+      this.handle(e);
+    }
+  }
+
+  @Override
+  public void println(boolean x) {
+    this.print(x);
+    this.println();
+  }
+
+  @Override
+  public void println(char x) {
+    this.print(x);
+    this.println();
+  }
+
+  @Override
+  public void println(int x) {
+    this.print(x);
+    this.println();
+  }
+
+  @Override
+  public void println(long x) {
+    this.print(x);
+    this.println();
+  }
+
+  @Override
+  public void println(float x) {
+    this.print(x);
+    this.println();
+  }
+
+  @Override
+  public void println(double x) {
+    this.print(x);
+    this.println();
+  }
+
+  @Override
+  public void println(char[] x) {
+    this.print(x);
+    this.println();
+  }
+
+  @Override
+  public void println(String x) {
+    this.print(x);
+    this.println();
+  }
+
+  @Override
+  public void println(Object x) {
+    this.print(x);
+    this.println();
+  }
+
+  @Override
+  public AsciiPrintWriter printf(String format, Object... args) {
+    return this.format(format, args);
+  }
+
+  @Override
+  public AsciiPrintWriter printf(Locale l, String format, Object... args) {
+    return this.format(l, format, args);
+  }
+
+  @Override
+  public AsciiPrintWriter format(String format, Object... args) {
+    return this.format(Locale.getDefault(Locale.Category.FORMAT), format, args);
+  }
+
+  @Override
+  public AsciiPrintWriter format(Locale l, String format, Object... args) {
+    if (this.closed) {
+      this.error = true;
+      return this;
+    }
+    if (this.formatter == null) {
+      this.formatter = new Formatter(this);
+    }
+    this.formatter.format(l, format, args);
+    if (this.autoFlush) {
+      this.flush();
+    }
+    return this;
+  }
+
+  @Override
+  public AsciiPrintWriter append(CharSequence csq) {
+    try {
+      this.writer.append(csq);
+    } catch (IOException e) {
+      this.handle(e);
+    }
+    return this;
+  }
+
+  @Override
+  public AsciiPrintWriter append(CharSequence csq, int start, int end) {
+    try {
+      this.writer.append(csq, start, end);
+    } catch (IOException e) {
+      this.handle(e);
+    }
+    return this;
+  }
+
+  @Override
+  public AsciiPrintWriter append(char c) {
+    this.write(c);
+    return this;
+  }
+
+}
@@ -0,0 +1,44 @@
+package com.github.marschall.writers;
+
+/**
+ * Widens ASCII {@code byte}s to {@code char}s, replacing non-ASCII bytes
+ * with {@link #REPLACEMENT} like the JDK US-ASCII decoder does.
+ */
+final class AsciiWiden {
+
+  /**
+   * The character that replaces bytes that are not ASCII.
+   */
+  static final char REPLACEMENT = '\uFFFD';
+
+  private AsciiWiden() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Widens a single {@code byte}.
+   *
+   * @param b the byte to widen
+   * @return the character for {@code b}
+   */
+  static char widen(byte b) {
+    return b >= 0 ? (char) b : REPLACEMENT;
+  }
+
+  /**
+   * Widens {@code byte}s to {@code char}s.
+   *
+   * @param src the bytes to copy
+   * @param srcOffset the offset into {@code src}
+   * @param dst the characters to copy into
+   * @param dstOffset the offset into {@code dst}
+   * @param length the number of bytes to copy
+   */
+  static void widen(byte[] src, int srcOffset, char[] dst, int dstOffset, int length) {
+    for (int i = 0; i < length; i++) {
+      byte b = src[srcOffset + i];
+      dst[dstOffset + i] = b >= 0 ? (char) b : REPLACEMENT;
+    }
+  }
+
+}
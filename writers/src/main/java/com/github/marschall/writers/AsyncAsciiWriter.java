@@ -0,0 +1,539 @@
+package com.github.marschall.writers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * A writer that encodes to ASCII on the calling thread and writes to the
+ * output stream on a background thread.
+ * <p>
+ * Characters are encoded into a ring of preallocated segments. Full
+ * segments are handed to a background thread which writes them to the
+ * output stream. What happens when all segments are waiting to be
+ * written is determined by the {@link Backpressure}.
+ * <p>
+ * {@link #flush()} waits until all segments have been written and then
+ * flushes the output stream. {@link #close()} additionally stops the
+ * background thread and closes the output stream. The background thread
+ * is only stopped by {@link #close()}, an unclosed writer keeps it alive.
+ * <p>
+ * If the output stream fails the exception, including unchecked
+ * exceptions and errors, is rethrown as the cause of an
+ * {@link IOException} on the next {@code write}, {@link #flush()} or
+ * {@link #close()}, all data up to then is lost.
+ * <p>
+ * For non-ASCII characters {@code '?'} will be written instead just
+ * like {@link OutputStreamWriter} does.
+ *
+ * @implNote This class is <b>not</b> thread-safe, it supports a single
+ *           producer thread.
+ * @implNote This writer does not allocate any objects, beyond
+ *           the segments and the background thread allocated in the
+ *           constructor, or call methods that allocate objects. Only
+ *           {@link Backpressure#GROW} allocates additional segments.
+ */
+public final class AsyncAsciiWriter extends Writer {
+
+  /**
+   * What to do when all segments are waiting to be written.
+   */
+  public enum Backpressure {
+
+    /**
+     * Block the calling thread until a segment has been written.
+     */
+    BLOCK,
+
+    /**
+     * Discard the data of the current segment.
+     *
+     * @see AsyncAsciiWriter#getDroppedByteCount()
+     */
+    DROP,
+
+    /**
+     * Allocate additional segments, doubling the number of segments.
+     */
+    GROW;
+
+  }
+
+  private final OutputStream out;
+
+  private final Backpressure backpressure;
+
+  private final ReentrantLock ringLock;
+
+  /**
+   * Signaled when a segment has been handed to the background thread.
+   */
+  private final Condition segmentFilled;
+
+  /**
+   * Signaled when a segment has been written by the background thread.
+   */
+  private final Condition segmentDrained;
+
+  private final Thread drainer;
+
+  // the following fields are guarded by ringLock
+
+  private byte[][] segments;
+
+  private int[] lengths;
+
+  /**
+   * Index of the oldest segment waiting to be written.
+   */
+  private int head;
+
+  /**
+   * Number of segments waiting to be written.
+   */
+  private int filled;
+
+  private boolean stopping;
+
+  /**
+   * Whether the background thread has terminated, either because it
+   * has been stopped or because it died unexpectedly.
+   */
+  private boolean drainerTerminated;
+
+  /**
+   * Also read without holding the lock by the producer thread.
+   */
+  private volatile Throwable failure;
+
+  private long droppedByteCount;
+
+  // the following fields are only accessed by the producer thread
+
+  /**
+   * The segment currently encoded into, always segments[(head + filled) % segments.length].
+   */
+  private byte[] current;
+
+  private int position;
+
+  private boolean closed;
+
+  /**
+   * Constructs a new {@link AsyncAsciiWriter} and starts the background thread.
+   *
+   * @param out the output stream to delegate to, not {@code null}
+   * @param segmentSize the size of a segment in bytes, must be positive
+   * @param segmentCount the initial number of segments, must be at least 2
+   * @param backpressure what to do when all segments are waiting to be written, not {@code null}
+   * @param threadFactory used to create the background thread, not {@code null}
+   * @throws NullPointerException when {@code out}, {@code backpressure} or
+   *                              {@code threadFactory} is {@code null}
+   * @throws IllegalArgumentException if {@code segmentSize} negative or 0
+   *                                  or {@code segmentCount} less than 2
+   */
+  public AsyncAsciiWriter(OutputStream out, int segmentSize, int segmentCount,
+          Backpressure backpressure, ThreadFactory threadFactory) {
+    Objects.requireNonNull(out, "out");
+    Objects.requireNonNull(backpressure, "backpressure");
+    Objects.requireNonNull(threadFactory, "threadFactory");
+    if (segmentSize <= 0) {
+      throw new IllegalArgumentException("segment size must be positive");
+    }
+    if (segmentCount < 2) {
+      throw new IllegalArgumentException("segment count must be at least 2");
+    }
+    this.out = out;
+    this.backpressure = backpressure;
+    this.ringLock = new ReentrantLock();
+    this.segmentFilled = this.ringLock.newCondition();
+    this.segmentDrained = this.ringLock.newCondition();
+    this.segments = new byte[segmentCount][];
+    for (int i = 0; i < segmentCount; i++) {
+      this.segments[i] = new byte[segmentSize];
+    }
+    this.lengths = new int[segmentCount];
+    this.head = 0;
+    this.filled = 0;
+    this.stopping = false;
+    this.drainerTerminated = false;
+    this.current = this.segments[0];
+    this.position = 0;
+    this.closed = false;
+    this.drainer = threadFactory.newThread(this::drain);
+    this.drainer.start();
+  }
+
+  /**
+   * Constructs a new {@link AsyncAsciiWriter} with four segments of 8192
+   * bytes that blocks when all of them are waiting to be written.
+   * <p>
+   * The background thread is a daemon thread.
+   *
+   * @param out the output stream to delegate to, not {@code null}
+   * @throws NullPointerException when {@code out} is {@code null}
+   */
+  public AsyncAsciiWriter(OutputStream out) {
+    this(out, 8192, 4, Backpressure.BLOCK, AsyncAsciiWriter::newDaemonThread);
+  }
+
+  private static Thread newDaemonThread(Runnable runnable) {
+    Thread thread = new Thread(runnable, "async-ascii-writer");
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  /**
+   * Returns the number of bytes discarded because of {@link Backpressure#DROP}.
+   *
+   * @return the number of bytes discarded
+   */
+  public long getDroppedByteCount() {
+    this.ringLock.lock();
+    try {
+      return this.droppedByteCount;
+    } finally {
+      this.ringLock.unlock();
+    }
+  }
+
+  private void closedCheck() throws IOException {
+    if (this.closed) {
+      throw new IOException("closed writer");
+    }
+    this.failureCheck();
+  }
+
+  private boolean ensureCapacity(int capacity) throws IOException {
+    if ((capacity > (this.current.length - this.position)) && (this.position > 0)) {
+      this.publish(this.backpressure);
+    }
+    return capacity <= this.current.length;
+  }
+
+  /**
+   * Hands the current segment to the background thread and switches to the next one.
+   */
+  private void publish(Backpressure strategy) throws IOException {
+    this.ringLock.lock();
+    try {
+      this.failureCheck();
+      if (this.filled == (this.segments.length - 1)) {
+        // no free segment left after handing off the current one
+        switch (strategy) {
+          case DROP:
+            this.droppedByteCount += this.position;
+            this.position = 0;
+            return;
+          case GROW:
+            this.enqueue();
+            this.grow();
+            break;
+          case BLOCK:
+            this.enqueue();
+            this.awaitFilledLessThan(this.segments.length);
+            break;
+          default:
+            throw new IllegalStateException("unknown backpressure: " + strategy);
+        }
+      } else {
+        this.enqueue();
+      }
+      this.current = this.segments[(this.head + this.filled) % this.segments.length];
+      this.position = 0;
+    } finally {
+      this.ringLock.unlock();
+    }
+  }
+
+  private void enqueue() {
+    this.lengths[(this.head + this.filled) % this.segments.length] = this.position;
+    this.filled += 1;
+    this.segmentFilled.signal();
+  }
+
+  private void grow() {
+    int oldLength = this.segments.length;
+    int newLength = oldLength * 2;
+    byte[][] newSegments = new byte[newLength][];
+    int[] newLengths = new int[newLength];
+    // move the filled segments to the start, the background thread only uses indices under the lock
+    for (int i = 0; i < oldLength; i++) {
+      int index = (this.head + i) % oldLength;
+      newSegments[i] = this.segments[index];
+      newLengths[i] = this.lengths[index];
+    }
+    int segmentSize = this.current.length;
+    for (int i = oldLength; i < newLength; i++) {
+      newSegments[i] = new byte[segmentSize];
+    }
+    this.segments = newSegments;
+    this.lengths = newLengths;
+    this.head = 0;
+  }
+
+  private void awaitFilledLessThan(int count) throws IOException {
+    // like blocking I/O this is not interruptible
+    while ((this.filled >= count) && (this.failure == null) && !this.drainerTerminated) {
+      this.segmentDrained.awaitUninterruptibly();
+    }
+    this.failureCheck();
+    if (this.filled >= count) {
+      throw new IOException("background thread terminated");
+    }
+  }
+
+  private void failureCheck() throws IOException {
+    if (this.failure != null) {
+      throw new IOException("background write failed", this.failure);
+    }
+  }
+
+  private void drain() {
+    try {
+      this.drainSegments();
+    } finally {
+      // wake up waiters even if this thread dies unexpectedly
+      this.ringLock.lock();
+      try {
+        this.drainerTerminated = true;
+        this.segmentDrained.signalAll();
+      } finally {
+        this.ringLock.unlock();
+      }
+    }
+  }
+
+  private void drainSegments() {
+    while (true) {
+      byte[] segment;
+      int length;
+      boolean failed;
+      this.ringLock.lock();
+      try {
+        while ((this.filled == 0) && !this.stopping) {
+          this.segmentFilled.awaitUninterruptibly();
+        }
+        if (this.filled == 0) {
+          return;
+        }
+        segment = this.segments[this.head];
+        length = this.lengths[this.head];
+        failed = this.failure != null;
+      } finally {
+        this.ringLock.unlock();
+      }
+
+      Throwable exception = null;
+      try {
+        if (!failed) {
+          this.out.write(segment, 0, length);
+        }
+      } catch (Throwable e) {
+        // not only IOException, otherwise the producer waits forever
+        exception = e;
+      } finally {
+        this.ringLock.lock();
+        try {
+          if ((exception != null) && (this.failure == null)) {
+            this.failure = exception;
+          }
+          this.head = (this.head + 1) % this.segments.length;
+          this.filled -= 1;
+          this.segmentDrained.signal();
+        } finally {
+          this.ringLock.unlock();
+        }
+      }
+    }
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    this.closedCheck();
+    this.ensureCapacity(1);
+    if (Repertoires.fitsInAscii(c)) {
+      this.current[this.position++] = (byte) c;
+    } else {
+      this.current[this.position++] = (byte) '?';
+    }
+  }
+
+  @Override
+  public void write(char[] cbuf, int offset, int length) throws IOException {
+    this.closedCheck();
+    Objects.checkFromIndexSize(offset, length, cbuf.length);
+    if (this.ensureCapacity(length)) {
+      this.writeAsciiOffsetLength(cbuf, offset, length);
+    } else {
+      this.writeSegmented(cbuf, offset, length);
+    }
+  }
+
+  @Override
+  public void write(String str, int offset, int length) throws IOException {
+    this.closedCheck();
+    Objects.checkFromIndexSize(offset, length, str.length());
+    if (this.ensureCapacity(length)) {
+      this.writeAsciiOffsetLength(str, offset, length);
+    } else {
+      this.writeSegmentedOffsetLenth(str, offset, length);
+    }
+  }
+
+  @Override
+  public Writer append(CharSequence csq) throws IOException {
+    if (csq instanceof String) {
+      this.write((String) csq);
+      return this;
+    }
+    if (csq == null) {
+      return this.append("null", 0, 4);
+    } else {
+      return this.append(csq, 0, csq.length());
+    }
+  }
+
+  @Override
+  public Writer append(CharSequence csq, int start, int end) throws IOException {
+    if (csq instanceof String) {
+      this.write((String) csq, start, end - start);
+      return this;
+    }
+    CharSequence charSequence = csq != null ? csq : "null";
+    this.closedCheck();
+    Objects.checkFromToIndex(start, end, charSequence.length());
+    if (this.ensureCapacity(end - start)) {
+      this.writeAsciiStartEnd(charSequence, start, end);
+    } else {
+      this.writeSegmentedStartEnd(charSequence, start, end);
+    }
+    return this;
+  }
+
+  @Override
+  public Writer append(char c) throws IOException {
+    this.write(c);
+    return this;
+  }
+
+  private void writeSegmentedStartEnd(CharSequence csq, int initialStart, int end) throws IOException {
+    int currentStart = initialStart;
+    while (currentStart < end) {
+      int length = Math.min(this.current.length, end - currentStart);
+      this.append(csq, currentStart, currentStart + length);
+      currentStart += length;
+    }
+  }
+
+  private void writeSegmentedOffsetLenth(String s, int offset, int totalLength) throws IOException {
+    int written = 0;
+    while (written < totalLength) {
+      int length = Math.min(this.current.length, totalLength - written);
+      this.write(s, offset + written, length);
+      written += length;
+    }
+  }
+
+  private void writeSegmented(char[] cbuf, int offset, int totalLength) throws IOException {
+    int written = 0;
+    while (written < totalLength) {
+      int length = Math.min(this.current.length, totalLength - written);
+      this.write(cbuf, offset + written, length);
+      written += length;
+    }
+  }
+
+  private void writeAsciiStartEnd(CharSequence csq, int start, int end) {
+    int length = end - start;
+    AsciiEncoder.encode(csq, start, this.current, this.position, length);
+    this.position += length;
+  }
+
+  private void writeAsciiOffsetLength(String s, int offset, int length) {
+    AsciiEncoder.encode(s, offset, this.current, this.position, length);
+    this.position += length;
+  }
+
+  private void writeAsciiOffsetLength(char[] cbuf, int offset, int length) {
+    AsciiEncoder.encode(cbuf, offset, this.current, this.position, length);
+    this.position += length;
+  }
+
+  /**
+   * Waits until all data has been written by the background thread and
+   * flushes the output stream.
+   *
+   * @throws IOException if the writer is closed, the background thread
+   *                     failed to write or flushing the output stream failed
+   */
+  @Override
+  public void flush() throws IOException {
+    this.closedCheck();
+    this.doFlush();
+  }
+
+  private void doFlush() throws IOException {
+    this.awaitDrained();
+    // the background thread is idle now
+    this.out.flush();
+  }
+
+  private void awaitDrained() throws IOException {
+    if (this.position > 0) {
+      // never drop when explicitly flushing
+      this.publish(this.backpressure == Backpressure.DROP ? Backpressure.BLOCK : this.backpressure);
+    }
+    this.ringLock.lock();
+    try {
+      this.awaitFilledLessThan(1);
+    } finally {
+      this.ringLock.unlock();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+    try {
+      this.awaitDrained();
+    } finally {
+      try {
+        this.stopDrainer();
+      } finally {
+        this.out.close();
+      }
+    }
+  }
+
+  private void stopDrainer() throws IOException {
+    this.ringLock.lock();
+    try {
+      this.stopping = true;
+      this.segmentFilled.signal();
+    } finally {
+      this.ringLock.unlock();
+    }
+    if (Thread.currentThread().isInterrupted()) {
+      // join() does not throw if the background thread has already ended
+      throw new InterruptedIOException("interrupted while waiting for background thread");
+    }
+    try {
+      this.drainer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted while waiting for background thread");
+    }
+  }
+
+}
@@ -0,0 +1,260 @@
+package com.github.marschall.writers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Objects;
+
+/**
+ * A reader that decodes ASCII and buffers.
+ * <p>
+ * For non-ASCII bytes U+FFFD will be read instead just
+ * like {@link InputStreamReader} does.
+ * <p>
+ * This can result in more efficient reads than using
+ * {@link BufferedReader} with {@link InputStreamReader} as the bytes are
+ * widened directly from the buffer without an intermediate
+ * {@code char[]}.
+ *
+ * @implNote This class is <b>not</b> thread-safe.
+ * @implNote This reader does not allocate any objects, beyond
+ *           a {@code byte[]} for buffering allocated in the constructor,
+ *           or call methods that allocate objects.
+ */
+public final class BufferedAsciiInputStreamReader extends Reader {
+
+  private final InputStream in;
+
+  private final byte[] buffer;
+
+  /**
+   * The index of the next byte to read from {@link #buffer}.
+   */
+  private int position;
+
+  /**
+   * The index after the last valid byte in {@link #buffer}.
+   */
+  private int limit;
+
+  /**
+   * Whether the last line ended with {@code '\r'} and a following
+   * {@code '\n'} belongs to the same line terminator.
+   */
+  private boolean skipLf;
+
+  private boolean closed;
+
+  /**
+   * Constructs a new {@link BufferedAsciiInputStreamReader}
+   *
+   * @param in the input stream to delegate to, not {@code null}
+   * @param bufferSize the buffer size in bytes, must be positive
+   * @throws NullPointerException when {@code in} is {@code null}
+   * @throws IllegalArgumentException if {@code bufferSize} negative or 0
+   */
+  public BufferedAsciiInputStreamReader(InputStream in, int bufferSize) {
+    Objects.requireNonNull(in, "in");
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("buffer size must be positive");
+    }
+    this.in = in;
+    this.buffer = new byte[bufferSize];
+    this.position = 0;
+    this.limit = 0;
+    this.skipLf = false;
+    this.closed = false;
+  }
+
+  /**
+   * Constructs a new {@link BufferedAsciiInputStreamReader} with a
+   * default buffer size of 8192.
+   *
+   * @param in the input stream to delegate to, not {@code null}
+   * @throws NullPointerException when {@code in} is {@code null}
+   */
+  public BufferedAsciiInputStreamReader(InputStream in) {
+    this(in, 8192);
+  }
+
+  private void closedCheck() throws IOException {
+    if (this.closed) {
+      throw new IOException("closed reader");
+    }
+  }
+
+  private boolean fill() throws IOException {
+    int read = this.in.read(this.buffer, 0, this.buffer.length);
+    if (read <= 0) {
+      return false;
+    }
+    this.position = 0;
+    this.limit = read;
+    return true;
+  }
+
+  /**
+   * Makes sure there is at least one byte in the buffer.
+   *
+   * @return {@code false} if the end of the stream has been reached
+   * @throws IOException if an I/O error occurs
+   */
+  private boolean ensureAvailable() throws IOException {
+    if (this.skipLf) {
+      this.skipLf = false;
+      if ((this.position >= this.limit) && !this.fill()) {
+        return false;
+      }
+      if (this.buffer[this.position] == '\n') {
+        this.position += 1;
+      }
+    }
+    if (this.position >= this.limit) {
+      return this.fill();
+    }
+    return true;
+  }
+
+  @Override
+  public int read() throws IOException {
+    this.closedCheck();
+    if (!this.ensureAvailable()) {
+      return -1;
+    }
+    return AsciiWiden.widen(this.buffer[this.position++]);
+  }
+
+  @Override
+  public int read(char[] cbuf, int offset, int length) throws IOException {
+    this.closedCheck();
+    Objects.checkFromIndexSize(offset, length, cbuf.length);
+    if (length == 0) {
+      return 0;
+    }
+    if (!this.ensureAvailable()) {
+      return -1;
+    }
+    int read = 0;
+    do {
+      int chunk = Math.min(length - read, this.limit - this.position);
+      AsciiWiden.widen(this.buffer, this.position, cbuf, offset + read, chunk);
+      this.position += chunk;
+      read += chunk;
+      // only block for the first character, like BufferedReader
+    } while ((read < length) && (this.in.available() > 0) && this.ensureAvailable());
+    return read;
+  }
+
+  /**
+   * Reads a line of text into a caller supplied buffer.
+   * <p>
+   * A line is terminated by {@code '\n'}, {@code '\r'} or {@code "\r\n"}
+   * like in {@link BufferedReader#readLine()}. The line terminator is
+   * consumed but not stored.
+   * <p>
+   * If the line is longer than {@code length} only the first
+   * {@code length} characters are stored and the remaining characters
+   * are returned by the following calls. Callers that need to tell a line
+   * of exactly {@code length} characters from a longer one should pass a
+   * buffer longer than the longest expected line.
+   *
+   * @param cbuf the buffer to read the line into, not {@code null}
+   * @param offset the offset into {@code cbuf} at which to store the line
+   * @param length the maximum number of characters to store
+   * @return the number of characters stored, {@code -1} if the end of the
+   *         stream has been reached before any character was read
+   * @throws IOException if an I/O error occurs
+   * @throws IndexOutOfBoundsException if {@code offset} and {@code length}
+   *         are out of bounds of {@code cbuf}
+   */
+  public int readLine(char[] cbuf, int offset, int length) throws IOException {
+    this.closedCheck();
+    Objects.checkFromIndexSize(offset, length, cbuf.length);
+    int read = 0;
+    while (this.ensureAvailable()) {
+      if (read == length) {
+        this.skipLineTerminator();
+        return read;
+      }
+      int start = this.position;
+      int end = Math.min(this.limit, start + (length - read));
+      for (int i = start; i < end; i++) {
+        byte b = this.buffer[i];
+        if ((b == '\n') || (b == '\r')) {
+          AsciiWiden.widen(this.buffer, start, cbuf, offset + read, i - start);
+          this.position = i + 1;
+          this.skipLf = b == '\r';
+          return read + (i - start);
+        }
+      }
+      AsciiWiden.widen(this.buffer, start, cbuf, offset + read, end - start);
+      this.position = end;
+      read += end - start;
+    }
+    return read > 0 ? read : -1;
+  }
+
+  /**
+   * Reads a line of text into a caller supplied buffer.
+   *
+   * @param cbuf the buffer to read the line into, not {@code null}
+   * @return the number of characters stored, {@code -1} if the end of the
+   *         stream has been reached before any character was read
+   * @throws IOException if an I/O error occurs
+   * @see #readLine(char[], int, int)
+   */
+  public int readLine(char[] cbuf) throws IOException {
+    return this.readLine(cbuf, 0, cbuf.length);
+  }
+
+  /**
+   * Consumes a line terminator directly following a full buffer so that a
+   * line of exactly the buffer length is not followed by an empty line.
+   * Must only be called when {@link #ensureAvailable()} returned
+   * {@code true}.
+   */
+  private void skipLineTerminator() {
+    byte b = this.buffer[this.position];
+    if ((b == '\n') || (b == '\r')) {
+      this.position += 1;
+      this.skipLf = b == '\r';
+    }
+  }
+
+  @Override
+  public boolean ready() throws IOException {
+    this.closedCheck();
+    return (this.position < this.limit) || (this.in.available() > 0);
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    if (n < 0L) {
+      throw new IllegalArgumentException("skip value is negative");
+    }
+    this.closedCheck();
+    if ((n == 0L) || !this.ensureAvailable()) {
+      return 0L;
+    }
+    // every character is exactly one byte
+    int buffered = this.limit - this.position;
+    if (n <= buffered) {
+      this.position += (int) n;
+      return n;
+    }
+    this.position = this.limit;
+    return buffered + this.in.skip(n - buffered);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+    this.in.close();
+  }
+
+}
@@ -4,6 +4,8 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
 import java.util.Objects;
 
 
@@ -11,46 +13,163 @@ import java.util.Objects;
  * A writer that encodes to ASCII and buffers.
  * <p>
  * For non-ASCII characters {@code '?'} will be written instead just
- * like {@link OutputStreamWriter} does.
+ * like {@link OutputStreamWriter} does unless a different
+ * {@link UnmappablePolicy} is given.
  * <p>
+ * The buffer can optionally grow. Such a writer starts with a small
+ * buffer and doubles it, up to a maximum size, when it repeatedly sees
+ * writes larger than the buffer. Writes larger than the buffer are only
+ * counted until the buffer fills up with smaller writes, then counting
+ * starts over. The buffer never shrinks, a grown buffer is kept for the
+ * lifetime of the writer, including when it is
+ * {@link #reset(OutputStream) reset} and reused from a
+ * {@link BufferedAsciiOutputStreamWriterPool}.
+ * <p>
+ * Writes larger than the buffer are encoded in chunks of the maximum
+ * buffer size and every chunk is passed to the output stream right away
+ * instead of being combined with following writes.
+ * <p>
+ * Writes to the output stream can be monitored, see {@link WriterMonitoring}.
  *
  * @implNote This class is <b>not</b> thread-safe.
  * @implNote This writer does not allocate any objects, beyond
  *           a {@code byte[]} for buffering allocated in the constructor,
- *           or call methods that allocate objects.
+ *           or call methods that allocate objects. The only exceptions
+ *           are a small {@code byte[]} allocated the first time a
+ *           number is written when the buffer is smaller than the
+ *           longest representation of the number, a growing buffer,
+ *           a {@code byte[]} of the maximum buffer size allocated
+ *           the first time a write is larger than a buffer that can
+ *           still grow and a small {@code char[]} allocated when a
+ *           {@link StringBuilder}, {@link StringBuffer} or
+ *           {@link CharBuffer} is appended the first time.
  */
 public final class BufferedAsciiOutputStreamWriter extends Writer {
 
-  private final OutputStream out;
+  /**
+   * How many writes larger than the buffer have to be seen before the
+   * buffer grows.
+   */
+  private static final int GROWTH_THRESHOLD = 4;
+
+  private OutputStream out;
+
+  private byte[] buffer;
+
+  private final int maxBufferSize;
 
-  private final byte[] buffer;
+  /**
+   * The number of writes larger than the buffer since the buffer last
+   * grew or was last flushed because it filled up with writes that fit.
+   */
+  private int oversizedWrites;
+
+  private final UnmappablePolicy policy;
+
+  /**
+   * Scratch space for encoding unmappable characters, {@code null} for
+   * {@link UnmappablePolicy#REPLACE}.
+   */
+  private final byte[] encoded;
 
   private int position;
 
   private boolean closed;
 
+  /**
+   * Scratch space for copying characters out of {@link StringBuilder}s,
+   * {@link StringBuffer}s and {@link CharBuffer}s, allocated on first use.
+   */
+  private char[] scratch;
+
+  /**
+   * Scratch space for formatting numbers when the buffer is smaller than
+   * the longest representation of the number, allocated on first use.
+   */
+  private byte[] digits;
+
+  /**
+   * Scratch space for encoding writes larger than the buffer in chunks
+   * of the maximum buffer size while the buffer can still grow,
+   * allocated on first use.
+   */
+  private byte[] chunk;
+
+  /**
+   * The pool to return this writer to when it is closed, {@code null}
+   * if not pooled.
+   */
+  private BufferedAsciiOutputStreamWriterPool pool;
+
+  /**
+   * The lease for leak detection, {@code null} if not pooled or without
+   * leak detection.
+   */
+  private BufferedAsciiOutputStreamWriterPool.Lease lease;
+
   /**
    * Constructs a new {@link BufferedAsciiOutputStreamWriter}
    *
    * @param out the output stream to delegate to, not {@code null}
    * @param bufferSize the buffer size in bytes, must be positive
-   * @throws NullPointerException when {@code out} is {@code null}
+   * @param policy what to write for non-ASCII characters, not {@code null}
+   * @throws NullPointerException when {@code out} or {@code policy} is {@code null}
    * @throws IllegalArgumentException if {@code bufferSize} negative or 0
    */
-  public BufferedAsciiOutputStreamWriter(OutputStream out, int bufferSize) {
+  public BufferedAsciiOutputStreamWriter(OutputStream out, int bufferSize, UnmappablePolicy policy) {
+    this(out, bufferSize, bufferSize, policy);
+  }
+
+  /**
+   * Constructs a new {@link BufferedAsciiOutputStreamWriter} with a
+   * buffer that grows when it sees repeated writes larger than the buffer.
+   *
+   * @param out the output stream to delegate to, not {@code null}
+   * @param initialBufferSize the initial buffer size in bytes, must be positive
+   * @param maxBufferSize the maximum buffer size in bytes, must not be
+   *                      smaller than {@code initialBufferSize}
+   * @param policy what to write for non-ASCII characters, not {@code null}
+   * @throws NullPointerException when {@code out} or {@code policy} is {@code null}
+   * @throws IllegalArgumentException if {@code initialBufferSize} negative
+   *                                  or 0 or {@code maxBufferSize} smaller
+   *                                  than {@code initialBufferSize}
+   */
+  public BufferedAsciiOutputStreamWriter(OutputStream out, int initialBufferSize, int maxBufferSize, UnmappablePolicy policy) {
     Objects.requireNonNull(out, "out");
-    if (bufferSize <= 0) {
+    Objects.requireNonNull(policy, "policy");
+    if (initialBufferSize <= 0) {
       throw new IllegalArgumentException("buffer size must be positive");
     }
+    if (maxBufferSize < initialBufferSize) {
+      throw new IllegalArgumentException("max buffer size must not be smaller than initial buffer size");
+    }
     this.out = out;
-    this.buffer = new byte[bufferSize];
+    this.buffer = new byte[initialBufferSize];
+    this.maxBufferSize = maxBufferSize;
+    this.oversizedWrites = 0;
+    this.policy = policy;
+    this.encoded = policy != UnmappablePolicy.REPLACE ? new byte[UnmappablePolicy.MAX_ENCODED_LENGTH] : null;
     this.position = 0;
     this.closed = false;
   }
 
+  /**
+   * Constructs a new {@link BufferedAsciiOutputStreamWriter} that writes
+   * {@code '?'} for non-ASCII characters.
+   *
+   * @param out the output stream to delegate to, not {@code null}
+   * @param bufferSize the buffer size in bytes, must be positive
+   * @throws NullPointerException when {@code out} is {@code null}
+   * @throws IllegalArgumentException if {@code bufferSize} negative or 0
+   */
+  public BufferedAsciiOutputStreamWriter(OutputStream out, int bufferSize) {
+    this(out, bufferSize, UnmappablePolicy.REPLACE);
+  }
+
   /**
    * Constructs a new {@link BufferedAsciiOutputStreamWriter} with a
-   * default buffer size of 8192.
+   * default buffer size of 8192 that writes {@code '?'} for non-ASCII
+   * characters.
    *
    * @param out the output stream to delegate to, not {@code null}
    * @throws NullPointerException when {@code out} is {@code null}
@@ -59,6 +178,31 @@ public final class BufferedAsciiOutputStreamWriter extends Writer {
     this(out, 8192);
   }
 
+  /**
+   * Resets this writer to write to a different output stream.
+   * <p>
+   * Allows the buffer to be reused. Any buffered characters that have
+   * not yet been written are discarded. The previous output stream is
+   * not flushed or closed. This writer can be reset after it has been
+   * closed. A buffer that has grown keeps its size.
+   *
+   * @param out the output stream to delegate to, not {@code null}
+   * @throws NullPointerException when {@code out} is {@code null}
+   * @see BufferedAsciiOutputStreamWriterPool
+   */
+  public void reset(OutputStream out) {
+    Objects.requireNonNull(out, "out");
+    this.out = out;
+    this.oversizedWrites = 0;
+    this.position = 0;
+    this.closed = false;
+  }
+
+  void pool(BufferedAsciiOutputStreamWriterPool pool, BufferedAsciiOutputStreamWriterPool.Lease lease) {
+    this.pool = pool;
+    this.lease = lease;
+  }
+
   private void closedCheck() throws IOException {
     if (this.closed) {
       throw new IOException("closed writer");
@@ -72,21 +216,29 @@ public final class BufferedAsciiOutputStreamWriter extends Writer {
   }
 
   private boolean ensureCapacity(int capacity) throws IOException {
-    if (capacity < 0) {
-      // will throw later
-      return true;
-    }
     if (capacity > (this.buffer.length - this.position)) {
-      this.flushBuffer();
+      this.flushBufferIfNotEmpty();
+      if (capacity <= this.buffer.length) {
+        // the buffer filled up with writes that fit, they are not frequent enough
+        this.oversizedWrites = 0;
+      }
     }
     return capacity <= this.buffer.length;
   }
 
   private void flushBuffer() throws IOException {
-    this.out.write(this.buffer, 0, this.position);
+    this.writeToStream(this.buffer, 0, this.position);
     this.position = 0;
   }
 
+  private void writeToStream(byte[] bytes, int offset, int length) throws IOException {
+    if (WriterMonitoring.ENABLED) {
+      WriterMonitoring.write(BufferedAsciiOutputStreamWriter.class, this.out, bytes, offset, length);
+    } else {
+      this.out.write(bytes, offset, length);
+    }
+  }
+
   @Override
   public void write(int c) throws IOException {
     this.closedCheck();
@@ -94,19 +246,16 @@ public final class BufferedAsciiOutputStreamWriter extends Writer {
     if (Repertoires.fitsInAscii(c)) {
       this.writeAscii((char) c);
     } else {
-      this.writeNonAscii();
+      this.writeNonAscii((char) c);
     }
   }
 
   @Override
   public void write(char[] cbuf, int offset, int length) throws IOException {
     this.closedCheck();
+    Objects.checkFromIndexSize(offset, length, cbuf.length);
     if (this.ensureCapacity(length)) {
-      if (Repertoires.fitsInAscii(cbuf, offset, length)) {
-        this.writeAsciiOffsetLength(cbuf, offset, length);
-      } else {
-        this.writeNonAsciiOffsetLength(cbuf, offset, length);
-      }
+      this.writeAsciiOffsetLength(cbuf, offset, length);
     } else {
       this.writeSegmented(cbuf, offset, length);
     }
@@ -115,12 +264,9 @@ public final class BufferedAsciiOutputStreamWriter extends Writer {
   @Override
   public void write(String str, int offset, int length) throws IOException {
     this.closedCheck();
+    Objects.checkFromIndexSize(offset, length, str.length());
     if (this.ensureCapacity(length)) {
-      if (Repertoires.fitsInAsciiOffsetLength(str, offset, length)) {
-        this.writeAsciiOffsetLength(str, offset, length);
-      } else {
-        this.writeNonAsciiOffsetLength(str, offset, length);
-      }
+      this.writeAsciiOffsetLength(str, offset, length);
     } else {
       this.writeSegmentedOffsetLenth(str, offset, length);
     }
@@ -147,12 +293,9 @@ public final class BufferedAsciiOutputStreamWriter extends Writer {
     }
     CharSequence charSequence = csq != null ? csq : "null";
     this.closedCheck();
+    Objects.checkFromToIndex(start, end, charSequence.length());
     if (this.ensureCapacity(end - start)) {
-      if (Repertoires.fitsInAsciiStartEnd(charSequence, start, end)) {
-        this.writeAsciiStartEnd(charSequence, start, end);
-      } else {
-        this.writeNonAsciiStartEnd(charSequence, start, end);
-      }
+      this.writeAsciiStartEnd(charSequence, start, end);
     } else {
       this.writeSegmentedStartEnd(charSequence, start, end);
     }
@@ -166,41 +309,318 @@ public final class BufferedAsciiOutputStreamWriter extends Writer {
     if (Repertoires.fitsInAscii(c)) {
       this.writeAscii(c);
     } else {
-      this.writeNonAscii();
+      this.writeNonAscii(c);
     }
     return this;
   }
 
+  /**
+   * Writes a constant.
+   * <p>
+   * The constant is already known to be ASCII and encoded so it is
+   * copied into the buffer without checking it.
+   *
+   * @param constant the constant to write, not {@code null}
+   * @throws IOException if an I/O error occurs
+   */
+  public void write(AsciiConstant constant) throws IOException {
+    byte[] bytes = constant.bytes();
+    this.writeAsciiBytes(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Writes the decimal representation of an {@code int}.
+   * <p>
+   * Writes the same characters as {@link Integer#toString(int)} without
+   * allocating a {@link String}.
+   *
+   * @param i the value to write
+   * @throws IOException if an I/O error occurs
+   */
+  public void writeInt(int i) throws IOException {
+    this.closedCheck();
+    if (this.ensureCapacity(IntegerToDecimal.MAX_INT_LENGTH)) {
+      this.position = IntegerToDecimal.writeInt(i, this.buffer, this.position);
+    } else {
+      byte[] digits = this.digits();
+      this.writeAsciiBytes(digits, 0, IntegerToDecimal.writeInt(i, digits, 0));
+    }
+  }
+
+  /**
+   * Writes the decimal representation of a {@code long}.
+   * <p>
+   * Writes the same characters as {@link Long#toString(long)} without
+   * allocating a {@link String}.
+   *
+   * @param l the value to write
+   * @throws IOException if an I/O error occurs
+   */
+  public void writeLong(long l) throws IOException {
+    this.closedCheck();
+    if (this.ensureCapacity(IntegerToDecimal.MAX_LONG_LENGTH)) {
+      this.position = IntegerToDecimal.writeLong(l, this.buffer, this.position);
+    } else {
+      byte[] digits = this.digits();
+      this.writeAsciiBytes(digits, 0, IntegerToDecimal.writeLong(l, digits, 0));
+    }
+  }
+
+  /**
+   * Writes the shortest decimal representation of a {@code double} that
+   * rounds to the same value.
+   * <p>
+   * Writes the same characters as {@link Double#toString(double)} on
+   * Java 19+ without allocating a {@link String}. Older versions of Java
+   * sometimes produce more digits than necessary.
+   *
+   * @param d the value to write
+   * @throws IOException if an I/O error occurs
+   */
+  public void writeDouble(double d) throws IOException {
+    this.closedCheck();
+    if (this.ensureCapacity(DoubleToDecimal.MAX_LENGTH)) {
+      this.position = DoubleToDecimal.write(d, this.buffer, this.position);
+    } else {
+      byte[] digits = this.digits();
+      this.writeAsciiBytes(digits, 0, DoubleToDecimal.write(d, digits, 0));
+    }
+  }
+
+  /**
+   * Writes the shortest decimal representation of a {@code float} that
+   * rounds to the same value.
+   * <p>
+   * Writes the same characters as {@link Float#toString(float)} on
+   * Java 19+ without allocating a {@link String}. Older versions of Java
+   * sometimes produce more digits than necessary.
+   *
+   * @param f the value to write
+   * @throws IOException if an I/O error occurs
+   */
+  public void writeFloat(float f) throws IOException {
+    this.closedCheck();
+    if (this.ensureCapacity(FloatToDecimal.MAX_LENGTH)) {
+      this.position = FloatToDecimal.write(f, this.buffer, this.position);
+    } else {
+      byte[] digits = this.digits();
+      this.writeAsciiBytes(digits, 0, FloatToDecimal.write(f, digits, 0));
+    }
+  }
+
+  private byte[] digits() {
+    byte[] digits = this.digits;
+    if (digits == null) {
+      // the longest of all number representations
+      digits = new byte[DoubleToDecimal.MAX_LENGTH];
+      this.digits = digits;
+    }
+    return digits;
+  }
+
+  /**
+   * Writes bytes that are already known to be ASCII without checking them.
+   *
+   * @param bytes the ASCII bytes to write
+   * @param offset the index of the first byte to write
+   * @param length the number of bytes to write
+   * @throws IOException if an I/O error occurs
+   */
+  void writeAsciiBytes(byte[] bytes, int offset, int length) throws IOException {
+    this.closedCheck();
+    if (this.ensureCapacity(length)) {
+      System.arraycopy(bytes, offset, this.buffer, this.position, length);
+      this.position += length;
+    } else {
+      this.writeToStream(bytes, offset, length);
+    }
+  }
+
+  // The following methods allow other encoders in this package to write
+  // directly into the buffer.
+
+  /**
+   * Makes sure the buffer has space for the given number of bytes,
+   * flushing it if necessary.
+   *
+   * @param capacity the number of bytes needed
+   * @return {@code true} if the buffer has enough space, {@code false}
+   *         if {@code capacity} is larger than the buffer
+   * @throws IOException if an I/O error occurs or this writer is closed
+   */
+  boolean reserve(int capacity) throws IOException {
+    this.closedCheck();
+    return this.ensureCapacity(capacity);
+  }
+
+  byte[] buffer() {
+    return this.buffer;
+  }
+
+  int position() {
+    return this.position;
+  }
+
+  void position(int position) {
+    this.position = position;
+  }
+
+  /**
+   * Writes the same ASCII byte several times without checking it.
+   *
+   * @param b the ASCII byte to write
+   * @param count how many times to write the byte
+   * @throws IOException if an I/O error occurs
+   */
+  void writeAsciiRepeated(byte b, int count) throws IOException {
+    this.closedCheck();
+    int remaining = count;
+    while (remaining > 0) {
+      this.ensureCapacity(1);
+      int length = Math.min(remaining, this.buffer.length - this.position);
+      Arrays.fill(this.buffer, this.position, this.position + length, b);
+      this.position += length;
+      remaining -= length;
+    }
+  }
+
+  /**
+   * Grows the buffer if writes larger than the buffer are frequent.
+   * <p>
+   * Must only be called when the buffer is empty. The new size applies
+   * to the following writes.
+   *
+   * @param length the length of the write that is larger than the buffer
+   */
+  private void adaptBufferSize(int length) {
+    if (this.buffer.length < this.maxBufferSize) {
+      this.oversizedWrites += 1;
+      if (this.oversizedWrites >= GROWTH_THRESHOLD) {
+        int newSize = (int) Math.min(Math.max(this.buffer.length * 2L, length), this.maxBufferSize);
+        if ((newSize == this.maxBufferSize) && (this.chunk != null)) {
+          // the chunk buffer is no longer needed
+          this.buffer = this.chunk;
+          this.chunk = null;
+        } else {
+          this.buffer = new byte[newSize];
+        }
+        this.oversizedWrites = 0;
+      }
+    }
+  }
+
+  /**
+   * Returns the buffer to encode chunks of writes larger than the buffer
+   * into, the buffer itself once it has reached the maximum size.
+   */
+  private byte[] chunkBuffer() {
+    if (this.buffer.length == this.maxBufferSize) {
+      return this.buffer;
+    }
+    byte[] chunk = this.chunk;
+    if (chunk == null) {
+      chunk = new byte[this.maxBufferSize];
+      this.chunk = chunk;
+    }
+    return chunk;
+  }
+
+  // The following methods must only be called when the buffer is empty.
+  // Every chunk is encoded into the chunk buffer, which temporarily takes
+  // the place of the buffer, and immediately written to the output stream.
+
   private void writeSegmentedStartEnd(CharSequence csq, int initialStart, int end) throws IOException {
-    int currentStart = initialStart;
-    while (currentStart < end) {
-      int length = Math.min(this.buffer.length, end - currentStart);
-      this.append(csq, currentStart, currentStart + length);
-      currentStart += length;
+    if (WriterMonitoring.ENABLED) {
+      WriterMonitoring.segmentedWrite();
     }
+    byte[] buffer = this.buffer;
+    this.buffer = this.chunkBuffer();
+    try {
+      int currentStart = initialStart;
+      while (currentStart < end) {
+        int length = Math.min(this.buffer.length, end - currentStart);
+        if ((length > 1) && Character.isHighSurrogate(csq.charAt(currentStart + length - 1))) {
+          // do not split surrogate pairs
+          length -= 1;
+        }
+        this.writeAsciiStartEnd(csq, currentStart, currentStart + length);
+        this.flushBufferIfNotEmpty();
+        currentStart += length;
+      }
+    } finally {
+      this.buffer = buffer;
+      this.position = 0;
+    }
+    this.adaptBufferSize(end - initialStart);
   }
 
   private void writeSegmentedOffsetLenth(String s, int offset, int totalLength) throws IOException {
-    int written = 0;
-    while (written < totalLength) {
-      int length = Math.min(this.buffer.length, totalLength - written);
-      this.write(s, offset + written, length);
-      written += length;
+    if (WriterMonitoring.ENABLED) {
+      WriterMonitoring.segmentedWrite();
+    }
+    byte[] buffer = this.buffer;
+    this.buffer = this.chunkBuffer();
+    try {
+      int written = 0;
+      while (written < totalLength) {
+        int length = Math.min(this.buffer.length, totalLength - written);
+        if ((length > 1) && Character.isHighSurrogate(s.charAt(offset + written + length - 1))) {
+          // do not split surrogate pairs
+          length -= 1;
+        }
+        this.writeAsciiOffsetLength(s, offset + written, length);
+        this.flushBufferIfNotEmpty();
+        written += length;
+      }
+    } finally {
+      this.buffer = buffer;
+      this.position = 0;
     }
+    this.adaptBufferSize(totalLength);
   }
 
   private void writeSegmented(char[] cbuf, int offset, int totalLength) throws IOException {
-    int written = 0;
-    while (written < totalLength) {
-      int length = Math.min(this.buffer.length, totalLength - written);
-      this.write(cbuf, offset + written, length);
-      written += length;
+    if (WriterMonitoring.ENABLED) {
+      WriterMonitoring.segmentedWrite();
+    }
+    byte[] buffer = this.buffer;
+    this.buffer = this.chunkBuffer();
+    try {
+      int written = 0;
+      while (written < totalLength) {
+        int length = Math.min(this.buffer.length, totalLength - written);
+        if ((length > 1) && Character.isHighSurrogate(cbuf[offset + written + length - 1])) {
+          // do not split surrogate pairs
+          length -= 1;
+        }
+        this.writeAsciiOffsetLength(cbuf, offset + written, length);
+        this.flushBufferIfNotEmpty();
+        written += length;
+      }
+    } finally {
+      this.buffer = buffer;
+      this.position = 0;
     }
+    this.adaptBufferSize(totalLength);
   }
 
-  private Writer writeNonAscii() throws IOException {
-    this.buffer[this.position++] = (byte) '?';
-    return this;
+  private void writeNonAscii(char c) throws IOException {
+    if (this.policy == UnmappablePolicy.REPLACE) {
+      this.buffer[this.position++] = (byte) '?';
+      if (WriterMonitoring.ENABLED) {
+        WriterMonitoring.unmappable(1);
+      }
+    } else {
+      this.writeUnmappable(c);
+    }
+  }
+
+  private void writeUnmappable(int codePoint) throws IOException {
+    if (WriterMonitoring.ENABLED) {
+      WriterMonitoring.unmappable(1);
+    }
+    int length = this.policy.encode(codePoint, this.encoded, 0);
+    this.writeAsciiBytes(this.encoded, 0, length);
   }
 
   private Writer writeAscii(char c) throws IOException {
@@ -208,63 +628,133 @@ public final class BufferedAsciiOutputStreamWriter extends Writer {
     return this;
   }
 
+  // The following methods copy and check for non-ASCII characters with AsciiEncoder
+  // and only re-encode according to the policy if there are any.
+
   private void writeAsciiStartEnd(CharSequence csq, int start, int end) throws IOException {
-    int from = Objects.checkFromToIndex(start, end, csq.length());
-    for (int i = from; i < end; i++) {
-      this.buffer[this.position++] = (byte) (csq.charAt(i) & 0xff);
+    if (csq instanceof AsciiConstant) {
+      int length = end - start;
+      System.arraycopy(((AsciiConstant) csq).bytes(), start, this.buffer, this.position, length);
+      this.position += length;
+    } else if ((csq instanceof CharBuffer) && ((CharBuffer) csq).hasArray()) {
+      CharBuffer charBuffer = (CharBuffer) csq;
+      this.writeAsciiOffsetLength(charBuffer.array(), charBuffer.arrayOffset() + charBuffer.position() + start, end - start);
+    } else if (CharSequences.hasGetChars(csq)) {
+      this.writeAsciiGetChars(csq, start, end);
+    } else {
+      this.writeAsciiCharAt(csq, start, end);
     }
   }
 
-  private void writeNonAsciiStartEnd(CharSequence csq, int start, int end) {
-    int from = Objects.checkFromToIndex(start, end, csq.length());
-    for (int i = from; i < end; i++) {
-      char c = csq.charAt(i);
-      if (!Repertoires.fitsInAscii(c)) {
-        c = '?';
+  private void writeAsciiGetChars(CharSequence csq, int start, int end) throws IOException {
+    char[] scratch = this.scratch;
+    if (scratch == null) {
+      scratch = new char[CharSequences.SCRATCH_SIZE];
+      this.scratch = scratch;
+    }
+    int chunkStart = start;
+    while (chunkStart < end) {
+      int chunkEnd = Math.min(end, chunkStart + scratch.length);
+      CharSequences.getChars(csq, chunkStart, chunkEnd, scratch);
+      int length = chunkEnd - chunkStart;
+      if ((chunkEnd < end) && Character.isHighSurrogate(scratch[length - 1])) {
+        // do not split surrogate pairs
+        length -= 1;
       }
-      this.buffer[this.position++] = (byte) c;
+      // escaping non-ASCII characters of the previous chunk may have used up the capacity
+      this.ensureCapacity(length);
+      this.writeAsciiOffsetLength(scratch, 0, length);
+      chunkStart += length;
     }
   }
 
-  @SuppressWarnings("deprecation") // we know the content is ASCII, therefore this is fine
-  private void writeAsciiOffsetLength(String s, int offset, int length) throws IOException {
-    Objects.checkFromIndexSize(offset, length, s.length());
-    s.getBytes(offset, offset + length, this.buffer, this.position);
-    this.position += length;
+  private void writeAsciiCharAt(CharSequence csq, int start, int end) throws IOException {
+    int bufferStart = this.position;
+    int length = end - start;
+    int mask = AsciiEncoder.copyAndMask(csq, start, this.buffer, bufferStart, length);
+    this.position = bufferStart + length;
+    if (!Repertoires.fitsInAscii(mask)) {
+      if (this.policy == UnmappablePolicy.REPLACE) {
+        this.unmappable(AsciiEncoder.replaceNonAscii(csq, start, this.buffer, bufferStart, length));
+      } else {
+        this.encodeNonAscii(csq, start, end, bufferStart);
+      }
+    }
   }
 
-  private void writeNonAsciiOffsetLength(String s, int offset, int length) {
-    int from = Objects.checkFromIndexSize(offset, length, s.length());
-    for (int i = from; i < (offset + length); i++) {
-      char c = s.charAt(i);
-      byte b;
-      if (Repertoires.fitsInAscii(c)) {
-        b = (byte) c;
+  private void writeAsciiOffsetLength(String s, int offset, int length) throws IOException {
+    int bufferStart = this.position;
+    int mask = AsciiEncoder.copyAndMask(s, offset, this.buffer, bufferStart, length);
+    this.position = bufferStart + length;
+    if (!Repertoires.fitsInAscii(mask)) {
+      if (this.policy == UnmappablePolicy.REPLACE) {
+        this.unmappable(AsciiEncoder.replaceNonAscii(s, offset, this.buffer, bufferStart, length));
       } else {
-        b = '?';
+        this.encodeNonAscii(s, offset, offset + length, bufferStart);
       }
-      this.buffer[this.position++] = b;
     }
   }
 
   private void writeAsciiOffsetLength(char[] cbuf, int offset, int length) throws IOException {
-    int from = Objects.checkFromIndexSize(offset, length, cbuf.length);
-    for (int i = from; i < (offset + length); i++) {
-      this.buffer[this.position++] = (byte) (cbuf[i] & 0xff);
+    int bufferStart = this.position;
+    int mask = AsciiCopy.copyAndMask(cbuf, offset, this.buffer, bufferStart, length);
+    this.position = bufferStart + length;
+    if (!Repertoires.fitsInAscii(mask)) {
+      if (this.policy == UnmappablePolicy.REPLACE) {
+        this.unmappable(AsciiEncoder.replaceNonAscii(cbuf, offset, this.buffer, bufferStart, length));
+      } else {
+        this.encodeNonAscii(cbuf, offset, offset + length, bufferStart);
+      }
+    }
+  }
+
+  private void unmappable(int count) {
+    if (WriterMonitoring.ENABLED) {
+      WriterMonitoring.unmappable(count);
     }
   }
 
-  private void writeNonAsciiOffsetLength(char[] cbuf, int offset, int length) {
-    int from = Objects.checkFromIndexSize(offset, length, cbuf.length);
-    for (int i = from; i < (offset + length); i++) {
+  // The following methods re-encode the input starting at the first non-ASCII
+  // character according to the policy. The output may be shorter or longer
+  // than the input and may therefore cause the buffer to be flushed.
+
+  private void encodeNonAscii(CharSequence csq, int start, int end, int bufferStart) throws IOException {
+    int i = start;
+    while (Repertoires.fitsInAscii(csq.charAt(i))) {
+      i += 1;
+    }
+    this.position = bufferStart + (i - start);
+    while (i < end) {
+      char c = csq.charAt(i);
+      if (Repertoires.fitsInAscii(c)) {
+        this.ensureCapacity(1);
+        this.writeAscii(c);
+        i += 1;
+      } else {
+        int codePoint = (i + 1) < end ? Character.codePointAt(csq, i) : c;
+        this.writeUnmappable(codePoint);
+        i += Character.charCount(codePoint);
+      }
+    }
+  }
+
+  private void encodeNonAscii(char[] cbuf, int start, int end, int bufferStart) throws IOException {
+    int i = start;
+    while (Repertoires.fitsInAscii(cbuf[i])) {
+      i += 1;
+    }
+    this.position = bufferStart + (i - start);
+    while (i < end) {
       char c = cbuf[i];
-      byte b;
       if (Repertoires.fitsInAscii(c)) {
-        b = (byte) c;
+        this.ensureCapacity(1);
+        this.writeAscii(c);
+        i += 1;
       } else {
-        b = '?';
+        int codePoint = Character.codePointAt(cbuf, i, end);
+        this.writeUnmappable(codePoint);
+        i += Character.charCount(codePoint);
       }
-      this.buffer[this.position++] = b;
     }
   }
 
@@ -281,14 +771,29 @@ public final class BufferedAsciiOutputStreamWriter extends Writer {
 
   @Override
   public void close() throws IOException {
+    boolean wasClosed = this.closed;
     try {
-      if (!this.closed) {
+      if (!wasClosed) {
         this.doFlush();
       }
     } finally {
       this.closed = true;
-      this.out.close();
+      try {
+        this.out.close();
+      } finally {
+        if (!wasClosed && this.pool != null) {
+          this.returnToPool();
+        }
+      }
     }
   }
 
+  private void returnToPool() {
+    BufferedAsciiOutputStreamWriterPool pool = this.pool;
+    BufferedAsciiOutputStreamWriterPool.Lease lease = this.lease;
+    this.pool = null;
+    this.lease = null;
+    pool.release(this, lease);
+  }
+
 }
@@ -0,0 +1,179 @@
+package com.github.marschall.writers;
+
+import java.io.OutputStream;
+import java.lang.System.Logger.Level;
+import java.lang.ref.Cleaner;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of {@link BufferedAsciiOutputStreamWriter}s.
+ * <p>
+ * {@link #acquire(OutputStream)} hands out a writer from the pool or
+ * creates a new one if the pool is empty. Closing the writer closes the
+ * output stream and returns the writer to the pool. If the pool is full
+ * the writer is discarded. A writer must not be used after it has been
+ * closed, it may already have been handed out again.
+ * <p>
+ * Optionally writers that are never closed can be detected. This
+ * requires the writer to be garbage collected, a leaked writer is
+ * therefore only reported some time after it has been leaked.
+ * <pre><code>
+ * try (BufferedAsciiOutputStreamWriter writer = pool.acquire(response.getOutputStream())) {
+ *   writer.write("OK");
+ * }
+ * </code></pre>
+ *
+ * @implNote This class is thread-safe.
+ * @implNote Acquiring a writer from a non-empty pool and returning it
+ *           does not allocate any objects unless leak detection is
+ *           enabled. With leak detection every acquisition allocates
+ *           a stack trace and registers a cleaning action.
+ */
+public final class BufferedAsciiOutputStreamWriterPool {
+
+  private static final Cleaner CLEANER = Cleaner.create();
+
+  private final ArrayBlockingQueue<BufferedAsciiOutputStreamWriter> writers;
+
+  private final int bufferSize;
+
+  private final UnmappablePolicy policy;
+
+  private final boolean leakDetection;
+
+  private final AtomicLong leakCount;
+
+  /**
+   * Constructs a new {@link BufferedAsciiOutputStreamWriterPool}.
+   *
+   * @param capacity the maximum number of idle writers in the pool,
+   *                 must be positive
+   * @param bufferSize the buffer size of the writers in bytes, must
+   *                   be positive
+   * @param policy what the writers write for non-ASCII characters,
+   *               not {@code null}
+   * @param leakDetection whether to report writers that are never closed
+   * @throws NullPointerException when {@code policy} is {@code null}
+   * @throws IllegalArgumentException if {@code capacity} or
+   *                                  {@code bufferSize} negative or 0
+   */
+  public BufferedAsciiOutputStreamWriterPool(int capacity, int bufferSize, UnmappablePolicy policy, boolean leakDetection) {
+    Objects.requireNonNull(policy, "policy");
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("buffer size must be positive");
+    }
+    this.writers = new ArrayBlockingQueue<>(capacity);
+    this.bufferSize = bufferSize;
+    this.policy = policy;
+    this.leakDetection = leakDetection;
+    this.leakCount = new AtomicLong();
+  }
+
+  /**
+   * Constructs a new {@link BufferedAsciiOutputStreamWriterPool} of
+   * writers with a default buffer size of 8192 that write {@code '?'}
+   * for non-ASCII characters and without leak detection.
+   *
+   * @param capacity the maximum number of idle writers in the pool,
+   *                 must be positive
+   * @throws IllegalArgumentException if {@code capacity} negative or 0
+   */
+  public BufferedAsciiOutputStreamWriterPool(int capacity) {
+    this(capacity, 8192, UnmappablePolicy.REPLACE, false);
+  }
+
+  /**
+   * Hands out a writer writing to an output stream.
+   *
+   * @param out the output stream to write to, not {@code null}
+   * @return a writer writing to {@code out} that is returned to the
+   *         pool when it is closed
+   * @throws NullPointerException when {@code out} is {@code null}
+   */
+  public BufferedAsciiOutputStreamWriter acquire(OutputStream out) {
+    Objects.requireNonNull(out, "out");
+    BufferedAsciiOutputStreamWriter writer = this.writers.poll();
+    if (writer == null) {
+      writer = new BufferedAsciiOutputStreamWriter(out, this.bufferSize, this.policy);
+    } else {
+      writer.reset(out);
+    }
+    writer.pool(this, this.leakDetection ? this.track(writer) : null);
+    return writer;
+  }
+
+  private Lease track(BufferedAsciiOutputStreamWriter writer) {
+    // the lease must not reference the writer, otherwise it never becomes unreachable
+    Lease lease = new Lease(this.leakCount, new Throwable("writer acquired here"));
+    lease.cleanable = CLEANER.register(writer, lease);
+    return lease;
+  }
+
+  /**
+   * Returns a closed writer to the pool.
+   *
+   * @param writer the writer to return
+   * @param lease the lease of the writer, {@code null} without leak
+   *              detection
+   */
+  void release(BufferedAsciiOutputStreamWriter writer, Lease lease) {
+    if (lease != null) {
+      lease.release();
+    }
+    this.writers.offer(writer);
+  }
+
+  /**
+   * Returns the number of writers that have been garbage collected
+   * without having been closed.
+   * <p>
+   * Always {@code 0} without leak detection.
+   *
+   * @return the number of leaked writers
+   */
+  public long getLeakCount() {
+    return this.leakCount.get();
+  }
+
+  /**
+   * Reports a writer as leaked when it becomes unreachable before
+   * {@link #release()} is called.
+   */
+  static final class Lease implements Runnable {
+
+    private final AtomicLong leakCount;
+
+    private final Throwable acquisition;
+
+    private volatile boolean returned;
+
+    Cleaner.Cleanable cleanable;
+
+    Lease(AtomicLong leakCount, Throwable acquisition) {
+      this.leakCount = leakCount;
+      this.acquisition = acquisition;
+    }
+
+    void release() {
+      this.returned = true;
+      // deregisters the cleaning action
+      this.cleanable.clean();
+    }
+
+    @Override
+    public void run() {
+      if (!this.returned) {
+        this.leakCount.incrementAndGet();
+        System.getLogger(BufferedAsciiOutputStreamWriterPool.class.getName())
+          .log(Level.WARNING, "writer was not closed", this.acquisition);
+      }
+    }
+
+  }
+
+}
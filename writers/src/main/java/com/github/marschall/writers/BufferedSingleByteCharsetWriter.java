@@ -0,0 +1,398 @@
+package com.github.marschall.writers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Objects;
+
+/**
+ * A writer that encodes to any single byte {@link Charset} like
+ * windows-1252, ISO-8859-15 or IBM037 and buffers.
+ * <p>
+ * Characters are encoded with a lookup table that is built once per
+ * charset from the JDK encoder and shared by all instances. For
+ * characters that can not be encoded the replacement byte of the
+ * encoder, usually {@code '?'}, will be written instead just like
+ * {@link OutputStreamWriter} does. A surrogate pair is replaced by a
+ * single byte. A high surrogate at the end of a write is kept until the
+ * next write so that surrogate pairs can be split across calls.
+ * <p>
+ * For charsets that are a superset of ASCII runs of ASCII characters
+ * are narrowed in bulk like in {@link BufferedAsciiOutputStreamWriter}.
+ *
+ * @implNote This class is <b>not</b> thread-safe.
+ * @implNote This writer does not allocate any objects, beyond
+ *           a {@code byte[]} for buffering allocated in the constructor,
+ *           or call methods that allocate objects. The lookup table is
+ *           allocated by the first writer for a charset.
+ */
+public final class BufferedSingleByteCharsetWriter extends Writer {
+
+  private static final char NO_HIGH_SURROGATE = 0;
+
+  private final OutputStream out;
+
+  private final SingleByteEncodingTable table;
+
+  private final byte[] buffer;
+
+  private int position;
+
+  private boolean closed;
+
+  /**
+   * A high surrogate from a previous write waiting for its low surrogate
+   * or {@link #NO_HIGH_SURROGATE}.
+   */
+  private char highSurrogate;
+
+  /**
+   * Constructs a new {@link BufferedSingleByteCharsetWriter}
+   *
+   * @param out the output stream to delegate to, not {@code null}
+   * @param charset the charset to encode to, not {@code null}
+   * @param bufferSize the buffer size in bytes, must be positive
+   * @throws NullPointerException when {@code out} or {@code charset} is {@code null}
+   * @throws IllegalArgumentException if {@code bufferSize} negative or 0
+   *                                  or {@code charset} is not a single
+   *                                  byte charset
+   */
+  public BufferedSingleByteCharsetWriter(OutputStream out, Charset charset, int bufferSize) {
+    Objects.requireNonNull(out, "out");
+    Objects.requireNonNull(charset, "charset");
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("buffer size must be positive");
+    }
+    this.out = out;
+    this.table = SingleByteEncodingTable.forCharset(charset);
+    this.buffer = new byte[bufferSize];
+    this.position = 0;
+    this.closed = false;
+    this.highSurrogate = NO_HIGH_SURROGATE;
+  }
+
+  /**
+   * Constructs a new {@link BufferedSingleByteCharsetWriter} with a
+   * default buffer size of 8192.
+   *
+   * @param out the output stream to delegate to, not {@code null}
+   * @param charset the charset to encode to, not {@code null}
+   * @throws NullPointerException when {@code out} or {@code charset} is {@code null}
+   * @throws IllegalArgumentException if {@code charset} is not a single
+   *                                  byte charset
+   */
+  public BufferedSingleByteCharsetWriter(OutputStream out, Charset charset) {
+    this(out, charset, 8192);
+  }
+
+  /**
+   * Whether a charset is supported by this class.
+   *
+   * @param charset the charset to check, not {@code null}
+   * @return whether the charset encodes every character to a single byte
+   * @throws NullPointerException when {@code charset} is {@code null}
+   */
+  public static boolean isSupported(Charset charset) {
+    Objects.requireNonNull(charset, "charset");
+    return SingleByteEncodingTable.isSingleByte(charset);
+  }
+
+  private void closedCheck() throws IOException {
+    if (this.closed) {
+      throw new IOException("closed writer");
+    }
+  }
+
+  private void flushBufferIfNotEmpty() throws IOException {
+    if (this.position > 0) {
+      this.flushBuffer();
+    }
+  }
+
+  private boolean ensureCapacity(int capacity) throws IOException {
+    if (capacity > (this.buffer.length - this.position)) {
+      this.flushBuffer();
+    }
+    return capacity <= this.buffer.length;
+  }
+
+  private void flushBuffer() throws IOException {
+    this.out.write(this.buffer, 0, this.position);
+    this.position = 0;
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    this.closedCheck();
+    if (c > Character.MAX_VALUE) {
+      // not a low surrogate
+      this.writePendingHighSurrogate(NO_HIGH_SURROGATE);
+      this.ensureCapacity(1);
+      this.buffer[this.position++] = this.table.replacement();
+    } else {
+      this.writeChar((char) c);
+    }
+  }
+
+  @Override
+  public void write(char[] cbuf, int offset, int length) throws IOException {
+    this.closedCheck();
+    Objects.checkFromIndexSize(offset, length, cbuf.length);
+    if (length == 0) {
+      return;
+    }
+    int consumed = this.writePendingHighSurrogate(cbuf[offset]);
+    if (this.ensureCapacity(length - consumed)) {
+      this.encodeOffsetLength(cbuf, offset + consumed, length - consumed);
+    } else {
+      this.writeSegmented(cbuf, offset + consumed, length - consumed);
+    }
+  }
+
+  @Override
+  public void write(String str, int offset, int length) throws IOException {
+    this.closedCheck();
+    Objects.checkFromIndexSize(offset, length, str.length());
+    if (length == 0) {
+      return;
+    }
+    int consumed = this.writePendingHighSurrogate(str.charAt(offset));
+    if (this.ensureCapacity(length - consumed)) {
+      this.encodeOffsetLength(str, offset + consumed, length - consumed);
+    } else {
+      this.writeSegmentedOffsetLenth(str, offset + consumed, length - consumed);
+    }
+  }
+
+  @Override
+  public Writer append(CharSequence csq) throws IOException {
+    if (csq instanceof String) {
+      this.write((String) csq);
+      return this;
+    }
+    if (csq == null) {
+      return this.append("null", 0, 4);
+    } else {
+      return this.append(csq, 0, csq.length());
+    }
+  }
+
+  @Override
+  public Writer append(CharSequence csq, int start, int end) throws IOException {
+    if (csq instanceof String) {
+      this.write((String) csq, start, end - start);
+      return this;
+    }
+    CharSequence charSequence = csq != null ? csq : "null";
+    this.closedCheck();
+    Objects.checkFromToIndex(start, end, charSequence.length());
+    if (start == end) {
+      return this;
+    }
+    int from = start + this.writePendingHighSurrogate(charSequence.charAt(start));
+    if (this.ensureCapacity(end - from)) {
+      this.encodeTable(charSequence, from, end);
+    } else {
+      this.writeSegmentedStartEnd(charSequence, from, end);
+    }
+    return this;
+  }
+
+  @Override
+  public Writer append(char c) throws IOException {
+    this.closedCheck();
+    this.writeChar(c);
+    return this;
+  }
+
+  private void writeChar(char c) throws IOException {
+    if (this.writePendingHighSurrogate(c) == 1) {
+      return;
+    }
+    if (Character.isHighSurrogate(c)) {
+      this.highSurrogate = c;
+    } else {
+      this.ensureCapacity(1);
+      this.buffer[this.position++] = this.table.encode(c);
+    }
+  }
+
+  /**
+   * Writes the replacement for a high surrogate from a previous write.
+   *
+   * @param next the next character to write
+   * @return 1 if {@code next} is the low surrogate of the pending high
+   *         surrogate and has been written with it, 0 otherwise
+   * @throws IOException if flushing the buffer fails
+   */
+  private int writePendingHighSurrogate(char next) throws IOException {
+    if (this.highSurrogate == NO_HIGH_SURROGATE) {
+      return 0;
+    }
+    this.highSurrogate = NO_HIGH_SURROGATE;
+    this.ensureCapacity(1);
+    // a surrogate pair is a single unmappable character
+    this.buffer[this.position++] = this.table.replacement();
+    return Character.isLowSurrogate(next) ? 1 : 0;
+  }
+
+  private void writeSegmentedStartEnd(CharSequence csq, int initialStart, int end) throws IOException {
+    int currentStart = initialStart;
+    while (currentStart < end) {
+      int length = Math.min(this.buffer.length, end - currentStart);
+      if ((length > 1) && Character.isHighSurrogate(csq.charAt(currentStart + length - 1))) {
+        // do not split surrogate pairs
+        length -= 1;
+      }
+      this.append(csq, currentStart, currentStart + length);
+      currentStart += length;
+    }
+  }
+
+  private void writeSegmentedOffsetLenth(String s, int offset, int totalLength) throws IOException {
+    int written = 0;
+    while (written < totalLength) {
+      int length = Math.min(this.buffer.length, totalLength - written);
+      if ((length > 1) && Character.isHighSurrogate(s.charAt(offset + written + length - 1))) {
+        // do not split surrogate pairs
+        length -= 1;
+      }
+      this.write(s, offset + written, length);
+      written += length;
+    }
+  }
+
+  private void writeSegmented(char[] cbuf, int offset, int totalLength) throws IOException {
+    int written = 0;
+    while (written < totalLength) {
+      int length = Math.min(this.buffer.length, totalLength - written);
+      if ((length > 1) && Character.isHighSurrogate(cbuf[offset + written + length - 1])) {
+        // do not split surrogate pairs
+        length -= 1;
+      }
+      this.write(cbuf, offset + written, length);
+      written += length;
+    }
+  }
+
+  // The following methods assume the capacity has been checked.
+  // For ASCII compatible charsets they narrow and check for non-ASCII
+  // characters in a single pass and only fall back to table lookups
+  // from the first non-ASCII character.
+  // The output is never longer than the input.
+
+  private void encodeOffsetLength(char[] cbuf, int offset, int length) {
+    int start = offset;
+    if (this.table.isAsciiCompatible()) {
+      int mask = AsciiCopy.copyAndMask(cbuf, offset, this.buffer, this.position, length);
+      if (Repertoires.fitsInAscii(mask)) {
+        this.position += length;
+        return;
+      }
+      while (Repertoires.fitsInAscii(cbuf[start])) {
+        start += 1;
+      }
+      this.position += start - offset;
+    }
+    this.encodeTable(cbuf, start, offset + length);
+  }
+
+  private void encodeTable(char[] cbuf, int start, int end) {
+    SingleByteEncodingTable table = this.table;
+    byte[] buffer = this.buffer;
+    int bufferPosition = this.position;
+    for (int i = start; i < end; i++) {
+      char c = cbuf[i];
+      if (Character.isHighSurrogate(c)) {
+        if ((i + 1) == end) {
+          // may be completed by the next write
+          this.highSurrogate = c;
+          break;
+        }
+        if (Character.isLowSurrogate(cbuf[i + 1])) {
+          // a surrogate pair is a single unmappable character
+          i += 1;
+        }
+      }
+      buffer[bufferPosition++] = table.encode(c);
+    }
+    this.position = bufferPosition;
+  }
+
+  private void encodeOffsetLength(String s, int offset, int length) {
+    int start = offset;
+    if (this.table.isAsciiCompatible()) {
+      int mask = AsciiEncoder.copyAndMask(s, offset, this.buffer, this.position, length);
+      if (Repertoires.fitsInAscii(mask)) {
+        this.position += length;
+        return;
+      }
+      while (Repertoires.fitsInAscii(s.charAt(start))) {
+        start += 1;
+      }
+      this.position += start - offset;
+    }
+    this.encodeTable(s, start, offset + length);
+  }
+
+  private void encodeTable(CharSequence csq, int start, int end) {
+    SingleByteEncodingTable table = this.table;
+    byte[] buffer = this.buffer;
+    int bufferPosition = this.position;
+    for (int i = start; i < end; i++) {
+      char c = csq.charAt(i);
+      if (Character.isHighSurrogate(c)) {
+        if ((i + 1) == end) {
+          // may be completed by the next write
+          this.highSurrogate = c;
+          break;
+        }
+        if (Character.isLowSurrogate(csq.charAt(i + 1))) {
+          // a surrogate pair is a single unmappable character
+          i += 1;
+        }
+      }
+      buffer[bufferPosition++] = table.encode(c);
+    }
+    this.position = bufferPosition;
+  }
+
+  /**
+   * Flushes the buffer and the underlying stream.
+   * <p>
+   * A trailing high surrogate is kept as it may be completed by the next write.
+   *
+   * @throws IOException if an I/O error occurs
+   */
+  @Override
+  public void flush() throws IOException {
+    this.closedCheck();
+    this.doFlush();
+  }
+
+  private void doFlush() throws IOException {
+    this.flushBufferIfNotEmpty();
+    this.out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if (!this.closed) {
+        if (this.highSurrogate != NO_HIGH_SURROGATE) {
+          // unpaired high surrogate at the end of input
+          this.highSurrogate = NO_HIGH_SURROGATE;
+          this.ensureCapacity(1);
+          this.buffer[this.position++] = this.table.replacement();
+        }
+        this.doFlush();
+      }
+    } finally {
+      this.closed = true;
+      this.out.close();
+    }
+  }
+
+}
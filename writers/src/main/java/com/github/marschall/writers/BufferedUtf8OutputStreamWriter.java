@@ -0,0 +1,285 @@
+package com.github.marschall.writers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Objects;
+
+
+/**
+ * A writer that encodes to UTF-8 and buffers.
+ * <p>
+ * Runs of ASCII characters are copied in bulk, other characters are
+ * encoded inline. A high surrogate at the end of a write is kept until
+ * the next write so that surrogate pairs can be split across calls.
+ * For unpaired surrogates {@code '?'} will be written instead just
+ * like {@link OutputStreamWriter} does.
+ * <p>
+ *
+ * @implNote This class is <b>not</b> thread-safe.
+ * @implNote This writer does not allocate any objects, beyond
+ *           a {@code byte[]} for buffering allocated in the constructor,
+ *           or call methods that allocate objects.
+ */
+public final class BufferedUtf8OutputStreamWriter extends Writer {
+
+  /**
+   * The maximum number of bytes a single code point can be encoded to.
+   */
+  private static final int MAX_BYTES_PER_CODE_POINT = 4;
+
+  private static final char NO_HIGH_SURROGATE = 0;
+
+  private final OutputStream out;
+
+  private final byte[] buffer;
+
+  private int position;
+
+  private boolean closed;
+
+  /**
+   * A high surrogate from a previous write waiting for its low surrogate
+   * or {@link #NO_HIGH_SURROGATE}.
+   */
+  private char highSurrogate;
+
+  /**
+   * Constructs a new {@link BufferedUtf8OutputStreamWriter}
+   *
+   * @param out the output stream to delegate to, not {@code null}
+   * @param bufferSize the buffer size in bytes, must be at least 4
+   * @throws NullPointerException when {@code out} is {@code null}
+   * @throws IllegalArgumentException if {@code bufferSize} is less than 4
+   */
+  public BufferedUtf8OutputStreamWriter(OutputStream out, int bufferSize) {
+    Objects.requireNonNull(out, "out");
+    if (bufferSize < MAX_BYTES_PER_CODE_POINT) {
+      throw new IllegalArgumentException("buffer size must be at least " + MAX_BYTES_PER_CODE_POINT);
+    }
+    this.out = out;
+    this.buffer = new byte[bufferSize];
+    this.position = 0;
+    this.closed = false;
+    this.highSurrogate = NO_HIGH_SURROGATE;
+  }
+
+  /**
+   * Constructs a new {@link BufferedUtf8OutputStreamWriter} with a
+   * default buffer size of 8192.
+   *
+   * @param out the output stream to delegate to, not {@code null}
+   * @throws NullPointerException when {@code out} is {@code null}
+   */
+  public BufferedUtf8OutputStreamWriter(OutputStream out) {
+    this(out, 8192);
+  }
+
+  private void closedCheck() throws IOException {
+    if (this.closed) {
+      throw new IOException("closed writer");
+    }
+  }
+
+  private void flushBufferIfNotEmpty() throws IOException {
+    if (this.position > 0) {
+      this.flushBuffer();
+    }
+  }
+
+  private void flushBuffer() throws IOException {
+    this.out.write(this.buffer, 0, this.position);
+    this.position = 0;
+  }
+
+  private int remaining() {
+    return this.buffer.length - this.position;
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    this.closedCheck();
+    this.writeUtf8((char) c);
+  }
+
+  @Override
+  public void write(char[] cbuf, int offset, int length) throws IOException {
+    this.closedCheck();
+    Objects.checkFromIndexSize(offset, length, cbuf.length);
+    int end = offset + length;
+    int i = offset;
+    while (i < end) {
+      if (this.highSurrogate == NO_HIGH_SURROGATE) {
+        if (this.remaining() == 0) {
+          this.flushBuffer();
+        }
+        int asciiEnd = Math.min(end, i + this.remaining());
+        while ((i < asciiEnd) && Repertoires.fitsInAscii(cbuf[i])) {
+          this.buffer[this.position++] = (byte) cbuf[i];
+          i += 1;
+        }
+        if (i == end) {
+          break;
+        }
+      }
+      this.writeUtf8(cbuf[i]);
+      i += 1;
+    }
+  }
+
+  @Override
+  public void write(String str, int offset, int length) throws IOException {
+    this.closedCheck();
+    Objects.checkFromIndexSize(offset, length, str.length());
+    this.writeUtf8OffsetLength(str, offset, length);
+  }
+
+  @SuppressWarnings("deprecation") // we know the content is ASCII, therefore this is fine
+  private void writeUtf8OffsetLength(String s, int offset, int length) throws IOException {
+    int end = offset + length;
+    int i = offset;
+    while (i < end) {
+      if (this.highSurrogate == NO_HIGH_SURROGATE) {
+        if (this.remaining() == 0) {
+          this.flushBuffer();
+        }
+        int asciiEnd = Repertoires.asciiRunEnd(s, i, Math.min(end, i + this.remaining()));
+        if (asciiEnd > i) {
+          s.getBytes(i, asciiEnd, this.buffer, this.position);
+          this.position += asciiEnd - i;
+          i = asciiEnd;
+        }
+        if (i == end) {
+          break;
+        }
+      }
+      this.writeUtf8(s.charAt(i));
+      i += 1;
+    }
+  }
+
+  @Override
+  public Writer append(CharSequence csq) throws IOException {
+    if (csq instanceof String) {
+      this.write((String) csq);
+      return this;
+    }
+    if (csq == null) {
+      return this.append("null", 0, 4);
+    } else {
+      return this.append(csq, 0, csq.length());
+    }
+  }
+
+  @Override
+  public Writer append(CharSequence csq, int start, int end) throws IOException {
+    if (csq instanceof String) {
+      this.write((String) csq, start, end - start);
+      return this;
+    }
+    CharSequence charSequence = csq != null ? csq : "null";
+    this.closedCheck();
+    int from = Objects.checkFromToIndex(start, end, charSequence.length());
+    for (int i = from; i < end; i++) {
+      this.writeUtf8(charSequence.charAt(i));
+    }
+    return this;
+  }
+
+  @Override
+  public Writer append(char c) throws IOException {
+    this.closedCheck();
+    this.writeUtf8(c);
+    return this;
+  }
+
+  private void writeUtf8(char c) throws IOException {
+    if (this.remaining() < MAX_BYTES_PER_CODE_POINT) {
+      this.flushBuffer();
+    }
+    if (this.highSurrogate != NO_HIGH_SURROGATE) {
+      char high = this.highSurrogate;
+      this.highSurrogate = NO_HIGH_SURROGATE;
+      if (Character.isLowSurrogate(c)) {
+        this.writeFourBytes(Character.toCodePoint(high, c));
+        return;
+      }
+      // unpaired high surrogate
+      this.writeReplacement();
+    }
+    if (Repertoires.fitsInAscii(c)) {
+      this.buffer[this.position++] = (byte) c;
+    } else if (c < 0x800) {
+      this.writeTwoBytes(c);
+    } else if (Character.isHighSurrogate(c)) {
+      this.highSurrogate = c;
+    } else if (Character.isLowSurrogate(c)) {
+      // unpaired low surrogate
+      this.writeReplacement();
+    } else {
+      this.writeThreeBytes(c);
+    }
+  }
+
+  private void writeReplacement() {
+    this.buffer[this.position++] = (byte) '?';
+  }
+
+  private void writeTwoBytes(char c) {
+    this.buffer[this.position++] = (byte) (0b110_00000 | (c >> 6));
+    this.buffer[this.position++] = (byte) (0b10_000000 | (c & 0b111111));
+  }
+
+  private void writeThreeBytes(char c) {
+    this.buffer[this.position++] = (byte) (0b1110_0000 | (c >> 12));
+    this.buffer[this.position++] = (byte) (0b10_000000 | ((c >> 6) & 0b111111));
+    this.buffer[this.position++] = (byte) (0b10_000000 | (c & 0b111111));
+  }
+
+  private void writeFourBytes(int codePoint) {
+    this.buffer[this.position++] = (byte) (0b11110_000 | (codePoint >> 18));
+    this.buffer[this.position++] = (byte) (0b10_000000 | ((codePoint >> 12) & 0b111111));
+    this.buffer[this.position++] = (byte) (0b10_000000 | ((codePoint >> 6) & 0b111111));
+    this.buffer[this.position++] = (byte) (0b10_000000 | (codePoint & 0b111111));
+  }
+
+  /**
+   * Flushes the buffer and the underlying stream.
+   * <p>
+   * A trailing high surrogate is kept as it may be completed by the next write.
+   *
+   * @throws IOException if an I/O error occurs
+   */
+  @Override
+  public void flush() throws IOException {
+    this.closedCheck();
+    this.doFlush();
+  }
+
+  private void doFlush() throws IOException {
+    this.flushBufferIfNotEmpty();
+    this.out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if (!this.closed) {
+        if (this.highSurrogate != NO_HIGH_SURROGATE) {
+          // unpaired high surrogate at the end of input
+          this.highSurrogate = NO_HIGH_SURROGATE;
+          if (this.remaining() == 0) {
+            this.flushBuffer();
+          }
+          this.writeReplacement();
+        }
+        this.doFlush();
+      }
+    } finally {
+      this.closed = true;
+      this.out.close();
+    }
+  }
+
+}
@@ -0,0 +1,287 @@
+package com.github.marschall.writers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.Selector;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+
+
+/**
+ * A writer that encodes to ASCII into a {@link ByteBuffer} and drains
+ * it to a {@link WritableByteChannel}.
+ * <p>
+ * For non-ASCII characters {@code '?'} will be written instead just
+ * like {@link OutputStreamWriter} does.
+ * <p>
+ * Partial writes are supported, bytes not accepted by the channel are
+ * kept in the buffer and written again the next time the buffer is
+ * drained. {@link #flush()} and {@link #close()} only return once all
+ * bytes have been written.
+ * <p>
+ * With a non-blocking channel the caller still blocks whenever the
+ * buffer has to be drained and the channel does not accept any bytes.
+ * For a non-blocking {@link SelectableChannel} the caller waits on a
+ * {@link Selector} until the channel becomes writable. Other channels
+ * are retried after a short pause that grows up to 10 milliseconds. If
+ * the caller is interrupted while waiting an
+ * {@link InterruptedIOException} is thrown, the bytes not yet written
+ * stay in the buffer.
+ *
+ * @implNote This class is <b>not</b> thread-safe.
+ * @implNote This writer does not allocate any objects, beyond
+ *           a direct {@link ByteBuffer} for buffering allocated in
+ *           the constructor if none is provided, or call methods
+ *           that allocate objects. The only exception is a
+ *           {@link Selector} opened the first time a non-blocking
+ *           {@link SelectableChannel} does not accept any bytes.
+ */
+public final class ChannelAsciiWriter extends Writer {
+
+  private final WritableByteChannel channel;
+
+  private final ChannelBackoff backoff;
+
+  private final ByteBuffer buffer;
+
+  private boolean closed;
+
+  /**
+   * Constructs a new {@link ChannelAsciiWriter} that encodes into a
+   * caller provided buffer.
+   * <p>
+   * The buffer will be cleared, the writer assumes ownership of it until
+   * it has been closed. Direct buffers avoid an additional copy in
+   * the channel implementations of the JDK.
+   *
+   * @param channel the channel to write to, not {@code null}
+   * @param buffer the buffer to encode into, not {@code null}, not read-only,
+   *               must have a positive capacity
+   * @throws NullPointerException when {@code channel} or {@code buffer} is {@code null}
+   * @throws IllegalArgumentException if {@code buffer} is read-only or has
+   *                                  no capacity
+   */
+  public ChannelAsciiWriter(WritableByteChannel channel, ByteBuffer buffer) {
+    Objects.requireNonNull(channel, "channel");
+    Objects.requireNonNull(buffer, "buffer");
+    if (buffer.isReadOnly()) {
+      throw new IllegalArgumentException("buffer must not be read-only");
+    }
+    if (buffer.capacity() <= 0) {
+      throw new IllegalArgumentException("buffer size must be positive");
+    }
+    this.channel = channel;
+    this.backoff = new ChannelBackoff(channel);
+    this.buffer = buffer;
+    this.buffer.clear();
+    this.closed = false;
+  }
+
+  /**
+   * Constructs a new {@link ChannelAsciiWriter} that encodes into a
+   * newly allocated direct buffer.
+   *
+   * @param channel the channel to write to, not {@code null}
+   * @param bufferSize the buffer size in bytes, must be positive
+   * @throws NullPointerException when {@code channel} is {@code null}
+   * @throws IllegalArgumentException if {@code bufferSize} negative or 0
+   */
+  public ChannelAsciiWriter(WritableByteChannel channel, int bufferSize) {
+    this(channel, allocateDirect(bufferSize));
+  }
+
+  /**
+   * Constructs a new {@link ChannelAsciiWriter} that encodes into a
+   * newly allocated direct buffer with a default size of 8192.
+   *
+   * @param channel the channel to write to, not {@code null}
+   * @throws NullPointerException when {@code channel} is {@code null}
+   */
+  public ChannelAsciiWriter(WritableByteChannel channel) {
+    this(channel, 8192);
+  }
+
+  private static ByteBuffer allocateDirect(int bufferSize) {
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("buffer size must be positive");
+    }
+    return ByteBuffer.allocateDirect(bufferSize);
+  }
+
+  private void closedCheck() throws IOException {
+    if (this.closed) {
+      throw new IOException("closed writer");
+    }
+  }
+
+  private boolean ensureCapacity(int capacity) throws IOException {
+    if (capacity > this.buffer.remaining()) {
+      this.drain(Math.min(capacity, this.buffer.capacity()));
+    }
+    return capacity <= this.buffer.capacity();
+  }
+
+  /**
+   * Writes to the channel until at least {@code free} bytes are free
+   * in the buffer.
+   *
+   * @param free the number of bytes that have to be free, at most the capacity
+   * @throws IOException if writing to the channel fails
+   */
+  private void drain(int free) throws IOException {
+    this.buffer.flip();
+    try {
+      int maxPending = this.buffer.capacity() - free;
+      int attempts = 0;
+      while (this.buffer.remaining() > maxPending) {
+        int written = this.channel.write(this.buffer);
+        if (written == 0) {
+          // non-blocking channel that is not ready
+          attempts += 1;
+          this.backoff.await(attempts);
+        } else {
+          attempts = 0;
+        }
+      }
+    } finally {
+      this.buffer.compact();
+    }
+  }
+
+  private void drainAll() throws IOException {
+    if (this.buffer.position() > 0) {
+      this.drain(this.buffer.capacity());
+    }
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    this.closedCheck();
+    this.ensureCapacity(1);
+    if (Repertoires.fitsInAscii(c)) {
+      this.buffer.put((byte) c);
+    } else {
+      this.buffer.put((byte) '?');
+    }
+  }
+
+  @Override
+  public void write(char[] cbuf, int offset, int length) throws IOException {
+    this.closedCheck();
+    Objects.checkFromIndexSize(offset, length, cbuf.length);
+    if (this.ensureCapacity(length)) {
+      AsciiEncoder.encode(cbuf, offset, this.buffer, length);
+    } else {
+      this.writeSegmented(cbuf, offset, length);
+    }
+  }
+
+  @Override
+  public void write(String str, int offset, int length) throws IOException {
+    this.closedCheck();
+    Objects.checkFromIndexSize(offset, length, str.length());
+    if (this.ensureCapacity(length)) {
+      AsciiEncoder.encode(str, offset, this.buffer, length);
+    } else {
+      this.writeSegmentedOffsetLenth(str, offset, length);
+    }
+  }
+
+  @Override
+  public Writer append(CharSequence csq) throws IOException {
+    if (csq instanceof String) {
+      this.write((String) csq);
+      return this;
+    }
+    if (csq == null) {
+      return this.append("null", 0, 4);
+    } else {
+      return this.append(csq, 0, csq.length());
+    }
+  }
+
+  @Override
+  public Writer append(CharSequence csq, int start, int end) throws IOException {
+    if (csq instanceof String) {
+      this.write((String) csq, start, end - start);
+      return this;
+    }
+    CharSequence charSequence = csq != null ? csq : "null";
+    this.closedCheck();
+    Objects.checkFromToIndex(start, end, charSequence.length());
+    if (this.ensureCapacity(end - start)) {
+      AsciiEncoder.encode(charSequence, start, this.buffer, end - start);
+    } else {
+      this.writeSegmentedStartEnd(charSequence, start, end);
+    }
+    return this;
+  }
+
+  @Override
+  public Writer append(char c) throws IOException {
+    this.write(c);
+    return this;
+  }
+
+  private void writeSegmentedStartEnd(CharSequence csq, int initialStart, int end) throws IOException {
+    int currentStart = initialStart;
+    while (currentStart < end) {
+      int length = Math.min(this.buffer.capacity(), end - currentStart);
+      this.append(csq, currentStart, currentStart + length);
+      currentStart += length;
+    }
+  }
+
+  private void writeSegmentedOffsetLenth(String s, int offset, int totalLength) throws IOException {
+    int written = 0;
+    while (written < totalLength) {
+      int length = Math.min(this.buffer.capacity(), totalLength - written);
+      this.write(s, offset + written, length);
+      written += length;
+    }
+  }
+
+  private void writeSegmented(char[] cbuf, int offset, int totalLength) throws IOException {
+    int written = 0;
+    while (written < totalLength) {
+      int length = Math.min(this.buffer.capacity(), totalLength - written);
+      this.write(cbuf, offset + written, length);
+      written += length;
+    }
+  }
+
+  /**
+   * Writes all buffered bytes to the channel.
+   * <p>
+   * This does not force any updates to storage, use
+   * {@link java.nio.channels.FileChannel#force(boolean)} for this.
+   *
+   * @throws IOException if this writer is closed or writing to the channel fails
+   */
+  @Override
+  public void flush() throws IOException {
+    this.closedCheck();
+    this.drainAll();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if (!this.closed) {
+        this.drainAll();
+      }
+    } finally {
+      this.closed = true;
+      try {
+        this.channel.close();
+      } finally {
+        this.backoff.close();
+      }
+    }
+  }
+
+}
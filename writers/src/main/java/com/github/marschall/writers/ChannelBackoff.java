@@ -0,0 +1,103 @@
+package com.github.marschall.writers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Waits for a channel that did not accept any bytes before it is written
+ * to again.
+ * <p>
+ * For a non-blocking {@link SelectableChannel} waits on a
+ * {@link Selector} until the channel becomes writable. Other channels
+ * are retried after a short spin and then after a pause that doubles up
+ * to 10 milliseconds.
+ *
+ * @implNote This class is <b>not</b> thread-safe. The {@link Selector}
+ *           is only opened the first time it is needed.
+ */
+final class ChannelBackoff {
+
+  /**
+   * How often a channel that does not accept any bytes is retried
+   * without pausing.
+   */
+  private static final int SPIN_LIMIT = 64;
+
+  /**
+   * The longest pause before retrying a channel that does not accept
+   * any bytes.
+   */
+  private static final long MAX_PAUSE_NANOS = TimeUnit.MILLISECONDS.toNanos(10L);
+
+  /**
+   * Enough doublings of the initial pause of one microsecond to reach
+   * {@link #MAX_PAUSE_NANOS}.
+   */
+  private static final int MAX_PAUSE_DOUBLINGS = 14;
+
+  private final WritableByteChannel channel;
+
+  /**
+   * Waits for a non-blocking channel to become writable, {@code null}
+   * until first needed.
+   */
+  private Selector selector;
+
+  ChannelBackoff(WritableByteChannel channel) {
+    this.channel = channel;
+  }
+
+  /**
+   * Waits before writing again to a channel that did not accept any bytes.
+   *
+   * @param attempts the number of consecutive writes that did not accept any bytes
+   * @throws IOException if waiting for the channel fails
+   * @throws InterruptedIOException if the current thread is interrupted
+   */
+  void await(int attempts) throws IOException {
+    if (Thread.currentThread().isInterrupted()) {
+      throw new InterruptedIOException("interrupted while waiting for the channel to become writable");
+    }
+    if ((this.channel instanceof SelectableChannel) && !((SelectableChannel) this.channel).isBlocking()) {
+      this.selectWritable((SelectableChannel) this.channel);
+    } else if (attempts <= SPIN_LIMIT) {
+      Thread.onSpinWait();
+    } else {
+      // double the pause with every attempt until the maximum is reached
+      int doublings = Math.min(attempts - SPIN_LIMIT, MAX_PAUSE_DOUBLINGS);
+      long pauseNanos = Math.min(TimeUnit.MICROSECONDS.toNanos(1L) << doublings, MAX_PAUSE_NANOS);
+      LockSupport.parkNanos(this, pauseNanos);
+    }
+  }
+
+  private void selectWritable(SelectableChannel selectableChannel) throws IOException {
+    Selector selector = this.selector;
+    if (selector == null) {
+      selector = Selector.open();
+      this.selector = selector;
+    }
+    if (selectableChannel.keyFor(selector) == null) {
+      selectableChannel.register(selector, SelectionKey.OP_WRITE);
+    }
+    selector.select();
+    selector.selectedKeys().clear();
+  }
+
+  /**
+   * Closes the {@link Selector} if one has been opened.
+   *
+   * @throws IOException if closing the selector fails
+   */
+  void close() throws IOException {
+    if (this.selector != null) {
+      this.selector.close();
+    }
+  }
+
+}
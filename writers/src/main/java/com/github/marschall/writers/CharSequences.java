@@ -0,0 +1,61 @@
+package com.github.marschall.writers;
+
+import java.nio.CharBuffer;
+
+/**
+ * Reads {@link CharSequence}s in bulk instead of calling
+ * {@link CharSequence#charAt(int)} for every character.
+ */
+final class CharSequences {
+
+  /**
+   * The size of the scratch {@code char[]} used with
+   * {@link #getChars(CharSequence, int, int, char[])}.
+   */
+  static final int SCRATCH_SIZE = 256;
+
+  private CharSequences() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Whether {@link #getChars(CharSequence, int, int, char[])} supports a
+   * character sequence.
+   *
+   * @param csq the character sequence, not {@code null}
+   * @return whether the characters can be copied in bulk
+   */
+  static boolean hasGetChars(CharSequence csq) {
+    return (csq instanceof StringBuilder) || (csq instanceof StringBuffer) || (csq instanceof CharBuffer);
+  }
+
+  /**
+   * Copies characters from a character sequence into a {@code char[]}.
+   * <p>
+   * The bounds must already have been checked.
+   *
+   * @param csq the character sequence to copy from, must be supported by
+   *            {@link #hasGetChars(CharSequence)}
+   * @param start the index of the first character to copy
+   * @param end the index after the last character to copy
+   * @param dst the array to copy the characters to starting at index 0
+   */
+  static void getChars(CharSequence csq, int start, int end, char[] dst) {
+    if (csq instanceof StringBuilder) {
+      ((StringBuilder) csq).getChars(start, end, dst, 0);
+    } else if (csq instanceof StringBuffer) {
+      ((StringBuffer) csq).getChars(start, end, dst, 0);
+    } else {
+      // the absolute bulk get requires Java 13
+      CharBuffer buffer = (CharBuffer) csq;
+      int position = buffer.position();
+      buffer.position(position + start);
+      try {
+        buffer.get(dst, 0, end - start);
+      } finally {
+        buffer.position(position);
+      }
+    }
+  }
+
+}
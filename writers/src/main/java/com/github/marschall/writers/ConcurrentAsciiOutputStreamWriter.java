@@ -0,0 +1,204 @@
+package com.github.marschall.writers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Objects;
+
+/**
+ * A writer that encodes to ASCII for many concurrent producers.
+ * <p>
+ * Every thread encodes into its own buffer without holding a lock. Only
+ * passing the encoded bytes to the output stream happens while holding
+ * the lock, resulting in one {@link OutputStream#write(byte[], int, int)}
+ * per {@code write} or {@code append} call. The output of a single
+ * {@code write} or {@code append} call is never interleaved with the
+ * output of other threads. Writes larger than the buffer are encoded
+ * while holding the lock.
+ * <p>
+ * For non-ASCII characters {@code '?'} will be written instead just
+ * like {@link OutputStreamWriter} does.
+ * <p>
+ * As every write results in a write to the output stream it should
+ * usually be combined with a buffering output stream.
+ *
+ * @implNote This class is thread-safe.
+ * @implNote This writer does not allocate any objects, beyond a
+ *           {@code byte[]} for every thread writing to it, or call
+ *           methods that allocate objects. The buffers are held in a
+ *           {@link ThreadLocal} and live as long as the writer and the
+ *           thread.
+ */
+public final class ConcurrentAsciiOutputStreamWriter extends Writer {
+
+  private final OutputStream out;
+
+  private final int bufferSize;
+
+  private final ThreadLocal<byte[]> buffers;
+
+  /**
+   * Constructs a new {@link ConcurrentAsciiOutputStreamWriter}
+   *
+   * @param out the output stream to delegate to, not {@code null}
+   * @param bufferSize the buffer size in bytes of every thread, must be positive
+   * @throws NullPointerException when {@code out} is {@code null}
+   * @throws IllegalArgumentException if {@code bufferSize} negative or 0
+   */
+  public ConcurrentAsciiOutputStreamWriter(OutputStream out, int bufferSize) {
+    Objects.requireNonNull(out, "out");
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("buffer size must be positive");
+    }
+    this.out = out;
+    this.bufferSize = bufferSize;
+    this.buffers = ThreadLocal.withInitial(() -> new byte[bufferSize]);
+  }
+
+  /**
+   * Constructs a new {@link ConcurrentAsciiOutputStreamWriter} with a
+   * default buffer size of 1024 for every thread.
+   *
+   * @param out the output stream to delegate to, not {@code null}
+   * @throws NullPointerException when {@code out} is {@code null}
+   */
+  public ConcurrentAsciiOutputStreamWriter(OutputStream out) {
+    this(out, 1024);
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    this.writeAscii(Repertoires.fitsInAscii(c) ? c : '?');
+  }
+
+  @Override
+  public void write(char[] cbuf, int offset, int length) throws IOException {
+    Objects.checkFromIndexSize(offset, length, cbuf.length);
+    if (length <= this.bufferSize) {
+      byte[] buffer = this.buffers.get();
+      AsciiEncoder.encode(cbuf, offset, buffer, 0, length);
+      this.writeBuffer(buffer, length);
+    } else {
+      this.writeSegmented(cbuf, offset, length);
+    }
+  }
+
+  @Override
+  public void write(String str, int offset, int length) throws IOException {
+    Objects.checkFromIndexSize(offset, length, str.length());
+    if (length <= this.bufferSize) {
+      byte[] buffer = this.buffers.get();
+      AsciiEncoder.encode(str, offset, buffer, 0, length);
+      this.writeBuffer(buffer, length);
+    } else {
+      this.writeSegmentedOffsetLength(str, offset, length);
+    }
+  }
+
+  @Override
+  public Writer append(CharSequence csq) throws IOException {
+    if (csq instanceof String) {
+      this.write((String) csq);
+      return this;
+    }
+    if (csq == null) {
+      return this.append("null", 0, 4);
+    } else {
+      return this.append(csq, 0, csq.length());
+    }
+  }
+
+  @Override
+  public Writer append(CharSequence csq, int start, int end) throws IOException {
+    if (csq instanceof String) {
+      this.write((String) csq, start, end - start);
+      return this;
+    }
+    CharSequence charSequence = csq != null ? csq : "null";
+    Objects.checkFromToIndex(start, end, charSequence.length());
+    int length = end - start;
+    if (length <= this.bufferSize) {
+      byte[] buffer = this.buffers.get();
+      AsciiEncoder.encode(charSequence, start, buffer, 0, end - start);
+      this.writeBuffer(buffer, length);
+    } else {
+      this.writeSegmentedStartEnd(charSequence, start, end);
+    }
+    return this;
+  }
+
+  @Override
+  public Writer append(char c) throws IOException {
+    this.write(c);
+    return this;
+  }
+
+  private void writeAscii(int c) throws IOException {
+    synchronized (this.lock) {
+      this.out.write(c);
+    }
+  }
+
+  private void writeBuffer(byte[] buffer, int length) throws IOException {
+    synchronized (this.lock) {
+      this.out.write(buffer, 0, length);
+    }
+  }
+
+  // The lock is held for all segments so that the output is not interleaved.
+
+  private void writeSegmentedStartEnd(CharSequence csq, int initialStart, int end) throws IOException {
+    byte[] buffer = this.buffers.get();
+    synchronized (this.lock) {
+      int currentStart = initialStart;
+      while (currentStart < end) {
+        int length = Math.min(this.bufferSize, end - currentStart);
+        AsciiEncoder.encode(csq, currentStart, buffer, 0, length);
+        this.out.write(buffer, 0, length);
+        currentStart += length;
+      }
+    }
+  }
+
+  private void writeSegmentedOffsetLength(String s, int offset, int totalLength) throws IOException {
+    byte[] buffer = this.buffers.get();
+    synchronized (this.lock) {
+      int written = 0;
+      while (written < totalLength) {
+        int length = Math.min(this.bufferSize, totalLength - written);
+        AsciiEncoder.encode(s, offset + written, buffer, 0, length);
+        this.out.write(buffer, 0, length);
+        written += length;
+      }
+    }
+  }
+
+  private void writeSegmented(char[] cbuf, int offset, int totalLength) throws IOException {
+    byte[] buffer = this.buffers.get();
+    synchronized (this.lock) {
+      int written = 0;
+      while (written < totalLength) {
+        int length = Math.min(this.bufferSize, totalLength - written);
+        AsciiEncoder.encode(cbuf, offset + written, buffer, 0, length);
+        this.out.write(buffer, 0, length);
+        written += length;
+      }
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    synchronized (this.lock) {
+      this.out.flush();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    synchronized (this.lock) {
+      this.out.close();
+    }
+  }
+
+}
@@ -0,0 +1,187 @@
+package com.github.marschall.writers;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Writes CSV records as defined in RFC 4180 to a
+ * {@link BufferedAsciiOutputStreamWriter}.
+ * <p>
+ * Fields that contain the separator, a quotation mark, a carriage return,
+ * a line feed or a non-ASCII character are enclosed in quotation marks and
+ * quotation marks in them are doubled. All other fields are written
+ * unchanged. Non-ASCII characters are written according to the
+ * {@link UnmappablePolicy} of the underlying writer. Records are
+ * terminated with CRLF.
+ * <pre><code>
+ * CsvAsciiWriter csv = new CsvAsciiWriter(new BufferedAsciiOutputStreamWriter(stream));
+ * csv.writeField(name);
+ * csv.writeField(count);
+ * csv.endRecord();
+ * </code></pre>
+ *
+ * @implNote This class is <b>not</b> thread-safe.
+ * @implNote This writer does not allocate any objects, beyond a small
+ *           {@code char[]} allocated in the constructor, or call methods
+ *           that allocate objects.
+ */
+public final class CsvAsciiWriter implements Closeable, Flushable {
+
+  private static final byte[] RECORD_SEPARATOR = {'\r', '\n'};
+
+  private final BufferedAsciiOutputStreamWriter out;
+
+  private final char separator;
+
+  /**
+   * {@code 0x80} for ASCII characters that require a field to be quoted,
+   * so that the flag can be combined with the character for a single check
+   * with {@link Repertoires#fitsInAscii(int)}.
+   */
+  private final char[] quoteFlags;
+
+  private boolean firstField;
+
+  /**
+   * Constructs a new {@link CsvAsciiWriter} that separates fields with
+   * {@code ','}.
+   *
+   * @param out the writer to write the records to, not {@code null}
+   * @throws NullPointerException when {@code out} is {@code null}
+   */
+  public CsvAsciiWriter(BufferedAsciiOutputStreamWriter out) {
+    this(out, ',');
+  }
+
+  /**
+   * Constructs a new {@link CsvAsciiWriter}.
+   *
+   * @param out the writer to write the records to, not {@code null}
+   * @param separator the field separator, for example {@code ';'} or
+   *                  {@code '\t'}
+   * @throws NullPointerException when {@code out} is {@code null}
+   * @throws IllegalArgumentException if {@code separator} is not ASCII, a
+   *                                  quotation mark, a carriage return or
+   *                                  a line feed
+   */
+  public CsvAsciiWriter(BufferedAsciiOutputStreamWriter out, char separator) {
+    Objects.requireNonNull(out, "out");
+    if (!Repertoires.fitsInAscii(separator) || (separator == '"') || (separator == '\r') || (separator == '\n')) {
+      throw new IllegalArgumentException("invalid separator");
+    }
+    this.out = out;
+    this.separator = separator;
+    this.quoteFlags = new char[128];
+    this.quoteFlags['"'] = 0x80;
+    this.quoteFlags['\r'] = 0x80;
+    this.quoteFlags['\n'] = 0x80;
+    this.quoteFlags[separator] = 0x80;
+    this.firstField = true;
+  }
+
+  /**
+   * Writes a field, quoted if necessary.
+   *
+   * @param field the value of the field, {@code null} is written as an
+   *              empty field
+   * @throws IOException if an I/O error occurs
+   */
+  public void writeField(CharSequence field) throws IOException {
+    CharSequence value = field != null ? field : "";
+    int length = value.length();
+    int separatorLength = this.firstField ? 0 : 1;
+    this.firstField = false;
+    if (this.out.reserve(separatorLength + length)) {
+      // copy and check whether quoting is required in a single pass
+      byte[] buffer = this.out.buffer();
+      int position = this.out.position();
+      if (separatorLength != 0) {
+        buffer[position] = (byte) this.separator;
+        position += 1;
+      }
+      int flags = 0;
+      for (int i = 0; i < length; i++) {
+        char c = value.charAt(i);
+        flags |= c | this.quoteFlags[c & 0x7F];
+        buffer[position + i] = (byte) c;
+      }
+      if (Repertoires.fitsInAscii(flags)) {
+        this.out.position(position + length);
+        return;
+      }
+      this.out.position(position);
+    } else {
+      // larger than the buffer
+      if (separatorLength != 0) {
+        this.out.write(this.separator);
+      }
+      if (!this.requiresQuoting(value)) {
+        this.out.append(value, 0, length);
+        return;
+      }
+    }
+    this.writeQuoted(value, length);
+  }
+
+  /**
+   * Writes a field containing a number.
+   *
+   * @param field the value of the field
+   * @throws IOException if an I/O error occurs
+   */
+  public void writeField(long field) throws IOException {
+    if (this.firstField) {
+      this.firstField = false;
+    } else {
+      this.out.write(this.separator);
+    }
+    this.out.writeLong(field);
+  }
+
+  /**
+   * Terminates the current record, the next field will start a new record.
+   *
+   * @throws IOException if an I/O error occurs
+   */
+  public void endRecord() throws IOException {
+    this.out.writeAsciiBytes(RECORD_SEPARATOR, 0, RECORD_SEPARATOR.length);
+    this.firstField = true;
+  }
+
+  private boolean requiresQuoting(CharSequence value) {
+    int flags = 0;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      flags |= c | this.quoteFlags[c & 0x7F];
+    }
+    return !Repertoires.fitsInAscii(flags);
+  }
+
+  private void writeQuoted(CharSequence value, int length) throws IOException {
+    this.out.write('"');
+    int runStart = 0;
+    for (int i = 0; i < length; i++) {
+      if (value.charAt(i) == '"') {
+        // write the run including the quotation mark, then double it
+        this.out.append(value, runStart, i + 1);
+        this.out.write('"');
+        runStart = i + 1;
+      }
+    }
+    this.out.append(value, runStart, length);
+    this.out.write('"');
+  }
+
+  @Override
+  public void flush() throws IOException {
+    this.out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.out.close();
+  }
+
+}
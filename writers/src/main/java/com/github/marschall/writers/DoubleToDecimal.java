@@ -0,0 +1,383 @@
+package com.github.marschall.writers;
+
+import static java.lang.Math.multiplyHigh;
+
+import java.math.BigInteger;
+
+/**
+ * Formats {@code double} values as ASCII into a {@code byte[]} using the
+ * shortest decimal that rounds to the value.
+ * <p>
+ * This is an implementation of the Schubfach algorithm described in
+ * Raffaello Giulietti, "The Schubfach way to render doubles". The
+ * format is the same as {@link Double#toString(double)} on Java 19+,
+ * older versions of Java sometimes produce more digits than necessary.
+ * <p>
+ * The algorithm and the formatting are shared with {@link FloatToDecimal}.
+ */
+final class DoubleToDecimal {
+
+  /**
+   * The maximum number of bytes needed for a {@code double}, {@code "-2.2250738585072014E-308"}.
+   */
+  static final int MAX_LENGTH = 24;
+
+  /**
+   * The number of significand bits including the hidden bit.
+   */
+  private static final int PRECISION = 53;
+
+  /**
+   * The binary exponent of the smallest subnormal value, {@code 2^-1074}.
+   */
+  private static final int MIN_EXPONENT = -1074;
+
+  private static final int EXPONENT_MASK = 0x7FF;
+
+  private static final long FRACTION_MASK = (1L << (PRECISION - 1)) - 1L;
+
+  /**
+   * Subnormal significands below this have less than two digits at the
+   * decimal exponent of {@link #MIN_EXPONENT}.
+   */
+  private static final long TINY_SIGNIFICAND = 3L;
+
+  private static final long LOW_63_BITS = (1L << 63) - 1L;
+
+  /**
+   * The smallest decimal exponent of a scaled value.
+   */
+  private static final int MIN_DECIMAL_EXPONENT = -324;
+
+  /**
+   * The largest decimal exponent of a scaled value.
+   */
+  private static final int MAX_DECIMAL_EXPONENT = 292;
+
+  private static final long[] POWERS_OF_TEN = new long[19];
+
+  /**
+   * The high 63 bits of {@code floor(10^-k * 2^-r) + 1} for every
+   * decimal exponent {@code k}, with {@code r} chosen so that the value
+   * has 126 bits.
+   */
+  private static final long[] SCALE_HIGH = new long[MAX_DECIMAL_EXPONENT - MIN_DECIMAL_EXPONENT + 1];
+
+  /**
+   * The low 63 bits of the values in {@link #SCALE_HIGH}.
+   */
+  private static final long[] SCALE_LOW = new long[MAX_DECIMAL_EXPONENT - MIN_DECIMAL_EXPONENT + 1];
+
+  static {
+    long power = 1L;
+    for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+      POWERS_OF_TEN[i] = power;
+      power *= 10L;
+    }
+    BigInteger low63Bits = BigInteger.valueOf(LOW_63_BITS);
+    for (int k = MIN_DECIMAL_EXPONENT; k <= MAX_DECIMAL_EXPONENT; k++) {
+      // 10^-k * 2^-r is in [2^125, 2^126)
+      int r = floorLog2Pow10(-k) - 125;
+      BigInteger scaled;
+      if (k <= 0) {
+        BigInteger pow10 = BigInteger.TEN.pow(-k);
+        scaled = r >= 0 ? pow10.shiftRight(r) : pow10.shiftLeft(-r);
+      } else {
+        scaled = BigInteger.ONE.shiftLeft(-r).divide(BigInteger.TEN.pow(k));
+      }
+      BigInteger scale = scaled.add(BigInteger.ONE);
+      SCALE_HIGH[k - MIN_DECIMAL_EXPONENT] = scale.shiftRight(63).longValueExact();
+      SCALE_LOW[k - MIN_DECIMAL_EXPONENT] = scale.and(low63Bits).longValueExact();
+    }
+  }
+
+  private DoubleToDecimal() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Writes the shortest decimal representation of a {@code double}.
+   *
+   * @param v the value to format
+   * @param buffer the buffer to write to, must have space for {@link #MAX_LENGTH} bytes
+   * @param position the index at which to start writing
+   * @return the index after the last byte written
+   */
+  static int write(double v, byte[] buffer, int position) {
+    long bits = Double.doubleToRawLongBits(v);
+    int biasedExponent = (int) (bits >>> (PRECISION - 1)) & EXPONENT_MASK;
+    long fraction = bits & FRACTION_MASK;
+    if (biasedExponent == EXPONENT_MASK) {
+      return fraction == 0L ? writeInfinity(bits < 0L, buffer, position) : writeNaN(buffer, position);
+    }
+    int index = position;
+    if (bits < 0L) {
+      buffer[index++] = '-';
+    }
+    if (biasedExponent != 0) {
+      // normal, the lower boundary is closer if the fraction is 0
+      int q = MIN_EXPONENT - 1 + biasedExponent;
+      long c = (1L << (PRECISION - 1)) | fraction;
+      boolean closerLowerBoundary = (fraction == 0L) && (biasedExponent > 1);
+      return writeShortest(c, q, closerLowerBoundary, buffer, index);
+    }
+    if (fraction == 0L) {
+      return writeZero(buffer, index);
+    }
+    if (fraction < TINY_SIGNIFICAND) {
+      return writeTiny(fraction, MIN_EXPONENT, buffer, index);
+    }
+    return writeShortest(fraction, MIN_EXPONENT, false, buffer, index);
+  }
+
+  /**
+   * Writes the shortest decimal that rounds to {@code c * 2^q} with round
+   * half even.
+   *
+   * @param c the significand
+   * @param q the binary exponent
+   * @param closerLowerBoundary whether the next lower value is closer
+   *                            than the next higher value because
+   *                            {@code c} is the smallest normal significand
+   * @param buffer the buffer to write to
+   * @param index the index at which to start writing
+   * @return the index after the last byte written
+   */
+  static int writeShortest(long c, int q, boolean closerLowerBoundary, byte[] buffer, int index) {
+    // the rounding interval in units of 2^(q - 2), included if c is even
+    long center = c << 2;
+    long upper = center + 2L;
+    long lower;
+    int k;
+    if (closerLowerBoundary) {
+      lower = center - 1L;
+      k = floorLog10ThreeQuartersPow2(q);
+    } else {
+      lower = center - 2L;
+      k = floorLog10Pow2(q);
+    }
+    int excluded = (int) c & 1;
+
+    // the interval scaled by 10^-k, still in units of 1/4
+    int shift = q + floorLog2Pow10(-k) + 2;
+    long scaleHigh = SCALE_HIGH[k - MIN_DECIMAL_EXPONENT];
+    long scaleLow = SCALE_LOW[k - MIN_DECIMAL_EXPONENT];
+    long scaledCenter = multiplyRoundToOdd(scaleHigh, scaleLow, center << shift);
+    long scaledLower = multiplyRoundToOdd(scaleHigh, scaleLow, lower << shift) + excluded;
+    long scaledUpper = multiplyRoundToOdd(scaleHigh, scaleLow, upper << shift) - excluded;
+
+    long down = scaledCenter >> 2;
+    if (down >= 100L) {
+      // try one digit less
+      long downTen = (down / 10L) * 10L;
+      long upTen = downTen + 10L;
+      boolean downTenInside = scaledLower <= (downTen << 2);
+      boolean upTenInside = (upTen << 2) <= scaledUpper;
+      if (downTenInside != upTenInside) {
+        return writeDecimal(downTenInside ? downTen : upTen, k, buffer, index);
+      }
+    }
+    long up = down + 1L;
+    boolean downInside = scaledLower <= (down << 2);
+    boolean upInside = (up << 2) <= scaledUpper;
+    if (downInside != upInside) {
+      return writeDecimal(downInside ? down : up, k, buffer, index);
+    }
+    // both are inside, pick the closer one or the even one for a tie
+    long distance = scaledCenter - ((down + up) << 1);
+    boolean roundDown = (distance < 0L) || ((distance == 0L) && ((down & 1L) == 0L));
+    return writeDecimal(roundDown ? down : up, k, buffer, index);
+  }
+
+  /**
+   * Writes {@code c * 2^q} for a significand that is too small to have
+   * two digits at its decimal exponent. In this case there is always a
+   * decimal with a single digit that rounds to the value so the closest
+   * decimal with two digits is written.
+   *
+   * @param c the significand
+   * @param q the binary exponent
+   * @param buffer the buffer to write to
+   * @param index the index at which to start writing
+   * @return the index after the last byte written
+   */
+  static int writeTiny(long c, int q, byte[] buffer, int index) {
+    int k = floorLog10Pow2(q);
+    int shift = q + floorLog2Pow10(-k) + 2;
+    long scaleHigh = SCALE_HIGH[k - MIN_DECIMAL_EXPONENT];
+    long scaleLow = SCALE_LOW[k - MIN_DECIMAL_EXPONENT];
+    // 10 * c * 2^q * 10^-k in units of 1/4, the decimal exponent is k - 1
+    long scaled = multiplyRoundToOdd(scaleHigh, scaleLow, ((10L * c) << 2) << shift);
+    long down = scaled >> 2;
+    long distance = scaled - ((down << 2) + 2L);
+    boolean roundDown = (distance < 0L) || ((distance == 0L) && ((down & 1L) == 0L));
+    return writeDecimal(roundDown ? down : down + 1L, k - 1, buffer, index);
+  }
+
+  /**
+   * Computes {@code floor(scale * x / 2^127)} with the lowest bit set if
+   * the result is not exact, {@code scale} being
+   * {@code high * 2^63 + low}.
+   */
+  private static long multiplyRoundToOdd(long high, long low, long x) {
+    // scale * x = high * x * 2^63 + low * x, every factor has at most 63 bits
+    long lowProductHigh = multiplyHigh(low, x);
+    long highProductLow = high * x;
+    long highProductHigh = multiplyHigh(high, x);
+    // bits 63 to 126 of scale * x, the sum can not overflow
+    long middle = (highProductLow >>> 1) + lowProductHigh;
+    long result = highProductHigh + (middle >>> 63);
+    boolean inexact = (middle & LOW_63_BITS) != 0L;
+    return inexact ? result | 1L : result;
+  }
+
+  /**
+   * Writes {@code f * 10^e} in the format of {@link Double#toString(double)}.
+   *
+   * @param f the significand, positive
+   * @param e the decimal exponent
+   * @param buffer the buffer to write to
+   * @param index the index at which to start writing
+   * @return the index after the last byte written
+   */
+  static int writeDecimal(long f, int e, byte[] buffer, int index) {
+    long significand = f;
+    int exponent = e;
+    while ((significand % 10L) == 0L) {
+      significand /= 10L;
+      exponent += 1;
+    }
+    int length = digitCount(significand);
+    // the exponent of the first digit
+    int scientificExponent = exponent + length - 1;
+    if ((scientificExponent >= -3) && (scientificExponent < 7)) {
+      return writePlain(significand, length, scientificExponent, buffer, index);
+    }
+    return writeScientific(significand, length, scientificExponent, buffer, index);
+  }
+
+  private static int writePlain(long significand, int length, int scientificExponent, byte[] buffer, int index) {
+    int i = index;
+    if (scientificExponent < 0) {
+      buffer[i++] = '0';
+      buffer[i++] = '.';
+      for (int j = -1; j > scientificExponent; j--) {
+        buffer[i++] = '0';
+      }
+      return writeDigits(significand, length, buffer, i);
+    }
+    int integerLength = scientificExponent + 1;
+    if (length <= integerLength) {
+      i = writeDigits(significand, length, buffer, i);
+      for (int j = length; j < integerLength; j++) {
+        buffer[i++] = '0';
+      }
+      buffer[i++] = '.';
+      buffer[i++] = '0';
+      return i;
+    }
+    long divisor = POWERS_OF_TEN[length - integerLength];
+    i = writeDigits(significand / divisor, integerLength, buffer, i);
+    buffer[i++] = '.';
+    return writeDigits(significand % divisor, length - integerLength, buffer, i);
+  }
+
+  private static int writeScientific(long significand, int length, int scientificExponent, byte[] buffer, int index) {
+    int i = index;
+    long divisor = POWERS_OF_TEN[length - 1];
+    buffer[i++] = (byte) ('0' + (significand / divisor));
+    buffer[i++] = '.';
+    if (length == 1) {
+      buffer[i++] = '0';
+    } else {
+      i = writeDigits(significand % divisor, length - 1, buffer, i);
+    }
+    buffer[i++] = 'E';
+    int exponent = scientificExponent;
+    if (exponent < 0) {
+      buffer[i++] = '-';
+      exponent = -exponent;
+    }
+    if (exponent >= 100) {
+      buffer[i++] = (byte) ('0' + (exponent / 100));
+      exponent %= 100;
+      buffer[i++] = (byte) ('0' + (exponent / 10));
+    } else if (exponent >= 10) {
+      buffer[i++] = (byte) ('0' + (exponent / 10));
+    }
+    buffer[i++] = (byte) ('0' + (exponent % 10));
+    return i;
+  }
+
+  /**
+   * Writes exactly {@code length} digits of {@code value} with leading zeros.
+   */
+  private static int writeDigits(long value, int length, byte[] buffer, int index) {
+    long remaining = value;
+    for (int i = index + length - 1; i >= index; i--) {
+      buffer[i] = (byte) ('0' + (remaining % 10L));
+      remaining /= 10L;
+    }
+    return index + length;
+  }
+
+  private static int digitCount(long value) {
+    int length = 1;
+    while ((length < POWERS_OF_TEN.length) && (value >= POWERS_OF_TEN[length])) {
+      length += 1;
+    }
+    return length;
+  }
+
+  static int writeZero(byte[] buffer, int index) {
+    buffer[index] = '0';
+    buffer[index + 1] = '.';
+    buffer[index + 2] = '0';
+    return index + 3;
+  }
+
+  static int writeInfinity(boolean negative, byte[] buffer, int position) {
+    int index = position;
+    if (negative) {
+      buffer[index++] = '-';
+    }
+    buffer[index++] = 'I';
+    buffer[index++] = 'n';
+    buffer[index++] = 'f';
+    buffer[index++] = 'i';
+    buffer[index++] = 'n';
+    buffer[index++] = 'i';
+    buffer[index++] = 't';
+    buffer[index++] = 'y';
+    return index;
+  }
+
+  static int writeNaN(byte[] buffer, int position) {
+    buffer[position] = 'N';
+    buffer[position + 1] = 'a';
+    buffer[position + 2] = 'N';
+    return position + 3;
+  }
+
+  /**
+   * Computes {@code floor(log10(2^q))}, exact for {@code |q| <= 1100}.
+   */
+  static int floorLog10Pow2(int q) {
+    return (int) ((q * 1_292_913_986L) >> 32);
+  }
+
+  /**
+   * Computes {@code floor(log10(3/4 * 2^q))}, exact for {@code |q| <= 1100}.
+   */
+  static int floorLog10ThreeQuartersPow2(int q) {
+    return (int) (((q * 1_292_913_986L) - 536_607_788L) >> 32);
+  }
+
+  /**
+   * Computes {@code floor(log2(10^e))}, exact for {@code |e| <= 350}.
+   */
+  static int floorLog2Pow10(int e) {
+    return (int) ((e * 14_267_572_527L) >> 32);
+  }
+
+}
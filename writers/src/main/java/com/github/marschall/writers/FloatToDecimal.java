@@ -0,0 +1,79 @@
+package com.github.marschall.writers;
+
+/**
+ * Formats {@code float} values as ASCII into a {@code byte[]} using the
+ * shortest decimal that rounds to the value.
+ * <p>
+ * Uses the implementation of the Schubfach algorithm in
+ * {@link DoubleToDecimal} with the rounding interval of the
+ * {@code float}. The format is the same as {@link Float#toString(float)}
+ * on Java 19+, older versions of Java sometimes produce more digits than
+ * necessary.
+ */
+final class FloatToDecimal {
+
+  /**
+   * The maximum number of bytes needed for a {@code float}, {@code "-1.17549435E-38"}.
+   */
+  static final int MAX_LENGTH = 15;
+
+  /**
+   * The number of significand bits including the hidden bit.
+   */
+  private static final int PRECISION = 24;
+
+  /**
+   * The binary exponent of the smallest subnormal value, {@code 2^-149}.
+   */
+  private static final int MIN_EXPONENT = -149;
+
+  private static final int EXPONENT_MASK = 0xFF;
+
+  private static final int FRACTION_MASK = (1 << (PRECISION - 1)) - 1;
+
+  /**
+   * Subnormal significands below this have less than two digits at the
+   * decimal exponent of {@link #MIN_EXPONENT}.
+   */
+  private static final int TINY_SIGNIFICAND = 8;
+
+  private FloatToDecimal() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Writes the shortest decimal representation of a {@code float}.
+   *
+   * @param v the value to format
+   * @param buffer the buffer to write to, must have space for {@link #MAX_LENGTH} bytes
+   * @param position the index at which to start writing
+   * @return the index after the last byte written
+   */
+  static int write(float v, byte[] buffer, int position) {
+    int bits = Float.floatToRawIntBits(v);
+    int biasedExponent = (bits >>> (PRECISION - 1)) & EXPONENT_MASK;
+    int fraction = bits & FRACTION_MASK;
+    if (biasedExponent == EXPONENT_MASK) {
+      return fraction == 0 ? DoubleToDecimal.writeInfinity(bits < 0, buffer, position) : DoubleToDecimal.writeNaN(buffer, position);
+    }
+    int index = position;
+    if (bits < 0) {
+      buffer[index++] = '-';
+    }
+    if (biasedExponent != 0) {
+      // normal, the lower boundary is closer if the fraction is 0
+      int q = MIN_EXPONENT - 1 + biasedExponent;
+      int c = (1 << (PRECISION - 1)) | fraction;
+      boolean closerLowerBoundary = (fraction == 0) && (biasedExponent > 1);
+      return DoubleToDecimal.writeShortest(c, q, closerLowerBoundary, buffer, index);
+    }
+    if (fraction == 0) {
+      return DoubleToDecimal.writeZero(buffer, index);
+    }
+    if (fraction < TINY_SIGNIFICAND) {
+      return DoubleToDecimal.writeTiny(fraction, MIN_EXPONENT, buffer, index);
+    }
+    return DoubleToDecimal.writeShortest(fraction, MIN_EXPONENT, false, buffer, index);
+  }
+
+}
@@ -0,0 +1,57 @@
+package com.github.marschall.writers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for a writer passing its buffer to the
+ * output stream.
+ * <p>
+ * Only loaded if monitoring is enabled so that the {@code jdk.jfr}
+ * module is not required otherwise.
+ */
+@Name("com.github.marschall.writers.Flush")
+@Label("Writer Flush")
+@Description("A writer has written its buffer to the output stream")
+@Category("Writers")
+@StackTrace(false)
+final class FlushEvent extends Event {
+
+  @Label("Writer Class")
+  Class<?> writerClass;
+
+  @Label("Bytes")
+  @DataAmount
+  int bytes;
+
+  /**
+   * Writes a buffer to an output stream and records the duration.
+   *
+   * @param writerClass the class of the writer
+   * @param out the output stream to write to
+   * @param buffer the buffer to write
+   * @param offset the index of the first byte to write
+   * @param length the number of bytes to write
+   * @throws IOException if an I/O error occurs
+   */
+  static void write(Class<?> writerClass, OutputStream out, byte[] buffer, int offset, int length) throws IOException {
+    FlushEvent event = new FlushEvent();
+    event.begin();
+    out.write(buffer, offset, length);
+    event.end();
+    if (event.shouldCommit()) {
+      event.writerClass = writerClass;
+      event.bytes = length;
+      event.commit();
+    }
+  }
+
+}
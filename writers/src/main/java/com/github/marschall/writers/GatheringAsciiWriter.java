@@ -0,0 +1,368 @@
+package com.github.marschall.writers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.Selector;
+import java.util.Objects;
+
+
+/**
+ * A writer that encodes to ASCII into a {@link ByteBuffer} and writes it
+ * together with already encoded buffers to a {@link GatheringByteChannel}.
+ * <p>
+ * Characters are encoded into a direct buffer. Already encoded content
+ * passed to {@link #write(ByteBuffer)} is not copied but kept as a
+ * separate segment. All segments are written with a single call to
+ * {@link GatheringByteChannel#write(ByteBuffer[], int, int)} when the
+ * encode buffer or the segment array is full or on {@link #flush()}.
+ * Buffers smaller than 256 bytes are copied into the encode buffer instead
+ * as this is cheaper than an additional segment.
+ * <p>
+ * For non-ASCII characters {@code '?'} will be written instead just
+ * like {@link OutputStreamWriter} does.
+ * <p>
+ * Partial writes are supported. {@link #flush()} and {@link #close()}
+ * only return once all bytes have been written. If writing to the
+ * channel fails the segments that have not been fully written are kept
+ * and written again the next time the segments are written.
+ * <p>
+ * With a non-blocking channel the caller still blocks whenever the
+ * segments have to be written and the channel does not accept any
+ * bytes. For a non-blocking {@link SelectableChannel} the caller waits
+ * on a {@link Selector} until the channel becomes writable. Other
+ * channels are retried after a short pause that grows up to 10
+ * milliseconds. If the caller is interrupted while waiting an
+ * {@link InterruptedIOException} is thrown, the segments not yet
+ * written are kept.
+ *
+ * @implNote This class is <b>not</b> thread-safe.
+ * @implNote This writer does not allocate any objects, beyond
+ *           a direct {@link ByteBuffer} for buffering and a view of it
+ *           for every segment allocated in the constructor, or call
+ *           methods that allocate objects. The only exception is a
+ *           {@link Selector} opened the first time a non-blocking
+ *           {@link SelectableChannel} does not accept any bytes.
+ */
+public final class GatheringAsciiWriter extends Writer {
+
+  /**
+   * Buffers with fewer bytes than this are copied instead of being
+   * written as a separate segment.
+   */
+  static final int COPY_THRESHOLD = 256;
+
+  private final GatheringByteChannel channel;
+
+  private final ChannelBackoff backoff;
+
+  private final ByteBuffer buffer;
+
+  /**
+   * The segments to write, views of {@link #buffer} and caller provided
+   * buffers.
+   */
+  private final ByteBuffer[] segments;
+
+  /**
+   * A view of {@link #buffer} for every element of {@link #segments} so
+   * that parts of the buffer can be added as a segment without allocating.
+   */
+  private final ByteBuffer[] views;
+
+  private int segmentCount;
+
+  /**
+   * The index of the first element of {@link #segments} that has not
+   * been fully written, only different from 0 after writing to the
+   * channel failed.
+   */
+  private int segmentOffset;
+
+  /**
+   * The position in {@link #buffer} where the bytes start that have not
+   * yet been added as a segment.
+   */
+  private int segmentStart;
+
+  private boolean closed;
+
+  /**
+   * Constructs a new {@link GatheringAsciiWriter}.
+   *
+   * @param channel the channel to write to, not {@code null}
+   * @param bufferSize the size of the encode buffer in bytes, must be positive
+   * @param maxSegments the maximum number of segments written at once,
+   *                    must be at least 2
+   * @throws NullPointerException when {@code channel} is {@code null}
+   * @throws IllegalArgumentException if {@code bufferSize} is negative or 0
+   *                                  or {@code maxSegments} is less than 2
+   */
+  public GatheringAsciiWriter(GatheringByteChannel channel, int bufferSize, int maxSegments) {
+    Objects.requireNonNull(channel, "channel");
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("buffer size must be positive");
+    }
+    if (maxSegments < 2) {
+      throw new IllegalArgumentException("segment count must be at least 2");
+    }
+    this.channel = channel;
+    this.backoff = new ChannelBackoff(channel);
+    this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    this.segments = new ByteBuffer[maxSegments];
+    this.views = new ByteBuffer[maxSegments];
+    for (int i = 0; i < maxSegments; i++) {
+      this.views[i] = this.buffer.duplicate();
+    }
+    this.segmentCount = 0;
+    this.segmentOffset = 0;
+    this.segmentStart = 0;
+    this.closed = false;
+  }
+
+  /**
+   * Constructs a new {@link GatheringAsciiWriter} with a default buffer
+   * size of 8192 and at most 16 segments.
+   *
+   * @param channel the channel to write to, not {@code null}
+   * @throws NullPointerException when {@code channel} is {@code null}
+   */
+  public GatheringAsciiWriter(GatheringByteChannel channel) {
+    this(channel, 8192, 16);
+  }
+
+  private void closedCheck() throws IOException {
+    if (this.closed) {
+      throw new IOException("closed writer");
+    }
+  }
+
+  private boolean ensureCapacity(int capacity) throws IOException {
+    if (capacity > this.buffer.remaining()) {
+      this.writeSegments();
+    }
+    return capacity <= this.buffer.capacity();
+  }
+
+  /**
+   * Writes already encoded bytes.
+   * <p>
+   * Unless the buffer is small it is not copied but written as a separate
+   * segment. In this case its content must not be modified until it has
+   * been written, at the latest when {@link #flush()} returns. Its position
+   * is advanced when it is written. Direct buffers avoid an additional copy
+   * in the channel implementations of the JDK.
+   *
+   * @param src the bytes to write, from the position to the limit, not
+   *            {@code null}, should only contain ASCII
+   * @throws IOException if this writer is closed or writing to the channel fails
+   */
+  public void write(ByteBuffer src) throws IOException {
+    this.closedCheck();
+    int length = src.remaining();
+    if ((length < COPY_THRESHOLD) && this.ensureCapacity(length)) {
+      this.buffer.put(src);
+      return;
+    }
+    if ((this.segmentCount + 2) > this.segments.length) {
+      this.writeSegments();
+    }
+    this.addBufferSegment();
+    this.segments[this.segmentCount++] = src;
+    if (this.segmentCount == this.segments.length) {
+      // make sure there is always room for the encode buffer
+      this.writeSegments();
+    }
+  }
+
+  /**
+   * Adds the bytes encoded since the last segment as a segment.
+   */
+  private void addBufferSegment() {
+    int position = this.buffer.position();
+    if (position > this.segmentStart) {
+      ByteBuffer view = this.views[this.segmentCount];
+      view.clear();
+      view.position(this.segmentStart);
+      view.limit(position);
+      this.segments[this.segmentCount++] = view;
+      this.segmentStart = position;
+    }
+  }
+
+  /**
+   * Writes all segments to the channel with as few calls as possible.
+   * <p>
+   * The encode buffer is only cleared once everything has been written.
+   *
+   * @throws IOException if writing to the channel fails
+   */
+  private void writeSegments() throws IOException {
+    if (this.segmentCount == this.segments.length) {
+      // writing failed before there was room for the encode buffer
+      this.writePendingSegments();
+    }
+    this.addBufferSegment();
+    this.writePendingSegments();
+    this.segmentStart = 0;
+    this.buffer.clear();
+  }
+
+  /**
+   * Writes the segments that have not yet been written and removes
+   * every segment once it has been fully written.
+   *
+   * @throws IOException if writing to the channel fails
+   */
+  private void writePendingSegments() throws IOException {
+    int attempts = 0;
+    while (this.segmentOffset < this.segmentCount) {
+      long written = this.channel.write(this.segments, this.segmentOffset, this.segmentCount - this.segmentOffset);
+      if (written == 0L) {
+        // non-blocking channel that is not ready
+        attempts += 1;
+        this.backoff.await(attempts);
+      } else {
+        attempts = 0;
+      }
+      while ((this.segmentOffset < this.segmentCount) && !this.segments[this.segmentOffset].hasRemaining()) {
+        // do not keep references to caller provided buffers
+        this.segments[this.segmentOffset] = null;
+        this.segmentOffset += 1;
+      }
+    }
+    this.segmentCount = 0;
+    this.segmentOffset = 0;
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    this.closedCheck();
+    this.ensureCapacity(1);
+    if (Repertoires.fitsInAscii(c)) {
+      this.buffer.put((byte) c);
+    } else {
+      this.buffer.put((byte) '?');
+    }
+  }
+
+  @Override
+  public void write(char[] cbuf, int offset, int length) throws IOException {
+    this.closedCheck();
+    Objects.checkFromIndexSize(offset, length, cbuf.length);
+    if (this.ensureCapacity(length)) {
+      AsciiEncoder.encode(cbuf, offset, this.buffer, length);
+    } else {
+      this.writeSegmented(cbuf, offset, length);
+    }
+  }
+
+  @Override
+  public void write(String str, int offset, int length) throws IOException {
+    this.closedCheck();
+    Objects.checkFromIndexSize(offset, length, str.length());
+    if (this.ensureCapacity(length)) {
+      AsciiEncoder.encode(str, offset, this.buffer, length);
+    } else {
+      this.writeSegmentedOffsetLenth(str, offset, length);
+    }
+  }
+
+  @Override
+  public Writer append(CharSequence csq) throws IOException {
+    if (csq instanceof String) {
+      this.write((String) csq);
+      return this;
+    }
+    if (csq == null) {
+      return this.append("null", 0, 4);
+    } else {
+      return this.append(csq, 0, csq.length());
+    }
+  }
+
+  @Override
+  public Writer append(CharSequence csq, int start, int end) throws IOException {
+    if (csq instanceof String) {
+      this.write((String) csq, start, end - start);
+      return this;
+    }
+    CharSequence charSequence = csq != null ? csq : "null";
+    this.closedCheck();
+    Objects.checkFromToIndex(start, end, charSequence.length());
+    if (this.ensureCapacity(end - start)) {
+      AsciiEncoder.encode(charSequence, start, this.buffer, end - start);
+    } else {
+      this.writeSegmentedStartEnd(charSequence, start, end);
+    }
+    return this;
+  }
+
+  @Override
+  public Writer append(char c) throws IOException {
+    this.write(c);
+    return this;
+  }
+
+  private void writeSegmentedStartEnd(CharSequence csq, int initialStart, int end) throws IOException {
+    int currentStart = initialStart;
+    while (currentStart < end) {
+      int length = Math.min(this.buffer.capacity(), end - currentStart);
+      this.append(csq, currentStart, currentStart + length);
+      currentStart += length;
+    }
+  }
+
+  private void writeSegmentedOffsetLenth(String s, int offset, int totalLength) throws IOException {
+    int written = 0;
+    while (written < totalLength) {
+      int length = Math.min(this.buffer.capacity(), totalLength - written);
+      this.write(s, offset + written, length);
+      written += length;
+    }
+  }
+
+  private void writeSegmented(char[] cbuf, int offset, int totalLength) throws IOException {
+    int written = 0;
+    while (written < totalLength) {
+      int length = Math.min(this.buffer.capacity(), totalLength - written);
+      this.write(cbuf, offset + written, length);
+      written += length;
+    }
+  }
+
+  /**
+   * Writes all buffered bytes and segments to the channel.
+   * <p>
+   * This does not force any updates to storage, use
+   * {@link java.nio.channels.FileChannel#force(boolean)} for this.
+   *
+   * @throws IOException if this writer is closed or writing to the channel fails
+   */
+  @Override
+  public void flush() throws IOException {
+    this.closedCheck();
+    this.writeSegments();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if (!this.closed) {
+        this.writeSegments();
+      }
+    } finally {
+      this.closed = true;
+      try {
+        this.channel.close();
+      } finally {
+        this.backoff.close();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,305 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+
+/**
+ * A writer that escapes everything written to it for use in HTML or XML
+ * text and attribute values and writes the result to a
+ * {@link BufferedAsciiOutputStreamWriter}.
+ * <p>
+ * {@code '&'}, {@code '<'}, {@code '>'}, {@code '"'} and {@code '\''}
+ * are replaced with {@code &amp;}, {@code &lt;}, {@code &gt;},
+ * {@code &quot;} and {@code &#39;}. Non-ASCII characters are written as
+ * decimal character references like {@code &#233;} so that the output is
+ * pure ASCII. Everything else is copied unchanged.
+ * <p>
+ * A high surrogate at the end of a write is kept until the next write so
+ * that surrogate pairs can be split across calls. Unpaired surrogates are
+ * written as a reference to the replacement character {@code &#65533;}
+ * like {@link UnmappablePolicy#ESCAPE_XML} does.
+ * <pre><code>
+ * BufferedAsciiOutputStreamWriter out = new BufferedAsciiOutputStreamWriter(stream);
+ * HtmlEscapingWriter html = new HtmlEscapingWriter(out);
+ * out.write("&lt;p title=\"");
+ * html.write(title);
+ * out.write("\"&gt;");
+ * html.write(text);
+ * out.write("&lt;/p&gt;");
+ * </code></pre>
+ *
+ * @implNote This class is <b>not</b> thread-safe.
+ * @implNote This writer does not allocate any objects, beyond a small
+ *           {@code byte[]} allocated in the constructor, or call methods
+ *           that allocate objects.
+ */
+public final class HtmlEscapingWriter extends Writer {
+
+  /**
+   * The longest character reference, {@code &#1114111;}.
+   */
+  private static final int MAX_REFERENCE_LENGTH = 10;
+
+  /**
+   * The most bytes written for a single character, the replacement for a
+   * preceding unpaired high surrogate followed by a character reference.
+   */
+  private static final int MAX_ESCAPE_LENGTH = 2 * MAX_REFERENCE_LENGTH;
+
+  private static final char NO_HIGH_SURROGATE = 0;
+
+  /**
+   * The {@link AsciiEscaping} flags, set for the characters with an entity reference.
+   */
+  private static final char[] ESCAPE_FLAGS = new char[128];
+
+  /**
+   * The entity reference for ASCII characters that have to be escaped,
+   * {@code null} for all others.
+   */
+  private static final byte[][] ESCAPES = new byte[128][];
+
+  static {
+    ESCAPES['&'] = "&amp;".getBytes(US_ASCII);
+    ESCAPES['<'] = "&lt;".getBytes(US_ASCII);
+    ESCAPES['>'] = "&gt;".getBytes(US_ASCII);
+    ESCAPES['"'] = "&quot;".getBytes(US_ASCII);
+    ESCAPES['\''] = "&#39;".getBytes(US_ASCII);
+    for (int i = 0; i < ESCAPES.length; i++) {
+      if (ESCAPES[i] != null) {
+        ESCAPE_FLAGS[i] = 0x80;
+      }
+    }
+  }
+
+  private final BufferedAsciiOutputStreamWriter out;
+
+  private final byte[] escape;
+
+  /**
+   * A high surrogate from a previous write waiting for its low surrogate
+   * or {@link #NO_HIGH_SURROGATE}.
+   */
+  private char highSurrogate;
+
+  /**
+   * Constructs a new {@link HtmlEscapingWriter}.
+   *
+   * @param out the writer to write the escaped output to, not {@code null}
+   * @throws NullPointerException when {@code out} is {@code null}
+   */
+  public HtmlEscapingWriter(BufferedAsciiOutputStreamWriter out) {
+    Objects.requireNonNull(out, "out");
+    this.out = out;
+    this.escape = new byte[MAX_ESCAPE_LENGTH];
+    this.highSurrogate = NO_HIGH_SURROGATE;
+  }
+
+  private static boolean isSafe(char c) {
+    return AsciiEscaping.isSafe(c, ESCAPE_FLAGS);
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    char ch = (char) c;
+    if ((this.highSurrogate == NO_HIGH_SURROGATE) && isSafe(ch)) {
+      this.out.write(ch);
+    } else {
+      this.writeEscape(ch);
+    }
+  }
+
+  @Override
+  public void write(char[] cbuf, int offset, int length) throws IOException {
+    Objects.checkFromIndexSize(offset, length, cbuf.length);
+    this.writeEscaped(cbuf, offset, offset + length);
+  }
+
+  @Override
+  public void write(String str, int offset, int length) throws IOException {
+    Objects.checkFromIndexSize(offset, length, str.length());
+    this.writeEscaped(str, offset, offset + length);
+  }
+
+  @Override
+  public Writer append(CharSequence csq) throws IOException {
+    if (csq == null) {
+      return this.append("null", 0, 4);
+    } else {
+      return this.append(csq, 0, csq.length());
+    }
+  }
+
+  @Override
+  public Writer append(CharSequence csq, int start, int end) throws IOException {
+    CharSequence charSequence = csq != null ? csq : "null";
+    Objects.checkFromToIndex(start, end, charSequence.length());
+    this.writeEscaped(charSequence, start, end);
+    return this;
+  }
+
+  @Override
+  public Writer append(char c) throws IOException {
+    this.write(c);
+    return this;
+  }
+
+  // See AsciiEscaping for how safe characters are copied.
+
+  private void writeEscaped(CharSequence csq, int start, int end) throws IOException {
+    if (!this.out.reserve(end - start) || (this.highSurrogate != NO_HIGH_SURROGATE)) {
+      this.writeEscapedSlow(csq, start, end);
+      return;
+    }
+    int position = this.out.position();
+    int safeEnd = AsciiEscaping.copySafeBlocks(csq, start, end, ESCAPE_FLAGS, this.out.buffer(), position);
+    // the characters before the block that needs escaping are already written
+    this.out.position(position + safeEnd - start);
+    if (safeEnd < end) {
+      this.writeEscapedSlow(csq, safeEnd, end);
+    }
+  }
+
+  private void writeEscapedSlow(CharSequence csq, int start, int end) throws IOException {
+    byte[] buffer = this.out.buffer();
+    int position = this.out.position();
+    int i = start;
+    while (i < end) {
+      if (this.highSurrogate == NO_HIGH_SURROGATE) {
+        int runEnd = i + Math.min(end - i, buffer.length - position);
+        int safeEnd = AsciiEscaping.copySafeRun(csq, i, runEnd, ESCAPE_FLAGS, buffer, position);
+        position += safeEnd - i;
+        i = safeEnd;
+        if (i == end) {
+          break;
+        }
+      }
+      // the buffer is full, the current character needs escaping or
+      // completes a surrogate pair
+      if ((buffer.length - position) < MAX_ESCAPE_LENGTH) {
+        this.out.position(position);
+        this.writeEscape(csq.charAt(i));
+        position = this.out.position();
+      } else {
+        position = this.writeEscape(csq.charAt(i), buffer, position);
+      }
+      i += 1;
+    }
+    this.out.position(position);
+  }
+
+  private void writeEscaped(char[] cbuf, int start, int end) throws IOException {
+    if (!this.out.reserve(end - start) || (this.highSurrogate != NO_HIGH_SURROGATE)) {
+      this.writeEscapedSlow(cbuf, start, end);
+      return;
+    }
+    int position = this.out.position();
+    int safeEnd = AsciiEscaping.copySafeBlocks(cbuf, start, end, ESCAPE_FLAGS, this.out.buffer(), position);
+    // the characters before the block that needs escaping are already written
+    this.out.position(position + safeEnd - start);
+    if (safeEnd < end) {
+      this.writeEscapedSlow(cbuf, safeEnd, end);
+    }
+  }
+
+  private void writeEscapedSlow(char[] cbuf, int start, int end) throws IOException {
+    byte[] buffer = this.out.buffer();
+    int position = this.out.position();
+    int i = start;
+    while (i < end) {
+      if (this.highSurrogate == NO_HIGH_SURROGATE) {
+        int runEnd = i + Math.min(end - i, buffer.length - position);
+        int safeEnd = AsciiEscaping.copySafeRun(cbuf, i, runEnd, ESCAPE_FLAGS, buffer, position);
+        position += safeEnd - i;
+        i = safeEnd;
+        if (i == end) {
+          break;
+        }
+      }
+      // the buffer is full, the current character needs escaping or
+      // completes a surrogate pair
+      if ((buffer.length - position) < MAX_ESCAPE_LENGTH) {
+        this.out.position(position);
+        this.writeEscape(cbuf[i]);
+        position = this.out.position();
+      } else {
+        position = this.writeEscape(cbuf[i], buffer, position);
+      }
+      i += 1;
+    }
+    this.out.position(position);
+  }
+
+  /**
+   * Writes a character, escaped if necessary, into a buffer.
+   *
+   * @param c the character to write
+   * @param buffer the buffer to write to, must have space for
+   *               {@link #MAX_ESCAPE_LENGTH} bytes
+   * @param initialPosition the index at which to start writing
+   * @return the index after the last byte written
+   */
+  private int writeEscape(char c, byte[] buffer, int initialPosition) throws IOException {
+    int position = initialPosition;
+    if (this.highSurrogate != NO_HIGH_SURROGATE) {
+      char high = this.highSurrogate;
+      this.highSurrogate = NO_HIGH_SURROGATE;
+      if (Character.isLowSurrogate(c)) {
+        return position + UnmappablePolicy.ESCAPE_XML.encode(Character.toCodePoint(high, c), buffer, position);
+      }
+      // unpaired high surrogate
+      position += UnmappablePolicy.ESCAPE_XML.encode(high, buffer, position);
+    }
+    if (Repertoires.fitsInAscii(c)) {
+      byte[] reference = ESCAPES[c];
+      if (reference == null) {
+        buffer[position] = (byte) c;
+        return position + 1;
+      }
+      System.arraycopy(reference, 0, buffer, position, reference.length);
+      return position + reference.length;
+    } else if (Character.isHighSurrogate(c)) {
+      this.highSurrogate = c;
+      return position;
+    } else {
+      // includes unpaired low surrogates
+      return position + UnmappablePolicy.ESCAPE_XML.encode(c, buffer, position);
+    }
+  }
+
+  private void writeEscape(char c) throws IOException {
+    int length = this.writeEscape(c, this.escape, 0);
+    this.out.writeAsciiBytes(this.escape, 0, length);
+  }
+
+  /**
+   * Flushes the underlying writer.
+   * <p>
+   * A trailing high surrogate is kept as it may be completed by the next write.
+   *
+   * @throws IOException if an I/O error occurs
+   */
+  @Override
+  public void flush() throws IOException {
+    this.out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if (this.highSurrogate != NO_HIGH_SURROGATE) {
+        // unpaired high surrogate at the end of input
+        char high = this.highSurrogate;
+        this.highSurrogate = NO_HIGH_SURROGATE;
+        int length = UnmappablePolicy.ESCAPE_XML.encode(high, this.escape, 0);
+        this.out.writeAsciiBytes(this.escape, 0, length);
+      }
+    } finally {
+      this.out.close();
+    }
+  }
+
+}
@@ -0,0 +1,156 @@
+package com.github.marschall.writers;
+
+/**
+ * Formats {@code int} and {@code long} values as ASCII decimal digits
+ * into a {@code byte[]}.
+ * <p>
+ * The output is the same as {@link Integer#toString(int)} and
+ * {@link Long#toString(long)}.
+ */
+final class IntegerToDecimal {
+
+  /**
+   * The maximum number of bytes needed for an {@code int}, {@code "-2147483648"}.
+   */
+  static final int MAX_INT_LENGTH = 11;
+
+  /**
+   * The maximum number of bytes needed for a {@code long}, {@code "-9223372036854775808"}.
+   */
+  static final int MAX_LONG_LENGTH = 20;
+
+  private static final byte[] DIGIT_TENS = new byte[100];
+
+  private static final byte[] DIGIT_ONES = new byte[100];
+
+  static {
+    for (int i = 0; i < 100; i++) {
+      DIGIT_TENS[i] = (byte) ('0' + (i / 10));
+      DIGIT_ONES[i] = (byte) ('0' + (i % 10));
+    }
+  }
+
+  private IntegerToDecimal() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Writes the decimal digits of an {@code int}.
+   *
+   * @param i the value to format
+   * @param buffer the buffer to write to, must have space for {@link #MAX_INT_LENGTH} bytes
+   * @param position the index at which to start writing
+   * @return the index after the last byte written
+   */
+  static int writeInt(int i, byte[] buffer, int position) {
+    int length = stringSize(i);
+    int end = position + length;
+    int charPos = end;
+    // work with negative values so that MIN_VALUE does not need to be special cased
+    int value = i;
+    boolean negative = value < 0;
+    if (!negative) {
+      value = -value;
+    }
+    while (value <= -100) {
+      int q = value / 100;
+      int r = (q * 100) - value;
+      value = q;
+      buffer[--charPos] = DIGIT_ONES[r];
+      buffer[--charPos] = DIGIT_TENS[r];
+    }
+    if (value <= -10) {
+      buffer[--charPos] = DIGIT_ONES[-value];
+      buffer[--charPos] = DIGIT_TENS[-value];
+    } else {
+      buffer[--charPos] = (byte) ('0' - value);
+    }
+    if (negative) {
+      buffer[--charPos] = '-';
+    }
+    return end;
+  }
+
+  /**
+   * Writes the decimal digits of a {@code long}.
+   *
+   * @param l the value to format
+   * @param buffer the buffer to write to, must have space for {@link #MAX_LONG_LENGTH} bytes
+   * @param position the index at which to start writing
+   * @return the index after the last byte written
+   */
+  static int writeLong(long l, byte[] buffer, int position) {
+    if ((l >= Integer.MIN_VALUE) && (l <= Integer.MAX_VALUE)) {
+      return writeInt((int) l, buffer, position);
+    }
+    int length = stringSize(l);
+    int end = position + length;
+    int charPos = end;
+    // work with negative values so that MIN_VALUE does not need to be special cased
+    long value = l;
+    boolean negative = value < 0L;
+    if (!negative) {
+      value = -value;
+    }
+    while (value <= Integer.MIN_VALUE) {
+      long q = value / 100L;
+      int r = (int) ((q * 100L) - value);
+      value = q;
+      buffer[--charPos] = DIGIT_ONES[r];
+      buffer[--charPos] = DIGIT_TENS[r];
+    }
+    int smallValue = (int) value;
+    while (smallValue <= -100) {
+      int q = smallValue / 100;
+      int r = (q * 100) - smallValue;
+      smallValue = q;
+      buffer[--charPos] = DIGIT_ONES[r];
+      buffer[--charPos] = DIGIT_TENS[r];
+    }
+    if (smallValue <= -10) {
+      buffer[--charPos] = DIGIT_ONES[-smallValue];
+      buffer[--charPos] = DIGIT_TENS[-smallValue];
+    } else {
+      buffer[--charPos] = (byte) ('0' - smallValue);
+    }
+    if (negative) {
+      buffer[--charPos] = '-';
+    }
+    return end;
+  }
+
+  static int stringSize(int i) {
+    int d = 1;
+    int x = i;
+    if (x >= 0) {
+      d = 0;
+      x = -x;
+    }
+    int p = -10;
+    for (int j = 1; j < 10; j++) {
+      if (x > p) {
+        return j + d;
+      }
+      p = 10 * p;
+    }
+    return 10 + d;
+  }
+
+  static int stringSize(long l) {
+    int d = 1;
+    long x = l;
+    if (x >= 0L) {
+      d = 0;
+      x = -x;
+    }
+    long p = -10L;
+    for (int j = 1; j < 19; j++) {
+      if (x > p) {
+        return j + d;
+      }
+      p = 10L * p;
+    }
+    return 19 + d;
+  }
+
+}
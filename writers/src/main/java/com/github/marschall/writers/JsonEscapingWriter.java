@@ -0,0 +1,273 @@
+package com.github.marschall.writers;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+
+/**
+ * A writer that escapes everything written to it for use in a JSON string
+ * and writes the result to a {@link BufferedAsciiOutputStreamWriter}.
+ * <p>
+ * Quotation marks, reverse solidi and control characters are escaped as
+ * required by RFC 8259, non-ASCII characters are escaped as
+ * <code>&#92;uXXXX</code> so that the output is pure ASCII. Everything
+ * else is copied unchanged.
+ * <p>
+ * The structure of the document is written directly to the underlying
+ * {@link BufferedAsciiOutputStreamWriter}, only the contents of strings
+ * are written to this writer.
+ * <pre><code>
+ * BufferedAsciiOutputStreamWriter out = new BufferedAsciiOutputStreamWriter(stream);
+ * JsonEscapingWriter json = new JsonEscapingWriter(out);
+ * out.write("{\"name\":");
+ * json.writeString(name);
+ * out.write('}');
+ * </code></pre>
+ *
+ * @implNote This class is <b>not</b> thread-safe.
+ * @implNote This writer does not allocate any objects, beyond a small
+ *           {@code byte[]} allocated in the constructor, or call methods
+ *           that allocate objects.
+ */
+public final class JsonEscapingWriter extends Writer {
+
+  /**
+   * The longest escape sequence, <code>&#92;uXXXX</code>.
+   */
+  private static final int MAX_ESCAPE_LENGTH = 6;
+
+  /**
+   * The {@link AsciiEscaping} flags, set for control characters, quotes and backslashes.
+   */
+  private static final char[] ESCAPE_FLAGS = new char[128];
+
+  /**
+   * The character of the short escape sequence, {@code 'u'} if there is
+   * none.
+   */
+  private static final byte[] SHORT_ESCAPES = new byte[128];
+
+  private static final byte[] HEX_DIGITS = {
+    '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'
+  };
+
+  static {
+    for (int i = 0; i < 0x20; i++) {
+      ESCAPE_FLAGS[i] = 0x80;
+      SHORT_ESCAPES[i] = 'u';
+    }
+    ESCAPE_FLAGS['"'] = 0x80;
+    ESCAPE_FLAGS['\\'] = 0x80;
+    SHORT_ESCAPES['"'] = '"';
+    SHORT_ESCAPES['\\'] = '\\';
+    SHORT_ESCAPES['\b'] = 'b';
+    SHORT_ESCAPES['\f'] = 'f';
+    SHORT_ESCAPES['\n'] = 'n';
+    SHORT_ESCAPES['\r'] = 'r';
+    SHORT_ESCAPES['\t'] = 't';
+  }
+
+  private final BufferedAsciiOutputStreamWriter out;
+
+  private final byte[] escape;
+
+  /**
+   * Constructs a new {@link JsonEscapingWriter}.
+   *
+   * @param out the writer to write the escaped output to, not {@code null}
+   * @throws NullPointerException when {@code out} is {@code null}
+   */
+  public JsonEscapingWriter(BufferedAsciiOutputStreamWriter out) {
+    Objects.requireNonNull(out, "out");
+    this.out = out;
+    this.escape = new byte[MAX_ESCAPE_LENGTH];
+  }
+
+  private static boolean isSafe(char c) {
+    return AsciiEscaping.isSafe(c, ESCAPE_FLAGS);
+  }
+
+  /**
+   * Writes a JSON string including the quotation marks.
+   * <p>
+   * {@code null} is written as the JSON literal {@code null}.
+   *
+   * @param csq the string to write, may be {@code null}
+   * @throws IOException if an I/O error occurs
+   */
+  public void writeString(CharSequence csq) throws IOException {
+    if (csq == null) {
+      this.out.write("null", 0, 4);
+      return;
+    }
+    this.out.write('"');
+    this.append(csq);
+    this.out.write('"');
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    char ch = (char) c;
+    if (isSafe(ch)) {
+      this.out.write(ch);
+    } else {
+      this.writeEscape(ch);
+    }
+  }
+
+  @Override
+  public void write(char[] cbuf, int offset, int length) throws IOException {
+    Objects.checkFromIndexSize(offset, length, cbuf.length);
+    this.writeEscaped(cbuf, offset, offset + length);
+  }
+
+  @Override
+  public void write(String str, int offset, int length) throws IOException {
+    Objects.checkFromIndexSize(offset, length, str.length());
+    this.writeEscaped(str, offset, offset + length);
+  }
+
+  @Override
+  public Writer append(CharSequence csq) throws IOException {
+    if (csq == null) {
+      return this.append("null", 0, 4);
+    } else {
+      return this.append(csq, 0, csq.length());
+    }
+  }
+
+  @Override
+  public Writer append(CharSequence csq, int start, int end) throws IOException {
+    CharSequence charSequence = csq != null ? csq : "null";
+    Objects.checkFromToIndex(start, end, charSequence.length());
+    this.writeEscaped(charSequence, start, end);
+    return this;
+  }
+
+  @Override
+  public Writer append(char c) throws IOException {
+    this.write(c);
+    return this;
+  }
+
+  // See AsciiEscaping for how safe characters are copied.
+
+  private void writeEscaped(CharSequence csq, int start, int end) throws IOException {
+    if (!this.out.reserve(end - start)) {
+      // larger than the buffer
+      this.writeEscapedSlow(csq, start, end);
+      return;
+    }
+    int position = this.out.position();
+    int safeEnd = AsciiEscaping.copySafeBlocks(csq, start, end, ESCAPE_FLAGS, this.out.buffer(), position);
+    // the characters before the block that needs escaping are already written
+    this.out.position(position + safeEnd - start);
+    if (safeEnd < end) {
+      this.writeEscapedSlow(csq, safeEnd, end);
+    }
+  }
+
+  private void writeEscapedSlow(CharSequence csq, int start, int end) throws IOException {
+    byte[] buffer = this.out.buffer();
+    int position = this.out.position();
+    int i = start;
+    while (i < end) {
+      int runEnd = i + Math.min(end - i, buffer.length - position);
+      int safeEnd = AsciiEscaping.copySafeRun(csq, i, runEnd, ESCAPE_FLAGS, buffer, position);
+      position += safeEnd - i;
+      i = safeEnd;
+      if (i == end) {
+        break;
+      }
+      // the buffer is full or the current character needs escaping
+      if ((buffer.length - position) < MAX_ESCAPE_LENGTH) {
+        this.out.position(position);
+        this.write(csq.charAt(i));
+        position = this.out.position();
+      } else {
+        position = writeEscape(csq.charAt(i), buffer, position);
+      }
+      i += 1;
+    }
+    this.out.position(position);
+  }
+
+  private void writeEscaped(char[] cbuf, int start, int end) throws IOException {
+    if (!this.out.reserve(end - start)) {
+      // larger than the buffer
+      this.writeEscapedSlow(cbuf, start, end);
+      return;
+    }
+    int position = this.out.position();
+    int safeEnd = AsciiEscaping.copySafeBlocks(cbuf, start, end, ESCAPE_FLAGS, this.out.buffer(), position);
+    // the characters before the block that needs escaping are already written
+    this.out.position(position + safeEnd - start);
+    if (safeEnd < end) {
+      this.writeEscapedSlow(cbuf, safeEnd, end);
+    }
+  }
+
+  private void writeEscapedSlow(char[] cbuf, int start, int end) throws IOException {
+    byte[] buffer = this.out.buffer();
+    int position = this.out.position();
+    int i = start;
+    while (i < end) {
+      int runEnd = i + Math.min(end - i, buffer.length - position);
+      int safeEnd = AsciiEscaping.copySafeRun(cbuf, i, runEnd, ESCAPE_FLAGS, buffer, position);
+      position += safeEnd - i;
+      i = safeEnd;
+      if (i == end) {
+        break;
+      }
+      // the buffer is full or the current character needs escaping
+      if ((buffer.length - position) < MAX_ESCAPE_LENGTH) {
+        this.out.position(position);
+        this.write(cbuf[i]);
+        position = this.out.position();
+      } else {
+        position = writeEscape(cbuf[i], buffer, position);
+      }
+      i += 1;
+    }
+    this.out.position(position);
+  }
+
+  /**
+   * Writes the escape sequence of a character into a buffer.
+   *
+   * @param c the character to escape
+   * @param buffer the buffer to write to, must have space for
+   *               {@link #MAX_ESCAPE_LENGTH} bytes
+   * @param position the index at which to start writing
+   * @return the index after the last byte written
+   */
+  private static int writeEscape(char c, byte[] buffer, int position) {
+    buffer[position] = '\\';
+    if (Repertoires.fitsInAscii(c) && (SHORT_ESCAPES[c] != 'u')) {
+      buffer[position + 1] = SHORT_ESCAPES[c];
+      return position + 2;
+    }
+    buffer[position + 1] = 'u';
+    buffer[position + 2] = HEX_DIGITS[(c >> 12) & 0xF];
+    buffer[position + 3] = HEX_DIGITS[(c >> 8) & 0xF];
+    buffer[position + 4] = HEX_DIGITS[(c >> 4) & 0xF];
+    buffer[position + 5] = HEX_DIGITS[c & 0xF];
+    return position + MAX_ESCAPE_LENGTH;
+  }
+
+  private void writeEscape(char c) throws IOException {
+    int length = writeEscape(c, this.escape, 0);
+    this.out.writeAsciiBytes(this.escape, 0, length);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    this.out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.out.close();
+  }
+
+}
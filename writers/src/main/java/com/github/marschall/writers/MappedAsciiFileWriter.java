@@ -0,0 +1,246 @@
+package com.github.marschall.writers;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.util.Objects;
+
+
+/**
+ * A writer that encodes to ASCII directly into a memory mapped file.
+ * <p>
+ * The file is mapped in windows of a fixed size, when a window is full
+ * the next region of the file is mapped. This avoids a system call and
+ * a copy for every buffer that is written. As the file grows in
+ * increments of the window size it is truncated to the number of bytes
+ * written when the writer is closed.
+ * <p>
+ * For non-ASCII characters {@code '?'} will be written instead just
+ * like {@link OutputStreamWriter} does.
+ * <p>
+ * Data is written to the page cache and therefore visible to other
+ * readers of the file without flushing, {@link #flush()} does not
+ * force updates to storage.
+ *
+ * @implNote This class is <b>not</b> thread-safe.
+ * @implNote This writer does not allocate any objects, beyond
+ *           a {@link MappedByteBuffer} for every window, or call methods
+ *           that allocate objects.
+ * @implNote Windows are unmapped when they are garbage collected. On
+ *           platforms that do not allow truncating a file that is still
+ *           mapped, like Microsoft Windows, {@link #close()} may fail.
+ */
+public final class MappedAsciiFileWriter extends Writer {
+
+  private final FileChannel channel;
+
+  private final int windowSize;
+
+  private MappedByteBuffer window;
+
+  /**
+   * Offset in the file of the current window.
+   */
+  private long windowStart;
+
+  private boolean closed;
+
+  /**
+   * Constructs a new {@link MappedAsciiFileWriter}.
+   * <p>
+   * The file will be created if it does not exist and truncated if it does.
+   *
+   * @param path the file to write to, not {@code null}
+   * @param windowSize the size in bytes of the region of the file mapped at
+   *                   a time, must be positive
+   * @throws NullPointerException when {@code path} is {@code null}
+   * @throws IllegalArgumentException if {@code windowSize} negative or 0
+   * @throws IOException if the file can not be opened or mapped
+   */
+  public MappedAsciiFileWriter(Path path, int windowSize) throws IOException {
+    Objects.requireNonNull(path, "path");
+    if (windowSize <= 0) {
+      throw new IllegalArgumentException("window size must be positive");
+    }
+    this.windowSize = windowSize;
+    this.channel = FileChannel.open(path, CREATE, TRUNCATE_EXISTING, READ, WRITE);
+    this.windowStart = 0L;
+    try {
+      this.window = this.channel.map(MapMode.READ_WRITE, this.windowStart, this.windowSize);
+    } catch (IOException | RuntimeException e) {
+      this.channel.close();
+      throw e;
+    }
+    this.closed = false;
+  }
+
+  /**
+   * Constructs a new {@link MappedAsciiFileWriter} with a default window
+   * size of 16 MiB.
+   * <p>
+   * The file will be created if it does not exist and truncated if it does.
+   *
+   * @param path the file to write to, not {@code null}
+   * @throws NullPointerException when {@code path} is {@code null}
+   * @throws IOException if the file can not be opened or mapped
+   */
+  public MappedAsciiFileWriter(Path path) throws IOException {
+    this(path, 16 * 1024 * 1024);
+  }
+
+  private void closedCheck() throws IOException {
+    if (this.closed) {
+      throw new IOException("closed writer");
+    }
+  }
+
+  private boolean ensureCapacity(int capacity) throws IOException {
+    if (capacity > this.window.remaining()) {
+      this.mapNextWindow();
+    }
+    return capacity <= this.windowSize;
+  }
+
+  private void mapNextWindow() throws IOException {
+    this.windowStart += this.window.position();
+    this.window = this.channel.map(MapMode.READ_WRITE, this.windowStart, this.windowSize);
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    this.closedCheck();
+    this.ensureCapacity(1);
+    if (Repertoires.fitsInAscii(c)) {
+      this.window.put((byte) c);
+    } else {
+      this.window.put((byte) '?');
+    }
+  }
+
+  @Override
+  public void write(char[] cbuf, int offset, int length) throws IOException {
+    this.closedCheck();
+    Objects.checkFromIndexSize(offset, length, cbuf.length);
+    if (this.ensureCapacity(length)) {
+      AsciiEncoder.encode(cbuf, offset, this.window, length);
+    } else {
+      this.writeSegmented(cbuf, offset, length);
+    }
+  }
+
+  @Override
+  public void write(String str, int offset, int length) throws IOException {
+    this.closedCheck();
+    Objects.checkFromIndexSize(offset, length, str.length());
+    if (this.ensureCapacity(length)) {
+      AsciiEncoder.encode(str, offset, this.window, length);
+    } else {
+      this.writeSegmentedOffsetLenth(str, offset, length);
+    }
+  }
+
+  @Override
+  public Writer append(CharSequence csq) throws IOException {
+    if (csq instanceof String) {
+      this.write((String) csq);
+      return this;
+    }
+    if (csq == null) {
+      return this.append("null", 0, 4);
+    } else {
+      return this.append(csq, 0, csq.length());
+    }
+  }
+
+  @Override
+  public Writer append(CharSequence csq, int start, int end) throws IOException {
+    if (csq instanceof String) {
+      this.write((String) csq, start, end - start);
+      return this;
+    }
+    CharSequence charSequence = csq != null ? csq : "null";
+    this.closedCheck();
+    Objects.checkFromToIndex(start, end, charSequence.length());
+    if (this.ensureCapacity(end - start)) {
+      AsciiEncoder.encode(charSequence, start, this.window, end - start);
+    } else {
+      this.writeSegmentedStartEnd(charSequence, start, end);
+    }
+    return this;
+  }
+
+  @Override
+  public Writer append(char c) throws IOException {
+    this.write(c);
+    return this;
+  }
+
+  private void writeSegmentedStartEnd(CharSequence csq, int initialStart, int end) throws IOException {
+    int currentStart = initialStart;
+    while (currentStart < end) {
+      int length = Math.min(this.windowSize, end - currentStart);
+      this.append(csq, currentStart, currentStart + length);
+      currentStart += length;
+    }
+  }
+
+  private void writeSegmentedOffsetLenth(String s, int offset, int totalLength) throws IOException {
+    int written = 0;
+    while (written < totalLength) {
+      int length = Math.min(this.windowSize, totalLength - written);
+      this.write(s, offset + written, length);
+      written += length;
+    }
+  }
+
+  private void writeSegmented(char[] cbuf, int offset, int totalLength) throws IOException {
+    int written = 0;
+    while (written < totalLength) {
+      int length = Math.min(this.windowSize, totalLength - written);
+      this.write(cbuf, offset + written, length);
+      written += length;
+    }
+  }
+
+  /**
+   * Does nothing besides checking whether the writer is closed as the
+   * data is already in the page cache.
+   *
+   * @throws IOException if this writer is closed
+   */
+  @Override
+  public void flush() throws IOException {
+    this.closedCheck();
+  }
+
+  /**
+   * Truncates the file to the number of bytes written and closes it.
+   *
+   * @throws IOException if truncating or closing the file fails
+   */
+  @Override
+  public void close() throws IOException {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+    long length = this.windowStart + this.window.position();
+    // let the window be unmapped by the garbage collector
+    this.window = null;
+    try {
+      this.channel.truncate(length);
+    } finally {
+      this.channel.close();
+    }
+  }
+
+}
@@ -14,43 +14,60 @@ final class Repertoires {
     return (c & 0b11111111_11111111_11111111_10000000) == 0;
   }
 
-  static boolean fitsInAscii(char[] cbuf, int offset, int length) {
-    if (offset < 0 || length < 0) {
+  static boolean fitsInLatin1(int i) {
+    return (i & 0b11111111_11111111_11111111_00000000) == 0;
+  }
+
+  static boolean fitsInLatin1(char c) {
+    return (c & 0b11111111_11111111_11111111_00000000) == 0;
+  }
+
+  static boolean fitsInLatin1(char[] cbuf, int offset, int length) {
+    if (offset < 0 || length < 0 || offset + length > cbuf.length) {
       // will throw later
       return true;
     }
-    for (int i = offset; i < length; i++) {
-      if (!fitsInAscii(cbuf[i])) {
+    for (int i = offset; i < offset + length; i++) {
+      if (!fitsInLatin1(cbuf[i])) {
         return false;
       }
     }
     return true;
   }
 
-  static boolean fitsInAsciiOffsetLength(String s, int offset, int length) {
-    if (offset < 0 || length < 0) {
+  static boolean fitsInLatin1OffsetLength(String s, int offset, int length) {
+    if (offset < 0 || length < 0 || offset + length > s.length()) {
       // will throw later
       return true;
     }
-    for (int i = offset; i < length; i++) {
-      if (!fitsInAscii(s.charAt(i))) {
+    for (int i = offset; i < offset + length; i++) {
+      if (!fitsInLatin1(s.charAt(i))) {
         return false;
       }
     }
     return true;
   }
-  
-  static boolean fitsInAsciiStartEnd(CharSequence csq, int start, int end) {
+
+  static boolean fitsInLatin1StartEnd(CharSequence csq, int start, int end) {
     if (start < 0 || end > csq.length()) {
       // will throw later
       return true;
     }
     for (int i = start; i < end; i++) {
-      if (!fitsInAscii(csq.charAt(i))) {
+      if (!fitsInLatin1(csq.charAt(i))) {
         return false;
       }
     }
     return true;
   }
 
+  static int asciiRunEnd(String s, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (!fitsInAscii(s.charAt(i))) {
+        return i;
+      }
+    }
+    return end;
+  }
+
 }
@@ -0,0 +1,152 @@
+package com.github.marschall.writers;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Maps {@code char}s to {@code byte}s for a single byte {@link Charset}.
+ * <p>
+ * The table is built once per charset by running every {@code char}
+ * through the JDK encoder and shared by all writers for that charset.
+ * It is split into 256 pages of 256 entries indexed by the high byte of
+ * the {@code char}. Only pages that contain at least one mapping are
+ * allocated, all other pages share a single page. Unmappable entries
+ * contain the replacement byte of the encoder so that encoding is a
+ * lookup without a branch.
+ */
+final class SingleByteEncodingTable {
+
+  private static final int PAGE_SIZE = 256;
+
+  private static final ConcurrentMap<Charset, SingleByteEncodingTable> TABLES = new ConcurrentHashMap<>();
+
+  private final byte[][] pages;
+
+  private final byte replacement;
+
+  private final boolean asciiCompatible;
+
+  private SingleByteEncodingTable(byte[][] pages, byte replacement, boolean asciiCompatible) {
+    this.pages = pages;
+    this.replacement = replacement;
+    this.asciiCompatible = asciiCompatible;
+  }
+
+  /**
+   * Returns the table for a charset, building it if necessary.
+   *
+   * @param charset the charset, not {@code null}
+   * @return the shared table for {@code charset}, not {@code null}
+   * @throws NullPointerException if {@code charset} is {@code null}
+   * @throws IllegalArgumentException if {@code charset} is not a single
+   *                                  byte charset
+   */
+  static SingleByteEncodingTable forCharset(Charset charset) {
+    Objects.requireNonNull(charset, "charset");
+    SingleByteEncodingTable table = TABLES.get(charset);
+    if (table != null) {
+      return table;
+    }
+    return TABLES.computeIfAbsent(charset, SingleByteEncodingTable::build);
+  }
+
+  /**
+   * Whether a charset encodes every {@code char} to at most one
+   * {@code byte}.
+   *
+   * @param charset the charset, not {@code null}
+   * @return whether {@link #forCharset(Charset)} supports {@code charset}
+   */
+  static boolean isSingleByte(Charset charset) {
+    if (!charset.canEncode()) {
+      return false;
+    }
+    CharsetEncoder encoder = charset.newEncoder();
+    return (encoder.maxBytesPerChar() == 1.0f) && (encoder.replacement().length == 1);
+  }
+
+  private static SingleByteEncodingTable build(Charset charset) {
+    if (!isSingleByte(charset)) {
+      throw new IllegalArgumentException("not a single byte charset: " + charset.name());
+    }
+    CharsetEncoder encoder = charset.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+    byte replacement = encoder.replacement()[0];
+
+    byte[] unmapped = new byte[PAGE_SIZE];
+    Arrays.fill(unmapped, replacement);
+    byte[][] pages = new byte[PAGE_SIZE][];
+    Arrays.fill(pages, unmapped);
+
+    CharBuffer in = CharBuffer.allocate(1);
+    ByteBuffer out = ByteBuffer.allocate(4);
+    for (int c = Character.MIN_VALUE; c <= Character.MAX_VALUE; c++) {
+      if (Character.isSurrogate((char) c)) {
+        continue;
+      }
+      in.clear();
+      in.put((char) c).flip();
+      out.clear();
+      encoder.reset();
+      CoderResult result = encoder.encode(in, out, true);
+      if (!result.isError() && !encoder.flush(out).isError() && (out.position() == 1)) {
+        int pageIndex = c >>> 8;
+        byte[] page = pages[pageIndex];
+        if (page == unmapped) {
+          page = unmapped.clone();
+          pages[pageIndex] = page;
+        }
+        page[c & 0xFF] = out.get(0);
+      }
+    }
+
+    boolean asciiCompatible = true;
+    for (int c = 0; c < 128; c++) {
+      if (pages[0][c] != c) {
+        asciiCompatible = false;
+        break;
+      }
+    }
+    return new SingleByteEncodingTable(pages, replacement, asciiCompatible);
+  }
+
+  /**
+   * Encodes a single character.
+   *
+   * @param c the character to encode
+   * @return the encoded byte, the replacement byte if {@code c} can not be
+   *         encoded
+   */
+  byte encode(char c) {
+    return this.pages[c >>> 8][c & 0xFF];
+  }
+
+  /**
+   * Returns the byte written for characters that can not be encoded.
+   *
+   * @return the replacement byte of the encoder
+   */
+  byte replacement() {
+    return this.replacement;
+  }
+
+  /**
+   * Whether every ASCII character is encoded to the byte of the same value
+   * so that runs of ASCII characters can be narrowed in bulk.
+   *
+   * @return whether the charset is a superset of ASCII
+   */
+  boolean isAsciiCompatible() {
+    return this.asciiCompatible;
+  }
+
+}
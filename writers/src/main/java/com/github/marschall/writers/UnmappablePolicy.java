@@ -0,0 +1,109 @@
+package com.github.marschall.writers;
+
+import java.nio.charset.UnmappableCharacterException;
+
+/**
+ * What an ASCII writer does with a character that can not be encoded
+ * in ASCII.
+ * <p>
+ * The policy is only consulted once a write is known to contain non-ASCII
+ * characters, writing ASCII only text is equally fast for all policies.
+ *
+ * @see BufferedAsciiOutputStreamWriter#BufferedAsciiOutputStreamWriter(java.io.OutputStream, int, UnmappablePolicy)
+ * @see AsciiOutputStreamWriter#AsciiOutputStreamWriter(java.io.OutputStream, UnmappablePolicy)
+ */
+public enum UnmappablePolicy {
+
+  /**
+   * Writes {@code '?'} for every non-ASCII {@code char} just like
+   * {@link java.io.OutputStreamWriter} does for single characters.
+   */
+  REPLACE,
+
+  /**
+   * Throws {@link UnmappableCharacterException}. The characters before
+   * the unmappable character may already have been written.
+   */
+  REPORT,
+
+  /**
+   * Writes nothing for non-ASCII characters.
+   */
+  SKIP,
+
+  /**
+   * Writes a JSON escape sequence like <code>&#92;u00E9</code>. Supplementary
+   * characters are written as two escape sequences for their surrogate
+   * pair.
+   */
+  ESCAPE_JSON,
+
+  /**
+   * Writes an XML decimal character reference like {@code &#233;}.
+   * Unpaired surrogates, including surrogate pairs split across two
+   * write calls, are written as a reference to the replacement character
+   * {@code &#65533;} as they are not valid in XML.
+   */
+  ESCAPE_XML;
+
+  /**
+   * The maximum number of bytes written by {@link #encode(int, byte[], int)},
+   * two JSON escape sequences.
+   */
+  static final int MAX_ENCODED_LENGTH = 12;
+
+  private static final byte[] HEX_DIGITS = {
+    '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'
+  };
+
+  /**
+   * Encodes a non-ASCII code point according to this policy.
+   *
+   * @param codePoint the code point to encode, an unpaired surrogate
+   *                  if it is not a valid character
+   * @param destination where to write the encoded code point, must have
+   *                    space for {@link #MAX_ENCODED_LENGTH} bytes
+   * @param offset the index at which to start writing
+   * @return the number of bytes written
+   * @throws UnmappableCharacterException if this policy is {@link #REPORT}
+   */
+  int encode(int codePoint, byte[] destination, int offset) throws UnmappableCharacterException {
+    switch (this) {
+      case REPLACE:
+        destination[offset] = '?';
+        return 1;
+      case REPORT:
+        throw new UnmappableCharacterException(Character.charCount(codePoint));
+      case SKIP:
+        return 0;
+      case ESCAPE_JSON:
+        if (Character.isBmpCodePoint(codePoint)) {
+          return escapeJson((char) codePoint, destination, offset);
+        }
+        int length = escapeJson(Character.highSurrogate(codePoint), destination, offset);
+        return length + escapeJson(Character.lowSurrogate(codePoint), destination, offset + length);
+      case ESCAPE_XML:
+        int value = Character.isSurrogate((char) codePoint) && Character.isBmpCodePoint(codePoint)
+                ? 0xFFFD
+                : codePoint;
+        destination[offset] = '&';
+        destination[offset + 1] = '#';
+        int end = IntegerToDecimal.writeInt(value, destination, offset + 2);
+        destination[end] = ';';
+        return end + 1 - offset;
+      default:
+        throw new IllegalStateException("unknown policy: " + this);
+    }
+  }
+
+  private static int escapeJson(char c, byte[] destination, int offset) {
+    destination[offset] = '\\';
+    destination[offset + 1] = 'u';
+    destination[offset + 2] = HEX_DIGITS[(c >> 12) & 0xF];
+    destination[offset + 3] = HEX_DIGITS[(c >> 8) & 0xF];
+    destination[offset + 4] = HEX_DIGITS[(c >> 4) & 0xF];
+    destination[offset + 5] = HEX_DIGITS[c & 0xF];
+    return 6;
+  }
+
+}
@@ -0,0 +1,148 @@
+package com.github.marschall.writers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Opt-in monitoring of {@link BufferedAsciiOutputStreamWriter}.
+ * <p>
+ * Monitoring is enabled by starting the JVM with
+ * {@code -Dcom.github.marschall.writers.monitoring=true}. When enabled
+ * <ul>
+ *  <li>a Java Flight Recorder event named
+ *  {@code com.github.marschall.writers.Flush} with the duration and
+ *  the number of bytes is emitted every time a buffer is written to the
+ *  output stream</li>
+ *  <li>cumulative counters are updated that can be read with
+ *  {@link #getStatistics()} or over JMX after calling
+ *  {@link #registerMBean()}</li>
+ * </ul>
+ * <p>
+ * The property is read once when the first writer is loaded. When
+ * disabled the checks are constant folded by the JIT and monitoring
+ * costs nothing.
+ */
+public final class WriterMonitoring {
+
+  /**
+   * The name of the system property that enables monitoring.
+   */
+  public static final String PROPERTY_NAME = "com.github.marschall.writers.monitoring";
+
+  /**
+   * The JMX object name under which {@link #registerMBean()} registers
+   * the statistics.
+   */
+  public static final String OBJECT_NAME = "com.github.marschall.writers:type=WriterStatistics";
+
+  static final boolean ENABLED = Boolean.getBoolean(PROPERTY_NAME);
+
+  private static final Counters COUNTERS = new Counters();
+
+  private WriterMonitoring() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Whether monitoring is enabled.
+   *
+   * @return whether monitoring has been enabled with {@link #PROPERTY_NAME}
+   */
+  public static boolean isEnabled() {
+    return ENABLED;
+  }
+
+  /**
+   * Returns the cumulative counters of all writers.
+   *
+   * @return the counters, not {@code null}, all counters stay at 0
+   *         if monitoring is disabled
+   */
+  public static WriterStatistics getStatistics() {
+    return COUNTERS;
+  }
+
+  /**
+   * Registers the counters returned by {@link #getStatistics()} in the
+   * platform MBean server under {@link #OBJECT_NAME}.
+   *
+   * @throws JMException if registering fails, for example because
+   *                     the counters have already been registered
+   */
+  public static void registerMBean() throws JMException {
+    ManagementFactory.getPlatformMBeanServer().registerMBean(COUNTERS, new ObjectName(OBJECT_NAME));
+  }
+
+  // The following methods must only be called if ENABLED is true.
+
+  static void write(Class<?> writerClass, OutputStream out, byte[] buffer, int offset, int length) throws IOException {
+    FlushEvent.write(writerClass, out, buffer, offset, length);
+    COUNTERS.flushed(length);
+  }
+
+  static void unmappable(int count) {
+    COUNTERS.unmappable(count);
+  }
+
+  static void segmentedWrite() {
+    COUNTERS.segmentedWrite();
+  }
+
+  static final class Counters implements WriterStatistics {
+
+    private final LongAdder flushCount;
+
+    private final LongAdder byteCount;
+
+    private final LongAdder unmappableCharCount;
+
+    private final LongAdder segmentedWriteCount;
+
+    Counters() {
+      this.flushCount = new LongAdder();
+      this.byteCount = new LongAdder();
+      this.unmappableCharCount = new LongAdder();
+      this.segmentedWriteCount = new LongAdder();
+    }
+
+    void flushed(int length) {
+      this.flushCount.increment();
+      this.byteCount.add(length);
+    }
+
+    void unmappable(int count) {
+      this.unmappableCharCount.add(count);
+    }
+
+    void segmentedWrite() {
+      this.segmentedWriteCount.increment();
+    }
+
+    @Override
+    public long getFlushCount() {
+      return this.flushCount.sum();
+    }
+
+    @Override
+    public long getByteCount() {
+      return this.byteCount.sum();
+    }
+
+    @Override
+    public long getUnmappableCharCount() {
+      return this.unmappableCharCount.sum();
+    }
+
+    @Override
+    public long getSegmentedWriteCount() {
+      return this.segmentedWriteCount.sum();
+    }
+
+  }
+
+}
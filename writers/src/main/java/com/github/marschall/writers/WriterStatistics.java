@@ -0,0 +1,45 @@
+package com.github.marschall.writers;
+
+import javax.management.MXBean;
+
+/**
+ * Cumulative counters of all writers since the JVM has been started.
+ * <p>
+ * The counters are only updated if monitoring has been enabled, see
+ * {@link WriterMonitoring}.
+ */
+@MXBean
+public interface WriterStatistics {
+
+  /**
+   * Returns how often a buffer has been written to an output stream.
+   *
+   * @return the number of writes to output streams
+   */
+  long getFlushCount();
+
+  /**
+   * Returns how many bytes have been written to output streams.
+   *
+   * @return the number of bytes written to output streams
+   */
+  long getByteCount();
+
+  /**
+   * Returns how many characters could not be encoded and have been
+   * written according to the {@link UnmappablePolicy}, usually
+   * as {@code '?'}.
+   *
+   * @return the number of characters that could not be encoded
+   */
+  long getUnmappableCharCount();
+
+  /**
+   * Returns how many writes have been larger than the buffer and have
+   * been split into several segments.
+   *
+   * @return the number of writes larger than the buffer
+   */
+  long getSegmentedWriteCount();
+
+}
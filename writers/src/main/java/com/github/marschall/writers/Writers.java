@@ -0,0 +1,139 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Objects;
+
+/**
+ * Creates the fastest {@link Writer} available for a charset.
+ * <p>
+ * Can be used instead of {@code new OutputStreamWriter(out, charset)}.
+ * The specialized writers of this library are returned for the charsets
+ * they support, for all other charsets an {@link OutputStreamWriter} is
+ * returned.
+ * <pre><code>
+ * try (Writer writer = Writers.newWriter(out, charset, Option.BUFFERED)) {
+ *   writer.write("OK");
+ * }
+ * </code></pre>
+ * <p>
+ * For non-encodable characters the replacement of the charset, usually
+ * {@code '?'}, will be written instead just like {@link OutputStreamWriter}
+ * does.
+ */
+public final class Writers {
+
+  /**
+   * The chunk size used for unbuffered ASCII writers.
+   */
+  private static final int CHUNK_SIZE = 1024;
+
+  /**
+   * Options for selecting a writer.
+   */
+  public enum Option {
+
+    /**
+     * The writer should have its own buffer.
+     * <p>
+     * Without this option the output stream is expected to buffer, for
+     * example a {@link BufferedOutputStream}, and the writer passes the
+     * encoded bytes on every call if possible. Some writers buffer
+     * regardless, callers must always call {@link Writer#flush()} or
+     * {@link Writer#close()}.
+     */
+    BUFFERED,
+
+    /**
+     * The writer must support being used by several threads concurrently.
+     * <p>
+     * Without this option a thread-safe writer may still be returned.
+     */
+    THREAD_SAFE;
+
+  }
+
+  private Writers() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Creates a new writer for a charset.
+   * <ul>
+   *  <li>For US-ASCII a {@link BufferedAsciiOutputStreamWriter}
+   *  when buffered, a {@link ConcurrentAsciiOutputStreamWriter} on a
+   *  {@link BufferedOutputStream} when buffered and thread-safe and a
+   *  chunking {@link AsciiOutputStreamWriter} otherwise.</li>
+   *  <li>For ISO-8859-1, UTF-8 and other single byte charsets a
+   *  {@link BufferedLatin1OutputStreamWriter},
+   *  {@link BufferedUtf8OutputStreamWriter} or
+   *  {@link BufferedSingleByteCharsetWriter} unless thread-safe. As an
+   *  {@link OutputStreamWriter} buffers as well these are also returned
+   *  when not buffered.</li>
+   *  <li>An {@link OutputStreamWriter} for all other cases.</li>
+   * </ul>
+   *
+   * @param out the output stream to write to, not {@code null}
+   * @param charset the charset to encode to, not {@code null}
+   * @param options the options for selecting a writer, not {@code null}
+   * @return a new writer writing to {@code out}, not {@code null}
+   * @throws NullPointerException when {@code out}, {@code charset} or
+   *                              an option is {@code null}
+   */
+  public static Writer newWriter(OutputStream out, Charset charset, Option... options) {
+    Objects.requireNonNull(out, "out");
+    Objects.requireNonNull(charset, "charset");
+    Objects.requireNonNull(options, "options");
+    boolean buffered = false;
+    boolean threadSafe = false;
+    for (Option option : options) {
+      Objects.requireNonNull(option, "option");
+      switch (option) {
+        case BUFFERED:
+          buffered = true;
+          break;
+        case THREAD_SAFE:
+          threadSafe = true;
+          break;
+        default:
+          throw new IllegalArgumentException("unknown option: " + option);
+      }
+    }
+
+    if (charset.equals(US_ASCII)) {
+      return newAsciiWriter(out, buffered, threadSafe);
+    }
+    if (!threadSafe) {
+      if (charset.equals(ISO_8859_1)) {
+        return new BufferedLatin1OutputStreamWriter(out);
+      }
+      if (charset.equals(UTF_8)) {
+        return new BufferedUtf8OutputStreamWriter(out);
+      }
+      if (BufferedSingleByteCharsetWriter.isSupported(charset)) {
+        return new BufferedSingleByteCharsetWriter(out, charset);
+      }
+    }
+    return new OutputStreamWriter(out, charset);
+  }
+
+  private static Writer newAsciiWriter(OutputStream out, boolean buffered, boolean threadSafe) {
+    if (buffered) {
+      if (threadSafe) {
+        return new ConcurrentAsciiOutputStreamWriter(new BufferedOutputStream(out));
+      } else {
+        return new BufferedAsciiOutputStreamWriter(out);
+      }
+    } else {
+      return new AsciiOutputStreamWriter(out, CHUNK_SIZE);
+    }
+  }
+
+}
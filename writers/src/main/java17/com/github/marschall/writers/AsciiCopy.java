@@ -0,0 +1,50 @@
+package com.github.marschall.writers;
+
+/**
+ * Narrows {@code char}s to {@code byte}s while checking for non-ASCII characters.
+ * <p>
+ * This is the Java 17 implementation, if the {@code jdk.incubator.vector}
+ * module has been added with {@code --add-modules} and the hardware
+ * supports vectors of at least 128 bits it uses
+ * {@link VectorizedAsciiCopy} otherwise a scalar loop.
+ */
+final class AsciiCopy {
+
+  // VectorizedAsciiCopy is only loaded if the module is present
+  private static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+          && VectorizedAsciiCopy.isSupported();
+
+  private AsciiCopy() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Narrows {@code char}s to {@code byte}s.
+   *
+   * @param src the characters to copy
+   * @param srcOffset the offset into {@code src}
+   * @param dst the bytes to copy into
+   * @param dstOffset the offset into {@code dst}
+   * @param length the number of characters to copy
+   * @return the bitwise or of all copied characters, to be checked with
+   *         {@link Repertoires#fitsInAscii(int)}
+   */
+  static int copyAndMask(char[] src, int srcOffset, byte[] dst, int dstOffset, int length) {
+    if (VECTORIZED) {
+      // only loaded if the module is present
+      return VectorizedAsciiCopy.copyAndMask(src, srcOffset, dst, dstOffset, length);
+    }
+    return scalarCopyAndMask(src, srcOffset, dst, dstOffset, 0, length);
+  }
+
+  static int scalarCopyAndMask(char[] src, int srcOffset, byte[] dst, int dstOffset, int from, int length) {
+    int mask = 0;
+    for (int i = from; i < length; i++) {
+      char c = src[srcOffset + i];
+      mask |= c;
+      dst[dstOffset + i] = (byte) c;
+    }
+    return mask;
+  }
+
+}
@@ -0,0 +1,67 @@
+package com.github.marschall.writers;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Narrows {@code char}s to {@code byte}s using the Vector API.
+ * <p>
+ * {@code char} lanes are or-ed into an accumulator for the ASCII check
+ * and narrowed to {@code byte} lanes straight into the destination.
+ * The remainder that does not fill a vector is handled by a scalar loop.
+ *
+ * @implNote Only use this class if the {@code jdk.incubator.vector} module is present.
+ */
+final class VectorizedAsciiCopy {
+
+  /**
+   * Whether the preferred species has at least 128 bits, smaller vectors
+   * are not worth it and have no matching {@code byte} species.
+   */
+  private static final boolean SUPPORTED = ShortVector.SPECIES_PREFERRED.vectorBitSize() >= 128;
+
+  /**
+   * 256 bits if the preferred species has at least 256 bits, otherwise
+   * 128 bits.
+   */
+  private static final VectorSpecies<Short> CHAR_SPECIES = ShortVector.SPECIES_PREFERRED.vectorBitSize() >= 256
+          ? ShortVector.SPECIES_256
+          : ShortVector.SPECIES_128;
+
+  /**
+   * Half the bit size of {@link #CHAR_SPECIES} so the lane counts match.
+   */
+  private static final VectorSpecies<Byte> BYTE_SPECIES = CHAR_SPECIES == ShortVector.SPECIES_256
+          ? ByteVector.SPECIES_128
+          : ByteVector.SPECIES_64;
+
+  private VectorizedAsciiCopy() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Whether the hardware supports vectors large enough for this class.
+   *
+   * @return {@code true} if the preferred species has at least 128 bits
+   */
+  static boolean isSupported() {
+    return SUPPORTED;
+  }
+
+  static int copyAndMask(char[] src, int srcOffset, byte[] dst, int dstOffset, int length) {
+    int upperBound = CHAR_SPECIES.loopBound(length);
+    int i = 0;
+    ShortVector accumulator = ShortVector.zero(CHAR_SPECIES);
+    for (; i < upperBound; i += CHAR_SPECIES.length()) {
+      ShortVector chars = ShortVector.fromCharArray(CHAR_SPECIES, src, srcOffset + i);
+      accumulator = accumulator.or(chars);
+      ByteVector bytes = (ByteVector) chars.convertShape(VectorOperators.S2B, BYTE_SPECIES, 0);
+      bytes.intoArray(dst, dstOffset + i);
+    }
+    int mask = accumulator.reduceLanes(VectorOperators.OR) & 0xFFFF;
+    return mask | AsciiCopy.scalarCopyAndMask(src, srcOffset, dst, dstOffset, i, length);
+  }
+
+}
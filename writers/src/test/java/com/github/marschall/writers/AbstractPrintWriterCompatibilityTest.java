@@ -28,6 +28,13 @@ abstract class AbstractPrintWriterCompatibilityTest {
 
   abstract Writer newWriter(OutputStream out);
 
+  /**
+   * Returns a character in the BMP that the writer under test can not encode.
+   */
+  char unmappableChar() {
+    return 255;
+  }
+
   @Test
   void writeSingleChar() throws IOException {
     this.writer.write('a');
@@ -36,7 +43,7 @@ abstract class AbstractPrintWriterCompatibilityTest {
 
   @Test
   void writeSingleCharInvalid() throws IOException {
-    this.writer.write(255);
+    this.writer.write(this.unmappableChar());
     this.assertContent((byte) '?');
   }
 
@@ -114,7 +121,7 @@ abstract class AbstractPrintWriterCompatibilityTest {
 
   @Test
   void appendSingleCharInvalid() throws IOException {
-    this.writer.append((char) 255);
+    this.writer.append(this.unmappableChar());
     this.assertContent((byte) '?');
   }
 
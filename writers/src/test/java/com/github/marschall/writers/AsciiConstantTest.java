@@ -0,0 +1,63 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class AsciiConstantTest {
+
+  @Test
+  void charSequence() {
+    AsciiConstant constant = AsciiConstant.of(new StringBuilder("Content-Type: "));
+    assertEquals(14, constant.length());
+    assertEquals('C', constant.charAt(0));
+    assertEquals(' ', constant.charAt(13));
+    assertEquals("Type", constant.subSequence(8, 12).toString());
+    assertEquals("Content-Type: ", constant.toString());
+    assertThrows(IndexOutOfBoundsException.class, () -> constant.charAt(14));
+  }
+
+  @Test
+  void equalsAndHashCode() {
+    AsciiConstant constant = AsciiConstant.of("abc");
+    assertEquals(AsciiConstant.of("abc"), constant);
+    assertEquals(AsciiConstant.of("abc").hashCode(), constant.hashCode());
+    assertNotEquals(AsciiConstant.of("abd"), constant);
+    assertNotEquals("abc", constant);
+  }
+
+  @Test
+  void nonAscii() {
+    assertThrows(IllegalArgumentException.class, () -> AsciiConstant.of("abc\u00E9"));
+    assertThrows(NullPointerException.class, () -> AsciiConstant.of(null));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {4, 8192})
+  void write(int bufferSize) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    BufferedAsciiOutputStreamWriter writer = new BufferedAsciiOutputStreamWriter(outputStream, bufferSize);
+    writer.write(AsciiConstant.of("\"name\":"));
+    writer.write(AsciiConstant.of(""));
+    writer.write('1');
+    writer.write(AsciiConstant.of(","));
+    writer.flush();
+    assertEquals("\"name\":1,", new String(outputStream.toByteArray(), US_ASCII));
+  }
+
+  @Test
+  void writeClosed() throws IOException {
+    BufferedAsciiOutputStreamWriter writer = new BufferedAsciiOutputStreamWriter(new ByteArrayOutputStream());
+    writer.close();
+    assertThrows(IOException.class, () -> writer.write(AsciiConstant.of("x")));
+  }
+
+}
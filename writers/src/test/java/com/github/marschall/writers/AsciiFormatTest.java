@@ -0,0 +1,159 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.DuplicateFormatFlagsException;
+import java.util.FormatFlagsConversionMismatchException;
+import java.util.IllegalFormatConversionException;
+import java.util.IllegalFormatFlagsException;
+import java.util.IllegalFormatPrecisionException;
+import java.util.IllegalFormatWidthException;
+import java.util.Locale;
+import java.util.MissingFormatArgumentException;
+import java.util.MissingFormatWidthException;
+import java.util.UnknownFormatConversionException;
+import java.util.UnknownFormatFlagsException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class AsciiFormatTest {
+
+  private ByteArrayOutputStream outputStream;
+  private BufferedAsciiOutputStreamWriter writer;
+
+  @BeforeEach
+  void setUp() {
+    this.outputStream = new ByteArrayOutputStream();
+    this.writer = new BufferedAsciiOutputStreamWriter(this.outputStream, 8);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"%d", "%5d", "%-5d|", "%05d", "%x", "%X", "%08x", "%-8X|", "%s", "%.3s", "%25s", "%-25s|"})
+  void formatLong(String pattern) throws IOException {
+    AsciiFormat.Renderer renderer = AsciiFormat.compile(pattern).renderer(this.writer);
+    for (long l : new long[] {0L, 1L, -1L, 42L, -42L, 123456789L, Long.MIN_VALUE, Long.MAX_VALUE}) {
+      renderer.arg(l).end();
+      this.assertContent(String.format(Locale.ROOT, pattern, l));
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"%d", "%05d", "%x", "%X", "%08x", "%s"})
+  void formatInt(String pattern) throws IOException {
+    AsciiFormat.Renderer renderer = AsciiFormat.compile(pattern).renderer(this.writer);
+    for (int i : new int[] {0, 1, -1, 255, -255, Integer.MIN_VALUE, Integer.MAX_VALUE}) {
+      renderer.arg(i).end();
+      this.assertContent(String.format(Locale.ROOT, pattern, i));
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"%f", "%.0f", "%.1f", "%.2f", "%.3f", "%12.4f", "%-12.4f|", "%012.4f", "%.10f", "%s"})
+  void formatDouble(String pattern) throws IOException {
+    AsciiFormat.Renderer renderer = AsciiFormat.compile(pattern).renderer(this.writer);
+    double[] values = {
+      0.0d, -0.0d, 0.5d, -0.5d, 0.0005d, 9.9999d, 99.5d, 0.125d, 1.005d, 1.0E20d, 1.0E-20d, -1.0E-7d,
+      999999.9999999d, 0.05d, 1.5d, 123.456d, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+      Double.MAX_VALUE, Double.MIN_VALUE
+    };
+    for (double d : values) {
+      renderer.arg(d).end();
+      this.assertContent(String.format(Locale.ROOT, pattern, d));
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"%s", "%.2s", "%6s", "%-6s|"})
+  void formatCharSequence(String pattern) throws IOException {
+    AsciiFormat.Renderer renderer = AsciiFormat.compile(pattern).renderer(this.writer);
+    renderer.arg(new StringBuilder("abc\u20AC")).end();
+    this.assertContent(String.format(Locale.ROOT, pattern, "abc?"));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"%s", "%.2s", "%6s", "%d", "%-6x|", "%f"})
+  void formatNull(String pattern) throws IOException {
+    AsciiFormat.Renderer renderer = AsciiFormat.compile(pattern).renderer(this.writer);
+    renderer.arg((CharSequence) null).end();
+    this.assertContent(String.format(Locale.ROOT, pattern, (Object) null));
+  }
+
+  @Test
+  void literals() throws IOException {
+    AsciiFormat format = AsciiFormat.compile("GET %s %d%% \u00E4%n");
+    AsciiFormat.Renderer renderer = format.renderer(this.writer);
+    renderer.arg("/index.html").arg(200).end();
+    renderer.arg("/").arg(404L).end();
+    this.assertContent("GET /index.html 200% ?" + System.lineSeparator() + "GET / 404% ?" + System.lineSeparator());
+    assertEquals("GET %s %d%% \u00E4%n", format.toString());
+  }
+
+  @Test
+  void noSpecifiers() throws IOException {
+    AsciiFormat.compile("constant").renderer(this.writer).end();
+    this.assertContent("constant");
+  }
+
+  @Test
+  void additionalArgumentsIgnored() throws IOException {
+    AsciiFormat.compile("[%d]").renderer(this.writer).arg(1).arg(2).arg("3").end();
+    this.assertContent("[1]");
+  }
+
+  @Test
+  void missingArgument() throws IOException {
+    AsciiFormat.Renderer renderer = AsciiFormat.compile("%d %s").renderer(this.writer);
+    renderer.arg(1);
+    assertThrows(MissingFormatArgumentException.class, renderer::end);
+    this.writer.flush();
+    this.outputStream.reset();
+    renderer.arg(1).arg("a").end();
+    this.assertContent("1 a");
+  }
+
+  @Test
+  void conversionMismatch() throws IOException {
+    AsciiFormat.Renderer renderer = AsciiFormat.compile("%d %f").renderer(this.writer);
+    assertThrows(IllegalFormatConversionException.class, () -> renderer.arg(1.0d));
+    assertThrows(IllegalFormatConversionException.class, () -> renderer.arg("1"));
+    assertThrows(IllegalFormatConversionException.class, () -> renderer.arg(1).arg(1L));
+    this.writer.flush();
+    this.outputStream.reset();
+    renderer.arg(1).arg(1.0d).end();
+    this.assertContent("1 1.000000");
+  }
+
+  @Test
+  void invalidPatterns() {
+    assertThrows(UnknownFormatConversionException.class, () -> AsciiFormat.compile("%"));
+    assertThrows(UnknownFormatConversionException.class, () -> AsciiFormat.compile("%5"));
+    assertThrows(UnknownFormatConversionException.class, () -> AsciiFormat.compile("%q"));
+    assertThrows(UnknownFormatConversionException.class, () -> AsciiFormat.compile("%.f"));
+    assertThrows(UnknownFormatConversionException.class, () -> AsciiFormat.compile("%1$d"));
+    assertThrows(UnknownFormatFlagsException.class, () -> AsciiFormat.compile("%+d"));
+    assertThrows(DuplicateFormatFlagsException.class, () -> AsciiFormat.compile("%--5d"));
+    assertThrows(IllegalFormatFlagsException.class, () -> AsciiFormat.compile("%-05d"));
+    assertThrows(IllegalFormatFlagsException.class, () -> AsciiFormat.compile("%-n"));
+    assertThrows(MissingFormatWidthException.class, () -> AsciiFormat.compile("%-d"));
+    assertThrows(MissingFormatWidthException.class, () -> AsciiFormat.compile("%0f"));
+    assertThrows(FormatFlagsConversionMismatchException.class, () -> AsciiFormat.compile("%05s"));
+    assertThrows(IllegalFormatPrecisionException.class, () -> AsciiFormat.compile("%.2d"));
+    assertThrows(IllegalFormatPrecisionException.class, () -> AsciiFormat.compile("%.2%"));
+    assertThrows(IllegalFormatWidthException.class, () -> AsciiFormat.compile("%5n"));
+    assertThrows(IllegalFormatWidthException.class, () -> AsciiFormat.compile("%99999999999d"));
+  }
+
+  private void assertContent(String expected) throws IOException {
+    this.writer.flush();
+    assertEquals(expected, new String(this.outputStream.toByteArray(), US_ASCII));
+    this.outputStream.reset();
+  }
+
+}
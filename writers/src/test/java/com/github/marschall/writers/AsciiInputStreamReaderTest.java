@@ -0,0 +1,107 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class AsciiInputStreamReaderTest {
+
+  private static final String INPUT = "1234567abcäefghÿZ";
+
+  static Stream<Arguments> readers() {
+    return Stream.of(
+            Arguments.of("unchunked", (Function<InputStream, Reader>) AsciiInputStreamReader::new),
+            Arguments.of("chunked", (Function<InputStream, Reader>) in -> new AsciiInputStreamReader(in, 4)),
+            Arguments.of("buffered", (Function<InputStream, Reader>) in -> new BufferedAsciiInputStreamReader(in, 4)));
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("readers")
+  void readSingleChars(String name, Function<InputStream, Reader> factory) throws IOException {
+    try (Reader reader = factory.apply(newInputStream(INPUT))) {
+      StringBuilder buffer = new StringBuilder();
+      int c = reader.read();
+      while (c != -1) {
+        buffer.append((char) c);
+        c = reader.read();
+      }
+      assertEquals(decodeWithJdk(INPUT), buffer.toString());
+    }
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("readers")
+  void readCharArray(String name, Function<InputStream, Reader> factory) throws IOException {
+    try (Reader reader = factory.apply(newInputStream(INPUT))) {
+      assertEquals(decodeWithJdk(INPUT), readFully(reader, 5));
+    }
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("readers")
+  void readEmpty(String name, Function<InputStream, Reader> factory) throws IOException {
+    try (Reader reader = factory.apply(newInputStream(""))) {
+      assertEquals(0, reader.read(new char[4], 0, 0));
+      assertEquals(-1, reader.read(new char[4]));
+      assertEquals(-1, reader.read());
+      assertFalse(reader.ready());
+    }
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("readers")
+  void skip(String name, Function<InputStream, Reader> factory) throws IOException {
+    try (Reader reader = factory.apply(newInputStream(INPUT))) {
+      assertEquals(2, reader.skip(2L));
+      assertEquals('3', reader.read());
+      assertEquals(6, reader.skip(6L));
+      assertEquals(decodeWithJdk(INPUT.substring(9)), readFully(reader, 3));
+    }
+  }
+
+  @Test
+  void doesNotReadAhead() throws IOException {
+    InputStream inputStream = newInputStream(INPUT);
+    try (Reader reader = new AsciiInputStreamReader(inputStream, 8)) {
+      char[] cbuf = new char[3];
+      assertEquals(3, reader.read(cbuf));
+      assertEquals(INPUT.length() - 3, inputStream.available());
+    }
+  }
+
+  static InputStream newInputStream(String s) {
+    return new ByteArrayInputStream(s.getBytes(ISO_8859_1));
+  }
+
+  static String decodeWithJdk(String s) throws IOException {
+    try (Reader reader = new InputStreamReader(newInputStream(s), US_ASCII)) {
+      return readFully(reader, 8192);
+    }
+  }
+
+  static String readFully(Reader reader, int bufferSize) throws IOException {
+    StringBuilder buffer = new StringBuilder();
+    char[] cbuf = new char[bufferSize];
+    int read = reader.read(cbuf);
+    while (read != -1) {
+      buffer.append(cbuf, 0, read);
+      read = reader.read(cbuf);
+    }
+    return buffer.toString();
+  }
+
+}
@@ -0,0 +1,13 @@
+package com.github.marschall.writers;
+
+import java.io.OutputStream;
+import java.io.Writer;
+
+class AsciiPrintWriterCompatibilityTest extends AbstractPrintWriterCompatibilityTest {
+
+  @Override
+  Writer newWriter(OutputStream out) {
+    return new AsciiPrintWriter(out);
+  }
+
+}
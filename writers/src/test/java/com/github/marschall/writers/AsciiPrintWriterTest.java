@@ -0,0 +1,126 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+class AsciiPrintWriterTest {
+
+  @Test
+  void printPrimitives() {
+    assertSameOutput(writer -> {
+      writer.print(true);
+      writer.print('c');
+      writer.print('€');
+      writer.print(Integer.MIN_VALUE);
+      writer.print(Long.MAX_VALUE);
+      writer.print(1.5f);
+      writer.print(-0.1d);
+      writer.print(Double.NaN);
+    });
+  }
+
+  @Test
+  void printReferences() {
+    assertSameOutput(writer -> {
+      writer.print(new char[] {'a', 'b'});
+      writer.print("strä");
+      writer.print((String) null);
+      writer.print((Object) null);
+      writer.print(Locale.ROOT);
+    });
+  }
+
+  @Test
+  void println() {
+    assertSameOutput(writer -> {
+      writer.println();
+      writer.println(false);
+      writer.println('x');
+      writer.println(-42);
+      writer.println(42L);
+      writer.println(0.25f);
+      writer.println(1.0E10d);
+      writer.println(new char[] {'a'});
+      writer.println("line");
+      writer.println((Object) "object");
+    });
+  }
+
+  @Test
+  void printf() {
+    assertSameOutput(writer -> {
+      writer.printf("%d-%s", 1, "a");
+      writer.format(Locale.ROOT, "%.2f%n", 1.125d);
+    });
+  }
+
+  @Test
+  void autoFlush() {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    AsciiPrintWriter writer = new AsciiPrintWriter(outputStream, true);
+    writer.print(1);
+    assertEquals(0, outputStream.size());
+    writer.println();
+    assertEquals("1" + System.lineSeparator(), new String(outputStream.toByteArray(), US_ASCII));
+  }
+
+  @Test
+  void checkErrorAfterClose() {
+    AsciiPrintWriter writer = new AsciiPrintWriter(new ByteArrayOutputStream());
+    writer.print("a");
+    assertFalse(writer.checkError());
+    writer.close();
+    writer.close();
+    assertFalse(writer.checkError());
+    writer.print(1);
+    assertTrue(writer.checkError());
+  }
+
+  @Test
+  void checkErrorFailingStream() {
+    AsciiPrintWriter writer = new AsciiPrintWriter(new FailingOutputStream(), 4, false);
+    writer.print("ok");
+    writer.print("too long");
+    assertTrue(writer.checkError());
+  }
+
+  private static void assertSameOutput(Consumer<PrintWriter> test) {
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    PrintWriter printWriter = new PrintWriter(expected, false, US_ASCII);
+    test.accept(printWriter);
+    printWriter.flush();
+
+    ByteArrayOutputStream actual = new ByteArrayOutputStream();
+    AsciiPrintWriter asciiPrintWriter = new AsciiPrintWriter(actual);
+    test.accept(asciiPrintWriter);
+    assertFalse(asciiPrintWriter.checkError());
+
+    assertEquals(new String(expected.toByteArray(), US_ASCII), new String(actual.toByteArray(), US_ASCII));
+  }
+
+  static final class FailingOutputStream extends OutputStream {
+
+    @Override
+    public void write(int b) throws IOException {
+      throw new IOException("failed");
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      throw new IOException("failed");
+    }
+
+  }
+
+}
@@ -0,0 +1,23 @@
+package com.github.marschall.writers;
+
+import java.io.OutputStream;
+import java.io.Writer;
+
+import org.junit.jupiter.api.AfterEach;
+
+class AsyncAsciiWriterCompatibilityTest extends AbstractPrintWriterCompatibilityTest {
+
+  private Writer writer;
+
+  @Override
+  Writer newWriter(OutputStream out) {
+    this.writer = new AsyncAsciiWriter(out);
+    return this.writer;
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    this.writer.close();
+  }
+
+}
@@ -0,0 +1,195 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.github.marschall.writers.AsyncAsciiWriter.Backpressure;
+
+class AsyncAsciiWriterTest {
+
+  @ParameterizedTest
+  @EnumSource(value = Backpressure.class, names = {"BLOCK", "GROW"})
+  void writeServeralSegments(Backpressure backpressure) throws IOException {
+    SlowOutputStream outputStream = new SlowOutputStream();
+    try (Writer writer = newWriter(outputStream, backpressure)) {
+      for (int i = 0; i < 100; i++) {
+        writer.write("1234567");
+        writer.write("abc€efgh".toCharArray());
+        writer.append(new StringBuilder("xy"));
+        writer.write('Z');
+      }
+      writer.flush();
+      assertEquals("1234567abc?efghxyZ".repeat(100), outputStream.getContent());
+    }
+    assertTrue(outputStream.isClosed());
+  }
+
+  @Test
+  void drop() throws IOException, InterruptedException {
+    BlockingOutputStream outputStream = new BlockingOutputStream();
+    AsyncAsciiWriter writer = new AsyncAsciiWriter(outputStream, 4, 2, Backpressure.DROP, Thread::new);
+    try {
+      writer.write("1234");
+      // hands off the first segment which blocks the background thread
+      writer.write("5678");
+      outputStream.awaitWrite();
+      // the ring is full, the current segment is dropped
+      writer.write("abcd");
+      assertEquals(4L, writer.getDroppedByteCount());
+    } finally {
+      outputStream.release();
+      writer.close();
+    }
+    assertEquals("1234abcd", outputStream.getContent());
+  }
+
+  @Test
+  void failure() throws IOException {
+    OutputStream failing = new OutputStream() {
+
+      @Override
+      public void write(int b) throws IOException {
+        throw new IOException("broken");
+      }
+
+    };
+    Writer writer = new AsyncAsciiWriter(failing, 4, 2, Backpressure.BLOCK, Thread::new);
+    writer.write("1234");
+    assertThrows(IOException.class, writer::flush);
+    assertThrows(IOException.class, () -> writer.write("x"));
+    assertThrows(IOException.class, writer::close);
+  }
+
+  @Test
+  void runtimeFailure() throws IOException {
+    OutputStream failing = new OutputStream() {
+
+      @Override
+      public void write(int b) {
+        throw new IllegalStateException("broken");
+      }
+
+    };
+    Writer writer = new AsyncAsciiWriter(failing, 4, 2, Backpressure.BLOCK, Thread::new);
+    assertTimeoutPreemptively(Duration.ofSeconds(10L), () -> {
+      // fills more segments than the ring has, the second segment waits
+      // for the first one which fails
+      IOException exception = assertThrows(IOException.class, () -> writer.write("1234567890abcdef"));
+      assertTrue(exception.getCause() instanceof IllegalStateException);
+      assertThrows(IOException.class, writer::flush);
+      assertThrows(IOException.class, writer::close);
+    });
+  }
+
+  @Test
+  void closeWhenInterrupted() throws IOException {
+    SlowOutputStream outputStream = new SlowOutputStream();
+    Writer writer = new AsyncAsciiWriter(outputStream);
+    Thread.currentThread().interrupt();
+    try {
+      assertThrows(InterruptedIOException.class, writer::close);
+    } finally {
+      // clear the interrupt flag
+      Thread.interrupted();
+    }
+    assertTrue(outputStream.isClosed());
+  }
+
+  @Test
+  void writeAfterClose() throws IOException {
+    Writer writer = new AsyncAsciiWriter(new ByteArrayOutputStream());
+    writer.close();
+    writer.close();
+    assertThrows(IOException.class, () -> writer.write("x"));
+  }
+
+  private static Writer newWriter(OutputStream outputStream, Backpressure backpressure) {
+    return new AsyncAsciiWriter(outputStream, 4, 2, backpressure, Thread::new);
+  }
+
+  static final class SlowOutputStream extends OutputStream {
+
+    private final ByteArrayOutputStream delegate = new ByteArrayOutputStream();
+
+    private volatile boolean closed;
+
+    @Override
+    public void write(int b) {
+      this.delegate.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      Thread.yield();
+      this.delegate.write(b, off, len);
+    }
+
+    @Override
+    public void close() {
+      this.closed = true;
+    }
+
+    boolean isClosed() {
+      return this.closed;
+    }
+
+    String getContent() {
+      return new String(this.delegate.toByteArray(), US_ASCII);
+    }
+
+  }
+
+  static final class BlockingOutputStream extends OutputStream {
+
+    private final ByteArrayOutputStream delegate = new ByteArrayOutputStream();
+
+    private final CountDownLatch writeStarted = new CountDownLatch(1);
+
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    @Override
+    public void write(int b) {
+      this.delegate.write(b);
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+      this.writeStarted.countDown();
+      try {
+        this.released.await();
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      }
+      this.delegate.write(b, off, len);
+    }
+
+    void awaitWrite() throws InterruptedException {
+      this.writeStarted.await();
+    }
+
+    void release() {
+      this.released.countDown();
+    }
+
+    synchronized String getContent() {
+      return new String(this.delegate.toByteArray(), US_ASCII);
+    }
+
+  }
+
+}
@@ -0,0 +1,116 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class BufferedAsciiInputStreamReaderTest {
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+    "",
+    "one",
+    "one\ntwo\n",
+    "one\r\ntwo\r\n\r\nfour",
+    "one\rtwo\r\rfour\n",
+    "\n\n",
+    "abc\r\n",
+    "abcdefgh\r\nijklmnop\r\nq",
+    "abcdef\u0080gh\nij"
+  })
+  void readLine(String input) throws IOException {
+    for (int bufferSize = 1; bufferSize < 6; bufferSize++) {
+      try (BufferedAsciiInputStreamReader reader = newReader(input, bufferSize)) {
+        assertEquals(readLinesWithJdk(input), readLines(reader, 64), "buffer size: " + bufferSize);
+      }
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 2, 3, 8})
+  void readLongLine(int bufferSize) throws IOException {
+    try (BufferedAsciiInputStreamReader reader = newReader("abcdefg\nabcd\r\nab\n", bufferSize)) {
+      char[] line = new char[4];
+      assertEquals(4, reader.readLine(line));
+      assertEquals("abcd", new String(line, 0, 4));
+      assertEquals(3, reader.readLine(line));
+      assertEquals("efg", new String(line, 0, 3));
+      // exactly fits, no empty line follows
+      assertEquals(4, reader.readLine(line));
+      assertEquals("abcd", new String(line, 0, 4));
+      assertEquals(2, reader.readLine(line, 1, 3));
+      assertEquals("ab", new String(line, 1, 2));
+      assertEquals(-1, reader.readLine(line));
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 2, 3, 8})
+  void mixReadAndReadLine(int bufferSize) throws IOException {
+    try (BufferedAsciiInputStreamReader reader = newReader("ab\r\ncd", bufferSize)) {
+      char[] line = new char[8];
+      assertEquals(2, reader.readLine(line));
+      assertEquals('c', reader.read());
+      assertEquals('d', reader.read());
+      assertEquals(-1, reader.read());
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 2, 3, 8})
+  void readWholeStream(int bufferSize) throws IOException {
+    String input = "1234567abc\r\nefghZ";
+    try (BufferedAsciiInputStreamReader reader = newReader(input, bufferSize)) {
+      assertEquals(input, AsciiInputStreamReaderTest.readFully(reader, 5));
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 2, 3, 8})
+  void close(int bufferSize) throws IOException {
+    BufferedAsciiInputStreamReader reader = newReader("abc", bufferSize);
+    reader.close();
+    reader.close();
+    assertThrows(IOException.class, reader::read);
+    assertThrows(IOException.class, () -> reader.readLine(new char[4]));
+  }
+
+  private static BufferedAsciiInputStreamReader newReader(String input, int bufferSize) {
+    return new BufferedAsciiInputStreamReader(new ByteArrayInputStream(input.getBytes(ISO_8859_1)), bufferSize);
+  }
+
+  private static List<String> readLines(BufferedAsciiInputStreamReader reader, int maxLength) throws IOException {
+    List<String> lines = new ArrayList<>();
+    char[] line = new char[maxLength];
+    int read = reader.readLine(line);
+    while (read != -1) {
+      lines.add(new String(line, 0, read));
+      read = reader.readLine(line);
+    }
+    return lines;
+  }
+
+  private static List<String> readLinesWithJdk(String input) throws IOException {
+    List<String> lines = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(input.getBytes(ISO_8859_1)), US_ASCII))) {
+      String line = reader.readLine();
+      while (line != null) {
+        lines.add(line);
+        line = reader.readLine();
+      }
+    }
+    return lines;
+  }
+
+}
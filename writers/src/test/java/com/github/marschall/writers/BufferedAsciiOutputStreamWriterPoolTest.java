@@ -0,0 +1,100 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class BufferedAsciiOutputStreamWriterPoolTest {
+
+  @Test
+  void reuse() throws IOException {
+    BufferedAsciiOutputStreamWriterPool pool = new BufferedAsciiOutputStreamWriterPool(2);
+
+    ByteArrayOutputStream first = new ByteArrayOutputStream();
+    BufferedAsciiOutputStreamWriter writer = pool.acquire(first);
+    writer.write("first");
+    writer.close();
+
+    ByteArrayOutputStream second = new ByteArrayOutputStream();
+    BufferedAsciiOutputStreamWriter reused = pool.acquire(second);
+    assertSame(writer, reused);
+    reused.write("second");
+    reused.close();
+
+    assertEquals("first", new String(first.toByteArray(), US_ASCII));
+    assertEquals("second", new String(second.toByteArray(), US_ASCII));
+  }
+
+  @Test
+  void doubleCloseReturnsOnce() throws IOException {
+    BufferedAsciiOutputStreamWriterPool pool = new BufferedAsciiOutputStreamWriterPool(2);
+    BufferedAsciiOutputStreamWriter writer = pool.acquire(new ByteArrayOutputStream());
+    writer.close();
+    writer.close();
+
+    assertSame(writer, pool.acquire(new ByteArrayOutputStream()));
+    assertNotSame(writer, pool.acquire(new ByteArrayOutputStream()));
+  }
+
+  @Test
+  void bounded() throws IOException {
+    BufferedAsciiOutputStreamWriterPool pool = new BufferedAsciiOutputStreamWriterPool(1);
+    BufferedAsciiOutputStreamWriter first = pool.acquire(new ByteArrayOutputStream());
+    BufferedAsciiOutputStreamWriter second = pool.acquire(new ByteArrayOutputStream());
+    first.close();
+    second.close();
+
+    assertSame(first, pool.acquire(new ByteArrayOutputStream()));
+    BufferedAsciiOutputStreamWriter third = pool.acquire(new ByteArrayOutputStream());
+    assertNotSame(first, third);
+    assertNotSame(second, third);
+  }
+
+  @Test
+  void closedWriterNotUsable() throws IOException {
+    BufferedAsciiOutputStreamWriterPool pool = new BufferedAsciiOutputStreamWriterPool(1);
+    BufferedAsciiOutputStreamWriter writer = pool.acquire(new ByteArrayOutputStream());
+    writer.close();
+    assertThrows(IOException.class, () -> writer.write("x"));
+  }
+
+  @Test
+  void noLeakWhenClosed() throws IOException {
+    BufferedAsciiOutputStreamWriterPool pool = new BufferedAsciiOutputStreamWriterPool(1, 16, UnmappablePolicy.REPLACE, true);
+    for (int i = 0; i < 3; i++) {
+      pool.acquire(new ByteArrayOutputStream()).close();
+    }
+    assertEquals(0L, pool.getLeakCount());
+  }
+
+  @Test
+  void leakDetection() throws InterruptedException {
+    BufferedAsciiOutputStreamWriterPool pool = new BufferedAsciiOutputStreamWriterPool(1, 16, UnmappablePolicy.REPLACE, true);
+    pool.acquire(new ByteArrayOutputStream());
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+    while (pool.getLeakCount() == 0L && System.nanoTime() < deadline) {
+      System.gc();
+      Thread.sleep(10L);
+    }
+    assertTrue(pool.getLeakCount() > 0L);
+  }
+
+  @Test
+  void invalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> new BufferedAsciiOutputStreamWriterPool(0));
+    assertThrows(IllegalArgumentException.class, () -> new BufferedAsciiOutputStreamWriterPool(1, 0, UnmappablePolicy.REPLACE, false));
+    assertThrows(NullPointerException.class, () -> new BufferedAsciiOutputStreamWriterPool(1, 16, null, false));
+    assertThrows(NullPointerException.class, () -> new BufferedAsciiOutputStreamWriterPool(1).acquire(null));
+  }
+
+}
@@ -2,9 +2,12 @@ package com.github.marschall.writers;
 
 import static java.nio.charset.StandardCharsets.US_ASCII;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -44,6 +47,187 @@ class BufferedAsciiOutputStreamWriterTest {
     assertContent("1234567" + "abcdefgh" + "Z");
   }
 
+  @Test
+  void writeNonAsciiServeralSegments() throws IOException {
+    this.writer.write("12\u20AC4567");
+    this.writer.write("abc\u0141efgh".toCharArray());
+    this.writer.append(new StringBuilder("\u00E4bcdefg\u00FF"));
+    assertContent("12?4567" + "abc?efgh" + "?bcdefg?");
+  }
+
+  @Test
+  void writeLongStrings() throws IOException {
+    this.writer = new BufferedAsciiOutputStreamWriter(this.outputStream, 1024);
+    String ascii = "a".repeat(AsciiEncoder.GET_BYTES_THRESHOLD);
+    this.writer.write(ascii);
+    this.writer.write("x" + ascii + "\u00E4b\u0141c", 1, ascii.length() + 4);
+    this.writer.write(ascii + "\u20AC" + ascii);
+    assertContent(ascii + ascii + "?b?c" + ascii + "?" + ascii);
+  }
+
+  @Test
+  void writeNumbers() throws IOException {
+    BufferedAsciiOutputStreamWriter large = new BufferedAsciiOutputStreamWriter(this.outputStream, 32);
+    large.write('[');
+    large.writeInt(Integer.MIN_VALUE);
+    large.write(',');
+    large.writeLong(Long.MAX_VALUE);
+    large.write(',');
+    large.writeDouble(-0.1d);
+    large.write(',');
+    large.writeFloat(1.0E10f);
+    large.write(']');
+    large.flush();
+    assertEquals("[-2147483648,9223372036854775807,-0.1,1.0E10]", new String(this.outputStream.toByteArray(), US_ASCII));
+  }
+
+  @Test
+  void writeNumbersLargerThanBuffer() throws IOException {
+    this.writer.writeInt(-123456);
+    this.writer.writeLong(7L);
+    this.writer.writeDouble(1.5d);
+    this.writer.writeFloat(Float.NaN);
+    assertContent("-123456" + "7" + "1.5" + "NaN");
+  }
+
+  @Test
+  void writeNumbersIndependentOfBufferSize() throws IOException {
+    // Double.toString(2.0E23) is "1.9999999999999998E23" before Java 19
+    this.writer.writeDouble(2.0E23d);
+    this.writer.write(',');
+    this.writer.writeFloat(1.0E23f);
+    assertContent("2.0E23" + "," + "1.0E23");
+  }
+
+  @Test
+  void reset() throws IOException {
+    this.writer.write("ab");
+    this.writer.close();
+
+    ByteArrayOutputStream other = new ByteArrayOutputStream();
+    this.writer.reset(other);
+    this.writer.write("cd");
+    this.writer.close();
+
+    assertEquals("ab", new String(this.outputStream.toByteArray(), US_ASCII));
+    assertEquals("cd", new String(other.toByteArray(), US_ASCII));
+  }
+
+  @Test
+  void resetDiscardsBuffer() throws IOException {
+    this.writer.write("ab");
+    this.writer.reset(this.outputStream);
+    this.writer.write("cd");
+    assertContent("cd");
+  }
+
+  @Test
+  void adaptiveBufferGrows() throws IOException {
+    int[] writeCount = new int[1];
+    OutputStream countingStream = new FilterOutputStream(this.outputStream) {
+
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        writeCount[0] += 1;
+        this.out.write(b, off, len);
+      }
+
+    };
+    BufferedAsciiOutputStreamWriter adaptive = new BufferedAsciiOutputStreamWriter(countingStream, 4, 64, UnmappablePolicy.REPLACE);
+    StringBuilder expected = new StringBuilder();
+    String chunk = "0123456789abcdef";
+    for (int i = 0; i < 16; i++) {
+      adaptive.write(chunk);
+      expected.append(chunk);
+    }
+    int beforeGrowth = writeCount[0];
+    adaptive.write(chunk);
+    expected.append(chunk);
+    adaptive.write(chunk);
+    expected.append(chunk);
+    adaptive.flush();
+    // the buffer has grown to 16 so every chunk is buffered until the next one,
+    // the previously buffered chunk is written as well
+    assertEquals(beforeGrowth + 3, writeCount[0]);
+    assertEquals(expected.toString(), new String(this.outputStream.toByteArray(), US_ASCII));
+  }
+
+  @Test
+  void adaptiveBufferSurrogates() throws IOException {
+    BufferedAsciiOutputStreamWriter adaptive = new BufferedAsciiOutputStreamWriter(this.outputStream, 2, 8, UnmappablePolicy.ESCAPE_JSON);
+    for (int i = 0; i < 8; i++) {
+      adaptive.write("a\uD83D\uDE00b");
+    }
+    adaptive.flush();
+    assertEquals("a\\uD83D\\uDE00b".repeat(8), new String(this.outputStream.toByteArray(), US_ASCII));
+  }
+
+  @Test
+  void oversizedWritePassedThrough() throws IOException {
+    this.writer.write("ab");
+    this.writer.write("0123456789");
+    // nothing of the large write is left in the buffer
+    assertEquals("ab0123456789", new String(this.outputStream.toByteArray(), US_ASCII));
+    this.writer.write("cd");
+    assertContent("ab0123456789cd");
+  }
+
+  @Test
+  void adaptiveBufferDoesNotGrowForInfrequentOversizedWrites() throws IOException {
+    int[] writeCount = new int[1];
+    OutputStream countingStream = new FilterOutputStream(this.outputStream) {
+
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        writeCount[0] += 1;
+        this.out.write(b, off, len);
+      }
+
+    };
+    BufferedAsciiOutputStreamWriter adaptive = new BufferedAsciiOutputStreamWriter(countingStream, 4, 64, UnmappablePolicy.REPLACE);
+    for (int i = 0; i < 16; i++) {
+      adaptive.write("0123456789abcdef");
+      // fill the buffer so that it is flushed
+      adaptive.write("ab");
+      adaptive.write("cd");
+      adaptive.write("e");
+    }
+    adaptive.flush();
+    int beforeWrite = writeCount[0];
+    adaptive.write("ab");
+    adaptive.write("cd");
+    adaptive.write("e");
+    // the buffer is still 4 bytes so it is flushed
+    assertEquals(beforeWrite + 1, writeCount[0]);
+  }
+
+  @Test
+  void oversizedWriteInMaxBufferSizeChunks() throws IOException {
+    int[] writeCount = new int[1];
+    OutputStream countingStream = new FilterOutputStream(this.outputStream) {
+
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        writeCount[0] += 1;
+        this.out.write(b, off, len);
+      }
+
+    };
+    BufferedAsciiOutputStreamWriter adaptive = new BufferedAsciiOutputStreamWriter(countingStream, 4, 8, UnmappablePolicy.REPLACE);
+    adaptive.write("ab");
+    adaptive.write("0123456789abcdef\u00E4");
+    // the buffered bytes and three chunks of 8
+    assertEquals(4, writeCount[0]);
+    adaptive.write("cd");
+    adaptive.flush();
+    assertEquals("ab0123456789abcdef?cd", new String(this.outputStream.toByteArray(), US_ASCII));
+  }
+
+  @Test
+  void invalidAdaptiveBufferSize() {
+    assertThrows(IllegalArgumentException.class, () -> new BufferedAsciiOutputStreamWriter(this.outputStream, 8, 4, UnmappablePolicy.REPLACE));
+  }
+
   private void assertContent(String expected) throws IOException {
     this.writer.flush();
     assertEquals(expected, new String(this.outputStream.toByteArray(), US_ASCII));
@@ -0,0 +1,18 @@
+package com.github.marschall.writers;
+
+import java.io.OutputStream;
+import java.io.Writer;
+
+class BufferedLatin1OutputStreamWriterCompatibilityTest extends AbstractPrintWriterCompatibilityTest {
+
+  @Override
+  Writer newWriter(OutputStream out) {
+    return new BufferedLatin1OutputStreamWriter(out);
+  }
+
+  @Override
+  char unmappableChar() {
+    return 'Ā';
+  }
+
+}
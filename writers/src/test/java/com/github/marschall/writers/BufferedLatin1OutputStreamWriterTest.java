@@ -0,0 +1,60 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BufferedLatin1OutputStreamWriterTest {
+
+  private ByteArrayOutputStream outputStream;
+  private BufferedLatin1OutputStreamWriter writer;
+
+  @BeforeEach
+  void setUp() {
+    this.outputStream = new ByteArrayOutputStream(128);
+    this.writer = new BufferedLatin1OutputStreamWriter(this.outputStream, 4);
+  }
+
+  @Test
+  void writeStringServeralSegments() throws IOException {
+    this.writer.write("123äöü7");
+    this.writer.write("abcdefgÿ");
+    this.writer.write('é');
+    assertContent("123äöü7" + "abcdefgÿ" + "é");
+  }
+
+  @Test
+  void writeCharArrayServeralSegments() throws IOException {
+    this.writer.write("123äöü7".toCharArray());
+    this.writer.write("abcdefgÿ".toCharArray());
+    this.writer.write('é');
+    assertContent("123äöü7" + "abcdefgÿ" + "é");
+  }
+
+  @Test
+  void appendServeralSegments() throws IOException {
+    this.writer.append(new StringBuilder("123äöü7"));
+    this.writer.append("abcdefgÿ");
+    this.writer.append('é');
+    assertContent("123äöü7" + "abcdefgÿ" + "é");
+  }
+
+  @Test
+  void writeNonLatin1() throws IOException {
+    this.writer.write("ä€ö");
+    this.writer.write("äĀö".toCharArray());
+    this.writer.append(new StringBuilder("ä\u0100ö"));
+    assertContent("ä?ö" + "ä?ö" + "ä?ö");
+  }
+
+  private void assertContent(String expected) throws IOException {
+    this.writer.flush();
+    assertEquals(expected, new String(this.outputStream.toByteArray(), ISO_8859_1));
+  }
+
+}
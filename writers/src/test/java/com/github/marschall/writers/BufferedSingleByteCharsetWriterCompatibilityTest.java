@@ -0,0 +1,20 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+import java.io.OutputStream;
+import java.io.Writer;
+
+class BufferedSingleByteCharsetWriterCompatibilityTest extends AbstractPrintWriterCompatibilityTest {
+
+  @Override
+  Writer newWriter(OutputStream out) {
+    return new BufferedSingleByteCharsetWriter(out, ISO_8859_1);
+  }
+
+  @Override
+  char unmappableChar() {
+    return 'Ā';
+  }
+
+}
@@ -0,0 +1,153 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_16;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class BufferedSingleByteCharsetWriterTest {
+
+  private static final String[] CHARSETS = {"windows-1252", "ISO-8859-15", "IBM037", "US-ASCII"};
+
+  private static final String[] INPUTS = {
+    "1234567",
+    "abc€efgh",
+    "äöü ÄÖÜ ß Ÿ Š œ",
+    "Ā€\u0080¤",
+    "ab😀cdefgh😀",
+    "\uD83Dx",
+    "x\uDE00",
+    "long ASCII prefix äöü then a long ASCII suffix"
+  };
+
+  static Stream<Arguments> inputs() {
+    Stream.Builder<Arguments> arguments = Stream.builder();
+    for (String charset : CHARSETS) {
+      for (String input : INPUTS) {
+        arguments.add(Arguments.of(charset, input));
+      }
+    }
+    return arguments.build();
+  }
+
+  @ParameterizedTest(name = "{0} {1}")
+  @MethodSource("inputs")
+  void writeString(String charsetName, String input) throws IOException {
+    assertEncoded(Charset.forName(charsetName), input, writer -> writer.write(input));
+  }
+
+  @ParameterizedTest(name = "{0} {1}")
+  @MethodSource("inputs")
+  void writeCharArray(String charsetName, String input) throws IOException {
+    assertEncoded(Charset.forName(charsetName), input, writer -> writer.write(input.toCharArray()));
+  }
+
+  @ParameterizedTest(name = "{0} {1}")
+  @MethodSource("inputs")
+  void appendCharSequence(String charsetName, String input) throws IOException {
+    assertEncoded(Charset.forName(charsetName), input, writer -> writer.append(new StringBuilder(input)));
+  }
+
+  @ParameterizedTest(name = "{0} {1}")
+  @MethodSource("inputs")
+  void singleChars(String charsetName, String input) throws IOException {
+    Charset charset = Charset.forName(charsetName);
+    for (int bufferSize = 1; bufferSize < 4; bufferSize++) {
+      ByteArrayOutputStream actual = new ByteArrayOutputStream();
+      try (Writer writer = new BufferedSingleByteCharsetWriter(actual, charset, bufferSize)) {
+        for (int i = 0; i < input.length(); i++) {
+          writer.write(input.charAt(i));
+        }
+      }
+      ByteArrayOutputStream expected = new ByteArrayOutputStream();
+      try (Writer writer = new OutputStreamWriter(expected, charset)) {
+        for (int i = 0; i < input.length(); i++) {
+          // a high surrogate is kept across flushes and replaced together with its low surrogate
+          writer.write(input.charAt(i));
+          writer.flush();
+        }
+      }
+      assertArrayEquals(expected.toByteArray(), actual.toByteArray(), "buffer size: " + bufferSize);
+    }
+  }
+
+  @Test
+  void surrogatePairSplitAcrossWrites() throws IOException {
+    Charset charset = Charset.forName("windows-1252");
+    ByteArrayOutputStream actual = new ByteArrayOutputStream();
+    try (Writer writer = new BufferedSingleByteCharsetWriter(actual, charset, 4)) {
+      writer.write("ab\uD83D");
+      writer.flush();
+      writer.write("\uDE00c".toCharArray());
+      writer.append(new StringBuilder("d\uD83D"));
+    }
+    assertArrayEquals("ab?cd?".getBytes(US_ASCII), actual.toByteArray());
+  }
+
+  @Test
+  void isSupported() {
+    assertTrue(BufferedSingleByteCharsetWriter.isSupported(Charset.forName("windows-1252")));
+    assertTrue(BufferedSingleByteCharsetWriter.isSupported(Charset.forName("IBM037")));
+    assertTrue(BufferedSingleByteCharsetWriter.isSupported(US_ASCII));
+    assertFalse(BufferedSingleByteCharsetWriter.isSupported(UTF_8));
+    assertFalse(BufferedSingleByteCharsetWriter.isSupported(UTF_16));
+  }
+
+  @Test
+  void unsupportedCharset() {
+    OutputStream out = new ByteArrayOutputStream();
+    assertThrows(IllegalArgumentException.class, () -> new BufferedSingleByteCharsetWriter(out, UTF_8));
+  }
+
+  @Test
+  void tablesAreShared() {
+    Charset charset = Charset.forName("windows-1252");
+    assertTrue(SingleByteEncodingTable.forCharset(charset) == SingleByteEncodingTable.forCharset(charset));
+  }
+
+  private static void assertEncoded(Charset charset, String input, WriterCallback callback) throws IOException {
+    // buffer sizes that split the input at every position, a buffer of
+    // size 1 would split surrogate pairs
+    for (int bufferSize = 2; bufferSize <= (input.length() + 1); bufferSize++) {
+      ByteArrayOutputStream actual = new ByteArrayOutputStream();
+      try (Writer writer = new BufferedSingleByteCharsetWriter(actual, charset, bufferSize)) {
+        writer.write('<');
+        callback.write(writer);
+        writer.write('>');
+      }
+      ByteArrayOutputStream expected = new ByteArrayOutputStream();
+      try (Writer writer = new OutputStreamWriter(expected, charset)) {
+        writer.write('<');
+        writer.flush();
+        callback.write(writer);
+        writer.flush();
+        writer.write('>');
+      }
+      assertArrayEquals(expected.toByteArray(), actual.toByteArray(), "buffer size: " + bufferSize);
+    }
+  }
+
+  @FunctionalInterface
+  interface WriterCallback {
+
+    void write(Writer writer) throws IOException;
+
+  }
+
+}
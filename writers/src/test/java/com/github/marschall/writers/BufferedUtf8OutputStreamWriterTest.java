@@ -0,0 +1,120 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class BufferedUtf8OutputStreamWriterTest {
+
+  private static final String MIXED = "abcäöü xyz €€ 123 🐻!";
+
+  @ParameterizedTest
+  @ValueSource(ints = {4, 5, 6, 7, 8192})
+  void writeString(int bufferSize) throws IOException {
+    assertCompatible(bufferSize, writer -> writer.write(MIXED));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {4, 5, 6, 7, 8192})
+  void writeCharArray(int bufferSize) throws IOException {
+    assertCompatible(bufferSize, writer -> writer.write(MIXED.toCharArray()));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {4, 5, 6, 7, 8192})
+  void appendCharSequence(int bufferSize) throws IOException {
+    assertCompatible(bufferSize, writer -> writer.append(new StringBuilder(MIXED)));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {4, 5, 6, 7, 8192})
+  void writeSingleChars(int bufferSize) throws IOException {
+    assertCompatible(bufferSize, writer -> {
+      for (int i = 0; i < MIXED.length(); i++) {
+        writer.write(MIXED.charAt(i));
+      }
+    });
+  }
+
+  @Test
+  void surrogatePairSplitAcrossStrings() throws IOException {
+    assertCompatible(8192, writer -> {
+      writer.write("a\uD83D");
+      writer.write("\uDC3Bb");
+    });
+  }
+
+  @Test
+  void surrogatePairSplitAcrossFlush() throws IOException {
+    assertCompatible(8192, writer -> {
+      writer.write("a\uD83D");
+      writer.flush();
+      writer.write("\uDC3Bb");
+    });
+  }
+
+  @Test
+  void surrogatePairSplitAcrossCharArrays() throws IOException {
+    assertCompatible(8192, writer -> {
+      writer.write(new char[] {'a', '\uD83D'});
+      writer.write(new char[] {'\uDC3B', 'b'});
+    });
+  }
+
+  @Test
+  void unpairedHighSurrogate() throws IOException {
+    assertCompatible(8192, writer -> writer.write("a\uD83Db"));
+  }
+
+  @Test
+  void unpairedLowSurrogate() throws IOException {
+    assertCompatible(8192, writer -> writer.write("a\uDC3Bb"));
+  }
+
+  @Test
+  void unpairedHighSurrogateAtEnd() throws IOException {
+    assertCompatible(8192, writer -> writer.write("a\uD83D"));
+  }
+
+  @Test
+  void writeAfterClose() throws IOException {
+    Writer writer = new BufferedUtf8OutputStreamWriter(new ByteArrayOutputStream());
+    writer.close();
+    assertThrows(IOException.class, () -> writer.write("x"));
+  }
+
+  @Test
+  void bufferSizeTooSmall() {
+    assertThrows(IllegalArgumentException.class, () -> new BufferedUtf8OutputStreamWriter(new ByteArrayOutputStream(), 3));
+  }
+
+  private static void assertCompatible(int bufferSize, WriterAction action) throws IOException {
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    try (Writer writer = new OutputStreamWriter(expected, UTF_8)) {
+      action.write(writer);
+    }
+
+    ByteArrayOutputStream actual = new ByteArrayOutputStream();
+    try (Writer writer = new BufferedUtf8OutputStreamWriter(actual, bufferSize)) {
+      action.write(writer);
+    }
+    assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+  }
+
+  @FunctionalInterface
+  interface WriterAction {
+
+    void write(Writer writer) throws IOException;
+
+  }
+
+}
@@ -0,0 +1,14 @@
+package com.github.marschall.writers;
+
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+
+class ChannelAsciiWriterCompatibilityTest extends AbstractPrintWriterCompatibilityTest {
+
+  @Override
+  Writer newWriter(OutputStream out) {
+    return new ChannelAsciiWriter(Channels.newChannel(out));
+  }
+
+}
@@ -0,0 +1,172 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ChannelAsciiWriterTest {
+
+  private PartialWriteChannel channel;
+  private ChannelAsciiWriter writer;
+
+  @BeforeEach
+  void setUp() {
+    this.channel = new PartialWriteChannel();
+    this.writer = new ChannelAsciiWriter(this.channel, 4);
+  }
+
+  @Test
+  void writeStringServeralSegments() throws IOException {
+    this.writer.write("1234567");
+    this.writer.write("abc€efgh");
+    this.writer.write('Z');
+    assertContent("1234567" + "abc?efgh" + "Z");
+  }
+
+  @Test
+  void writeCharArrayServeralSegments() throws IOException {
+    this.writer.write("1234567".toCharArray());
+    this.writer.write("abc€efgh".toCharArray());
+    this.writer.write('Z');
+    assertContent("1234567" + "abc?efgh" + "Z");
+  }
+
+  @Test
+  void appendServeralSegments() throws IOException {
+    this.writer.append(new StringBuilder("1234567"));
+    this.writer.append(new StringBuilder("abc€efgh"));
+    this.writer.append('Z');
+    assertContent("1234567" + "abc?efgh" + "Z");
+  }
+
+  @Test
+  void close() throws IOException {
+    this.writer.write("1234567");
+    this.writer.close();
+    assertFalse(this.channel.isOpen());
+    assertEquals("1234567", this.channel.getContent());
+    assertThrows(IOException.class, () -> this.writer.write("x"));
+  }
+
+  @Test
+  void nonBlockingChannel() throws IOException {
+    Pipe pipe = Pipe.open();
+    pipe.sink().configureBlocking(false);
+    String content = "0123456789abcdef".repeat(64 * 1024);
+    CompletableFuture<String> read = CompletableFuture.supplyAsync(() -> {
+      ByteArrayOutputStream received = new ByteArrayOutputStream();
+      ByteBuffer readBuffer = ByteBuffer.allocate(1024);
+      try (Pipe.SourceChannel source = pipe.source()) {
+        while (source.read(readBuffer) != -1) {
+          received.write(readBuffer.array(), 0, readBuffer.position());
+          readBuffer.clear();
+        }
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+      return new String(received.toByteArray(), US_ASCII);
+    });
+    assertTimeoutPreemptively(Duration.ofSeconds(10L), () -> {
+      try (ChannelAsciiWriter nonBlocking = new ChannelAsciiWriter(pipe.sink(), 1024)) {
+        nonBlocking.write(content);
+      }
+      assertEquals(content, read.join());
+    });
+  }
+
+  @Test
+  void interruptedWhileChannelNotReady() {
+    ChannelAsciiWriter stuck = new ChannelAsciiWriter(new NeverReadyChannel(), 4);
+    Thread.currentThread().interrupt();
+    try {
+      assertThrows(InterruptedIOException.class, () -> stuck.write("0123456789"));
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
+  @Test
+  void readOnlyBuffer() {
+    assertThrows(IllegalArgumentException.class, () -> new ChannelAsciiWriter(this.channel, ByteBuffer.allocate(4).asReadOnlyBuffer()));
+  }
+
+  private void assertContent(String expected) throws IOException {
+    this.writer.flush();
+    assertEquals(expected, this.channel.getContent());
+  }
+
+  /**
+   * Simulates a non-blocking channel that alternates between accepting
+   * nothing and accepting only a single byte.
+   */
+  static final class PartialWriteChannel implements WritableByteChannel {
+
+    private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+    private boolean open = true;
+
+    private boolean ready = false;
+
+    @Override
+    public boolean isOpen() {
+      return this.open;
+    }
+
+    @Override
+    public void close() {
+      this.open = false;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+      this.ready = !this.ready;
+      if (!this.ready || !src.hasRemaining()) {
+        return 0;
+      }
+      this.content.write(src.get());
+      return 1;
+    }
+
+    String getContent() {
+      return new String(this.content.toByteArray(), US_ASCII);
+    }
+
+  }
+
+  /**
+   * Simulates a non-blocking channel that never accepts any bytes.
+   */
+  static final class NeverReadyChannel implements WritableByteChannel {
+
+    @Override
+    public boolean isOpen() {
+      return true;
+    }
+
+    @Override
+    public void close() {
+      // nothing to close
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+      return 0;
+    }
+
+  }
+
+}
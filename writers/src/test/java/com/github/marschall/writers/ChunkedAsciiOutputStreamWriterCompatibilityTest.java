@@ -0,0 +1,14 @@
+package com.github.marschall.writers;
+
+import java.io.OutputStream;
+import java.io.Writer;
+
+class ChunkedAsciiOutputStreamWriterCompatibilityTest extends AbstractPrintWriterCompatibilityTest {
+
+  @Override
+  Writer newWriter(OutputStream out) {
+    // smaller than most inputs so that several chunks are written
+    return new AsciiOutputStreamWriter(out, 2);
+  }
+
+}
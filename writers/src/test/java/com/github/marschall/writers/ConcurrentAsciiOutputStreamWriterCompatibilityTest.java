@@ -0,0 +1,13 @@
+package com.github.marschall.writers;
+
+import java.io.OutputStream;
+import java.io.Writer;
+
+class ConcurrentAsciiOutputStreamWriterCompatibilityTest extends AbstractPrintWriterCompatibilityTest {
+
+  @Override
+  Writer newWriter(OutputStream out) {
+    return new ConcurrentAsciiOutputStreamWriter(out);
+  }
+
+}
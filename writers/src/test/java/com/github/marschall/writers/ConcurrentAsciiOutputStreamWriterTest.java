@@ -0,0 +1,83 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+class ConcurrentAsciiOutputStreamWriterTest {
+
+  private static final int THREADS = 4;
+
+  private static final int RECORDS = 1000;
+
+  @Test
+  void recordsAreNotInterleaved() throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    // smaller than most records so that segmented writes are tested as well
+    Writer writer = new ConcurrentAsciiOutputStreamWriter(outputStream, 8);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<?>> futures = new ArrayList<>(THREADS);
+      for (int i = 0; i < THREADS; i++) {
+        String record = "thread-" + i + "\n";
+        futures.add(executor.submit((Callable<Void>) () -> {
+          for (int j = 0; j < RECORDS; j++) {
+            switch (j % 3) {
+              case 0:
+                writer.write(record);
+                break;
+              case 1:
+                writer.write(record.toCharArray());
+                break;
+              default:
+                writer.append(new StringBuilder(record));
+                break;
+            }
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    writer.flush();
+
+    Map<String, Integer> counts = new HashMap<>();
+    for (String line : new String(outputStream.toByteArray(), US_ASCII).split("\n")) {
+      counts.merge(line, 1, Integer::sum);
+    }
+    Map<String, Integer> expected = new HashMap<>();
+    for (int i = 0; i < THREADS; i++) {
+      expected.put("thread-" + i, RECORDS);
+    }
+    assertEquals(expected, counts);
+  }
+
+  @Test
+  void writeNonAsciiSegmented() throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    Writer writer = new ConcurrentAsciiOutputStreamWriter(outputStream, 4);
+    writer.write("abc€efgh");
+    writer.write("abc€efgh".toCharArray());
+    writer.append(new StringBuilder("abc€efgh"));
+    writer.flush();
+    assertEquals("abc?efgh" + "abc?efgh" + "abc?efgh", new String(outputStream.toByteArray(), US_ASCII));
+  }
+
+}
@@ -0,0 +1,107 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class CsvAsciiWriterTest {
+
+  private static final String[] FIELDS = {
+    "",
+    "plain",
+    "a,b",
+    "say \"hi\"",
+    "\"",
+    "line\r\nbreak",
+    "semi;colon",
+    "caf\u00E9",
+    "\uD83D\uDE00",
+    "a long plain field that is longer than the small buffers",
+    "a long field with a \"quote\" that is longer than the small buffers"
+  };
+
+  @ParameterizedTest
+  @ValueSource(ints = {4, 16, 8192})
+  void writeFields(int bufferSize) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    CsvAsciiWriter writer = new CsvAsciiWriter(new BufferedAsciiOutputStreamWriter(outputStream, bufferSize));
+    StringBuilder expected = new StringBuilder();
+    for (String field : FIELDS) {
+      writer.writeField(field);
+      writer.writeField(-42L);
+      writer.writeField(field);
+      writer.endRecord();
+      expected.append(quote(field, ',')).append(",-42,").append(quote(field, ',')).append("\r\n");
+    }
+    writer.flush();
+    assertEquals(expected.toString(), new String(outputStream.toByteArray(), US_ASCII));
+  }
+
+  @Test
+  void separator() throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    CsvAsciiWriter writer = new CsvAsciiWriter(new BufferedAsciiOutputStreamWriter(outputStream), ';');
+    writer.writeField("a,b");
+    writer.writeField("c;d");
+    writer.writeField(null);
+    writer.writeField(1L);
+    writer.endRecord();
+    writer.writeField(2L);
+    writer.endRecord();
+    writer.flush();
+    assertEquals("a,b;\"c;d\";;1\r\n2\r\n", new String(outputStream.toByteArray(), US_ASCII));
+  }
+
+  @Test
+  void unmappablePolicy() throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    BufferedAsciiOutputStreamWriter out = new BufferedAsciiOutputStreamWriter(outputStream, 8192, UnmappablePolicy.ESCAPE_XML);
+    CsvAsciiWriter writer = new CsvAsciiWriter(out, ';');
+    writer.writeField("caf\u00E9");
+    writer.writeField("x");
+    writer.endRecord();
+    writer.flush();
+    assertEquals("\"caf&#233;\";x\r\n", new String(outputStream.toByteArray(), US_ASCII));
+  }
+
+  @Test
+  void invalidSeparator() {
+    BufferedAsciiOutputStreamWriter out = new BufferedAsciiOutputStreamWriter(new ByteArrayOutputStream());
+    assertThrows(IllegalArgumentException.class, () -> new CsvAsciiWriter(out, '"'));
+    assertThrows(IllegalArgumentException.class, () -> new CsvAsciiWriter(out, '\n'));
+    assertThrows(IllegalArgumentException.class, () -> new CsvAsciiWriter(out, '\u00A7'));
+  }
+
+  private static String quote(String field, char separator) {
+    boolean quote = false;
+    for (int i = 0; i < field.length(); i++) {
+      char c = field.charAt(i);
+      if ((c == separator) || (c == '"') || (c == '\r') || (c == '\n') || (c > 0x7F)) {
+        quote = true;
+      }
+    }
+    if (!quote) {
+      return field;
+    }
+    StringBuilder buffer = new StringBuilder().append('"');
+    for (int i = 0; i < field.length(); i++) {
+      char c = field.charAt(i);
+      if (c == '"') {
+        buffer.append("\"\"");
+      } else if (c > 0x7F) {
+        buffer.append('?');
+      } else {
+        buffer.append(c);
+      }
+    }
+    return buffer.append('"').toString();
+  }
+
+}
@@ -0,0 +1,192 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class DoubleToDecimalTest {
+
+  @ParameterizedTest
+  @CsvSource({
+    "0.0, 0.0",
+    "-0.0, -0.0",
+    "1.0, 1.0",
+    "-1.5, -1.5",
+    "0.1, 0.1",
+    "100.0, 100.0",
+    "1.0E7, 1.0E7",
+    "9999999.0, 9999999.0",
+    "0.001, 0.001",
+    "1.0E-4, 1.0E-4",
+    "2.0E23, 2.0E23",
+    "1.0E23, 1.0E23",
+    "4.9E-324, 4.9E-324",
+    "1.7976931348623157E308, 1.7976931348623157E308",
+    "-2.2250738585072014E-308, -2.2250738585072014E-308",
+    "NaN, NaN",
+    "Infinity, Infinity",
+    "-Infinity, -Infinity"
+  })
+  void writeDouble(double d, String expected) {
+    assertEquals(expected, format(d));
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    "0.0, 0.0",
+    "-0.0, -0.0",
+    "1.0, 1.0",
+    "0.1, 0.1",
+    "1.0E7, 1.0E7",
+    "1.4E-45, 1.4E-45",
+    "3.4028235E38, 3.4028235E38",
+    "-1.17549435E-38, -1.1754944E-38",
+    "NaN, NaN",
+    "-Infinity, -Infinity"
+  })
+  void writeFloat(float f, String expected) {
+    assertEquals(expected, format(f));
+  }
+
+  @Test
+  void writeSubnormals() {
+    for (long bits = 1L; bits < 10_000L; bits++) {
+      double d = Double.longBitsToDouble(bits);
+      assertEquals(reference(d), format(d));
+    }
+    for (int bits = 1; bits < 10_000; bits++) {
+      float f = Float.intBitsToFloat(bits);
+      assertEquals(reference(f), format(f));
+    }
+  }
+
+  @Test
+  void writeRandomDoubles() {
+    SplittableRandom random = new SplittableRandom(42L);
+    for (int i = 0; i < 100_000; i++) {
+      double d = Double.longBitsToDouble(random.nextLong());
+      if (Double.isNaN(d)) {
+        continue;
+      }
+      String formatted = format(d);
+      assertEquals(d, Double.parseDouble(formatted), formatted);
+      assertEquals(reference(d), formatted);
+      // older versions of Java sometimes produce more digits than necessary
+      assertTrue(formatted.length() <= Double.toString(d).length(), formatted);
+    }
+  }
+
+  @Test
+  void writeRandomFloats() {
+    SplittableRandom random = new SplittableRandom(42L);
+    for (int i = 0; i < 100_000; i++) {
+      float f = Float.intBitsToFloat(random.nextInt());
+      if (Float.isNaN(f)) {
+        continue;
+      }
+      String formatted = format(f);
+      assertEquals(f, Float.parseFloat(formatted), formatted);
+      assertEquals(reference(f), formatted);
+      assertTrue(formatted.length() <= Float.toString(f).length(), formatted);
+    }
+  }
+
+  /**
+   * The format of {@link Double#toString(double)} on Java 19+ computed
+   * with {@link BigDecimal}.
+   */
+  private static String reference(double d) {
+    if (d < 0.0d) {
+      return "-" + reference(-d);
+    }
+    BigDecimal upperNeighbour = d == Double.MAX_VALUE
+            ? new BigDecimal(d).add(new BigDecimal(Math.ulp(d)))
+            : new BigDecimal(Math.nextUp(d));
+    return reference(new BigDecimal(d), new BigDecimal(Math.nextDown(d)), upperNeighbour,
+            (Double.doubleToRawLongBits(d) & 1L) == 0L);
+  }
+
+  private static String reference(float f) {
+    if (f < 0.0f) {
+      return "-" + reference(-f);
+    }
+    BigDecimal upperNeighbour = f == Float.MAX_VALUE
+            ? new BigDecimal(f).add(new BigDecimal(Math.ulp(f)))
+            : new BigDecimal(Math.nextUp(f));
+    return reference(new BigDecimal(f), new BigDecimal(Math.nextDown(f)), upperNeighbour,
+            (Float.floatToRawIntBits(f) & 1) == 0);
+  }
+
+  private static String reference(BigDecimal value, BigDecimal lowerNeighbour, BigDecimal upperNeighbour, boolean boundariesIncluded) {
+    BigDecimal two = BigDecimal.valueOf(2L);
+    BigDecimal lower = value.add(lowerNeighbour).divide(two);
+    BigDecimal upper = value.add(upperNeighbour).divide(two);
+    int exponent = value.precision() - value.scale() - 1;
+    // the shortest length, at least two digits
+    for (int length = 2; ; length++) {
+      BigDecimal unit = BigDecimal.ONE.scaleByPowerOfTen(exponent - length + 1);
+      BigDecimal down = value.divide(unit, 0, RoundingMode.FLOOR).multiply(unit);
+      BigDecimal up = down.add(unit);
+      boolean downInside = isInside(down, lower, upper, boundariesIncluded);
+      boolean upInside = isInside(up, lower, upper, boundariesIncluded);
+      if (downInside && upInside) {
+        int comparison = value.subtract(down).compareTo(up.subtract(value));
+        boolean downEven = !down.divide(unit).toBigIntegerExact().testBit(0);
+        return referenceFormat((comparison < 0) || ((comparison == 0) && downEven) ? down : up);
+      } else if (downInside || upInside) {
+        return referenceFormat(downInside ? down : up);
+      }
+    }
+  }
+
+  private static boolean isInside(BigDecimal decimal, BigDecimal lower, BigDecimal upper, boolean boundariesIncluded) {
+    if (decimal.signum() == 0) {
+      return false;
+    }
+    int lowerComparison = decimal.compareTo(lower);
+    int upperComparison = decimal.compareTo(upper);
+    if (boundariesIncluded) {
+      return (lowerComparison >= 0) && (upperComparison <= 0);
+    } else {
+      return (lowerComparison > 0) && (upperComparison < 0);
+    }
+  }
+
+  private static String referenceFormat(BigDecimal decimal) {
+    BigDecimal stripped = decimal.stripTrailingZeros();
+    String digits = stripped.unscaledValue().toString();
+    int exponent = stripped.precision() - stripped.scale() - 1;
+    if ((exponent >= -3) && (exponent < 7)) {
+      if (exponent < 0) {
+        return "0." + "0".repeat(-exponent - 1) + digits;
+      } else if (digits.length() <= (exponent + 1)) {
+        return digits + "0".repeat(exponent + 1 - digits.length()) + ".0";
+      } else {
+        return digits.substring(0, exponent + 1) + "." + digits.substring(exponent + 1);
+      }
+    }
+    String fraction = digits.length() == 1 ? "0" : digits.substring(1);
+    return digits.charAt(0) + "." + fraction + "E" + exponent;
+  }
+
+  private static String format(double d) {
+    byte[] buffer = new byte[DoubleToDecimal.MAX_LENGTH + 1];
+    int end = DoubleToDecimal.write(d, buffer, 1);
+    return new String(buffer, 1, end - 1, US_ASCII);
+  }
+
+  private static String format(float f) {
+    byte[] buffer = new byte[FloatToDecimal.MAX_LENGTH + 1];
+    int end = FloatToDecimal.write(f, buffer, 1);
+    return new String(buffer, 1, end - 1, US_ASCII);
+  }
+
+}
@@ -0,0 +1,62 @@
+package com.github.marschall.writers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+
+class GatheringAsciiWriterCompatibilityTest extends AbstractPrintWriterCompatibilityTest {
+
+  @Override
+  Writer newWriter(OutputStream out) {
+    return new GatheringAsciiWriter(new OutputStreamChannel(out));
+  }
+
+  static final class OutputStreamChannel implements GatheringByteChannel {
+
+    private final OutputStream out;
+
+    private boolean open = true;
+
+    OutputStreamChannel(OutputStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return this.open;
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.open = false;
+      this.out.close();
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+      int written = src.remaining();
+      while (src.hasRemaining()) {
+        this.out.write(src.get());
+      }
+      return written;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+      long written = 0L;
+      for (int i = offset; i < offset + length; i++) {
+        written += this.write(srcs[i]);
+      }
+      return written;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs) throws IOException {
+      return this.write(srcs, 0, srcs.length);
+    }
+
+  }
+
+}
@@ -0,0 +1,245 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class GatheringAsciiWriterTest {
+
+  @Test
+  void singleGatheringWrite() throws IOException {
+    RecordingChannel channel = new RecordingChannel(false);
+    GatheringAsciiWriter writer = new GatheringAsciiWriter(channel);
+    ByteBuffer payload = ascii(GatheringAsciiWriter.COPY_THRESHOLD);
+    String expected = "header: 1\r\nsmall\r\n" + content(payload) + "trailer";
+    writer.write("header: 1\r\n");
+    writer.write(ByteBuffer.wrap("small".getBytes(US_ASCII)));
+    writer.write("\r\n");
+    writer.write(payload);
+    writer.write("trailer");
+    writer.flush();
+
+    assertEquals(expected, channel.getContent());
+    assertEquals(1, channel.getGatheringWrites());
+    assertEquals(3, channel.getSegmentCounts().get(0));
+    assertSame(payload, channel.getLastSegments()[1]);
+    assertFalse(payload.hasRemaining());
+  }
+
+  @Test
+  void partialWrites() throws IOException {
+    RecordingChannel channel = new RecordingChannel(true);
+    GatheringAsciiWriter writer = new GatheringAsciiWriter(channel, 4, 2);
+    ByteBuffer first = ascii(GatheringAsciiWriter.COPY_THRESHOLD);
+    ByteBuffer second = ascii(GatheringAsciiWriter.COPY_THRESHOLD + 1);
+    String expected = "1234567" + content(first) + "abc?efgh" + content(second) + "Z";
+    writer.write("1234567");
+    writer.write(first);
+    writer.write("abc\u20ACefgh".toCharArray());
+    writer.write(second);
+    writer.append('Z');
+    writer.flush();
+
+    assertEquals(expected, channel.getContent());
+  }
+
+  @Test
+  void segmentArrayFull() throws IOException {
+    RecordingChannel channel = new RecordingChannel(false);
+    GatheringAsciiWriter writer = new GatheringAsciiWriter(channel, 8192, 3);
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 5; i++) {
+      ByteBuffer payload = ascii(GatheringAsciiWriter.COPY_THRESHOLD + i);
+      expected.append(i).append(content(payload));
+      writer.write(Integer.toString(i));
+      writer.write(payload);
+    }
+    writer.flush();
+
+    assertEquals(expected.toString(), channel.getContent());
+    for (int segmentCount : channel.getSegmentCounts()) {
+      assertTrue(segmentCount <= 3);
+    }
+  }
+
+  @Test
+  void failedWriteKeepsSegments() throws IOException {
+    RecordingChannel channel = new RecordingChannel(false);
+    GatheringAsciiWriter writer = new GatheringAsciiWriter(channel, 8192, 3);
+    ByteBuffer payload = ascii(GatheringAsciiWriter.COPY_THRESHOLD);
+    String expected = "header" + content(payload) + "trailer";
+    writer.write("header");
+    writer.write(payload);
+    channel.failNextWrite();
+    assertThrows(IOException.class, writer::flush);
+    assertEquals("header", channel.getContent());
+
+    writer.write("trailer");
+    writer.flush();
+    assertEquals(expected, channel.getContent());
+  }
+
+  @Test
+  void failedWriteWithFullSegmentArray() throws IOException {
+    RecordingChannel channel = new RecordingChannel(false);
+    GatheringAsciiWriter writer = new GatheringAsciiWriter(channel, 8192, 2);
+    ByteBuffer payload = ascii(GatheringAsciiWriter.COPY_THRESHOLD);
+    String expected = "header" + content(payload) + "trailer";
+    writer.write("header");
+    channel.failNextWrite();
+    // the segment array is full and written immediately
+    assertThrows(IOException.class, () -> writer.write(payload));
+
+    writer.write("trailer");
+    writer.flush();
+    assertEquals(expected, channel.getContent());
+  }
+
+  @Test
+  void close() throws IOException {
+    RecordingChannel channel = new RecordingChannel(false);
+    GatheringAsciiWriter writer = new GatheringAsciiWriter(channel);
+    writer.write("1234567");
+    writer.close();
+    assertFalse(channel.isOpen());
+    assertEquals("1234567", channel.getContent());
+    assertThrows(IOException.class, () -> writer.write("x"));
+  }
+
+  @Test
+  void invalidArguments() {
+    RecordingChannel channel = new RecordingChannel(false);
+    assertThrows(IllegalArgumentException.class, () -> new GatheringAsciiWriter(channel, 0, 16));
+    assertThrows(IllegalArgumentException.class, () -> new GatheringAsciiWriter(channel, 8192, 1));
+  }
+
+  private static ByteBuffer ascii(int length) {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(length);
+    for (int i = 0; i < length; i++) {
+      buffer.put((byte) ('a' + (i % 26)));
+    }
+    return buffer.flip();
+  }
+
+  private static String content(ByteBuffer buffer) {
+    ByteBuffer duplicate = buffer.duplicate();
+    byte[] bytes = new byte[duplicate.remaining()];
+    duplicate.get(bytes);
+    return new String(bytes, US_ASCII);
+  }
+
+  /**
+   * Records gathering writes, optionally simulates a non-blocking channel
+   * that alternates between accepting nothing and accepting only a single
+   * byte.
+   */
+  static final class RecordingChannel implements GatheringByteChannel {
+
+    private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+    private final List<Integer> segmentCounts = new ArrayList<>();
+
+    private final boolean partial;
+
+    private ByteBuffer[] lastSegments;
+
+    private boolean open = true;
+
+    private boolean ready = false;
+
+    private boolean failNext = false;
+
+    RecordingChannel(boolean partial) {
+      this.partial = partial;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return this.open;
+    }
+
+    @Override
+    public void close() {
+      this.open = false;
+    }
+
+    /**
+     * Makes the next gathering write fail after the first segment has
+     * been written.
+     */
+    void failNextWrite() {
+      this.failNext = true;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+      this.segmentCounts.add(length);
+      this.lastSegments = srcs.clone();
+      if (this.failNext) {
+        this.failNext = false;
+        this.write(srcs[offset]);
+        throw new IOException("simulated failure");
+      }
+      long written = 0L;
+      for (int i = offset; i < offset + length; i++) {
+        written += this.write(srcs[i]);
+        if (this.partial) {
+          break;
+        }
+      }
+      return written;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs) throws IOException {
+      return this.write(srcs, 0, srcs.length);
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+      if (this.partial) {
+        this.ready = !this.ready;
+        if (!this.ready || !src.hasRemaining()) {
+          return 0;
+        }
+        this.content.write(src.get());
+        return 1;
+      }
+      int written = src.remaining();
+      while (src.hasRemaining()) {
+        this.content.write(src.get());
+      }
+      return written;
+    }
+
+    int getGatheringWrites() {
+      return this.segmentCounts.size();
+    }
+
+    List<Integer> getSegmentCounts() {
+      return this.segmentCounts;
+    }
+
+    ByteBuffer[] getLastSegments() {
+      return this.lastSegments;
+    }
+
+    String getContent() {
+      return new String(this.content.toByteArray(), US_ASCII);
+    }
+
+  }
+
+}
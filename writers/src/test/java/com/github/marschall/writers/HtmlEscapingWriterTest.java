@@ -0,0 +1,112 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class HtmlEscapingWriterTest {
+
+  private static final String[] INPUTS = {
+    "",
+    "plain ASCII text",
+    "<a href=\"x\">Tom & Jerry's</a>",
+    "caf\u00E9 \u20AC",
+    "\uD83D\uDE00",
+    "unpaired \uDE00 low and \uD83D high",
+    "a long plain prefix followed by <escapes> & a long plain suffix",
+    "a long plain prefix followed by non-ASCII caf\u00E9 \uD83D\uDE00 and a long plain suffix"
+  };
+
+  @ParameterizedTest
+  @ValueSource(ints = {4, 16, 8192})
+  void write(int bufferSize) throws IOException {
+    for (String input : INPUTS) {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      BufferedAsciiOutputStreamWriter out = new BufferedAsciiOutputStreamWriter(outputStream, bufferSize);
+      HtmlEscapingWriter writer = new HtmlEscapingWriter(out);
+      writer.write(input);
+      out.write('|');
+      writer.write(input.toCharArray());
+      out.write('|');
+      writer.append(new StringBuilder(input));
+      out.write('|');
+      for (int i = 0; i < input.length(); i++) {
+        writer.write(input.charAt(i));
+      }
+      writer.flush();
+      String escaped = escape(input);
+      assertEquals(escaped + '|' + escaped + '|' + escaped + '|' + escaped, new String(outputStream.toByteArray(), US_ASCII), input);
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {4, 8192})
+  void splitSurrogatePair(int bufferSize) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    HtmlEscapingWriter writer = new HtmlEscapingWriter(new BufferedAsciiOutputStreamWriter(outputStream, bufferSize));
+    writer.write("a\uD83D");
+    writer.flush();
+    writer.write("\uDE00b\uD83D");
+    writer.write("c");
+    writer.write('\uD83D');
+    writer.close();
+    assertEquals("a&#128512;b&#65533;c&#65533;", new String(outputStream.toByteArray(), US_ASCII));
+  }
+
+  @Test
+  void attribute() throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    BufferedAsciiOutputStreamWriter out = new BufferedAsciiOutputStreamWriter(outputStream);
+    HtmlEscapingWriter writer = new HtmlEscapingWriter(out);
+    out.write("<p title=\"");
+    writer.write("\"quoted\"");
+    out.write("\">");
+    writer.write("1 < 2");
+    out.write("</p>");
+    writer.flush();
+    assertEquals("<p title=\"&quot;quoted&quot;\">1 &lt; 2</p>", new String(outputStream.toByteArray(), US_ASCII));
+  }
+
+  private static String escape(String s) {
+    StringBuilder buffer = new StringBuilder();
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      switch (c) {
+        case '&':
+          buffer.append("&amp;");
+          break;
+        case '<':
+          buffer.append("&lt;");
+          break;
+        case '>':
+          buffer.append("&gt;");
+          break;
+        case '"':
+          buffer.append("&quot;");
+          break;
+        case '\'':
+          buffer.append("&#39;");
+          break;
+        default:
+          if (c < 0x80) {
+            buffer.append(c);
+          } else if (Character.isHighSurrogate(c) && ((i + 1) < s.length()) && Character.isLowSurrogate(s.charAt(i + 1))) {
+            buffer.append("&#").append(s.codePointAt(i)).append(';');
+            i += 1;
+          } else if (Character.isSurrogate(c)) {
+            buffer.append("&#65533;");
+          } else {
+            buffer.append("&#").append((int) c).append(';');
+          }
+      }
+    }
+    return buffer.toString();
+  }
+
+}
@@ -0,0 +1,41 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class IntegerToDecimalTest {
+
+  @ParameterizedTest
+  @ValueSource(ints = {0, 1, -1, 9, 10, -10, 99, 100, -100, 12345, Integer.MIN_VALUE, Integer.MAX_VALUE})
+  void writeInt(int i) {
+    byte[] buffer = new byte[IntegerToDecimal.MAX_INT_LENGTH + 1];
+    int end = IntegerToDecimal.writeInt(i, buffer, 1);
+    assertEquals(Integer.toString(i), new String(buffer, 1, end - 1, US_ASCII));
+  }
+
+  @ParameterizedTest
+  @ValueSource(longs = {0L, 1L, -1L, 2147483648L, -2147483649L, 1_000_000_000_000L, Long.MIN_VALUE, Long.MAX_VALUE})
+  void writeLong(long l) {
+    byte[] buffer = new byte[IntegerToDecimal.MAX_LONG_LENGTH + 1];
+    int end = IntegerToDecimal.writeLong(l, buffer, 1);
+    assertEquals(Long.toString(l), new String(buffer, 1, end - 1, US_ASCII));
+  }
+
+  @Test
+  void writeRandomLongs() {
+    SplittableRandom random = new SplittableRandom(42L);
+    byte[] buffer = new byte[IntegerToDecimal.MAX_LONG_LENGTH];
+    for (int i = 0; i < 100_000; i++) {
+      long l = random.nextLong() >> random.nextInt(64);
+      int end = IntegerToDecimal.writeLong(l, buffer, 0);
+      assertEquals(Long.toString(l), new String(buffer, 0, end, US_ASCII));
+    }
+  }
+
+}
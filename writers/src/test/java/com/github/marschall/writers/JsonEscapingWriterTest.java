@@ -0,0 +1,97 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class JsonEscapingWriterTest {
+
+  private static final String[] INPUTS = {
+    "",
+    "plain ASCII text",
+    "\"quoted\"",
+    "back\\slash",
+    "line\nbreak\r\ttab\b\f",
+    "\u0000\u001F\u007F",
+    "caf\u00E9 \u20AC",
+    "\uD83D\uDE00",
+    "a long plain prefix followed by \"escapes\" and a long plain suffix"
+  };
+
+  @ParameterizedTest
+  @ValueSource(ints = {4, 16, 8192})
+  void writeString(int bufferSize) throws IOException {
+    for (String input : INPUTS) {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      BufferedAsciiOutputStreamWriter out = new BufferedAsciiOutputStreamWriter(outputStream, bufferSize);
+      JsonEscapingWriter writer = new JsonEscapingWriter(out);
+      writer.write(input);
+      writer.write(input.toCharArray());
+      writer.append(new StringBuilder(input));
+      for (int i = 0; i < input.length(); i++) {
+        writer.write(input.charAt(i));
+      }
+      writer.flush();
+      String escaped = escape(input);
+      assertEquals(escaped + escaped + escaped + escaped, new String(outputStream.toByteArray(), US_ASCII), input);
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {4, 8192})
+  void writeQuoted(int bufferSize) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    BufferedAsciiOutputStreamWriter out = new BufferedAsciiOutputStreamWriter(outputStream, bufferSize);
+    JsonEscapingWriter writer = new JsonEscapingWriter(out);
+    out.write("{\"key\":");
+    writer.writeString("value \"1\"");
+    out.write(",\"null\":");
+    writer.writeString(null);
+    out.write('}');
+    writer.flush();
+    assertEquals("{\"key\":\"value \\\"1\\\"\",\"null\":null}", new String(outputStream.toByteArray(), US_ASCII));
+  }
+
+  private static String escape(String s) {
+    StringBuilder buffer = new StringBuilder();
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      switch (c) {
+        case '"':
+          buffer.append("\\\"");
+          break;
+        case '\\':
+          buffer.append("\\\\");
+          break;
+        case '\b':
+          buffer.append("\\b");
+          break;
+        case '\f':
+          buffer.append("\\f");
+          break;
+        case '\n':
+          buffer.append("\\n");
+          break;
+        case '\r':
+          buffer.append("\\r");
+          break;
+        case '\t':
+          buffer.append("\\t");
+          break;
+        default:
+          if ((c < 0x20) || (c >= 0x80)) {
+            buffer.append(String.format("\\u%04X", (int) c));
+          } else {
+            buffer.append(c);
+          }
+      }
+    }
+    return buffer.toString();
+  }
+
+}
@@ -0,0 +1,87 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedAsciiFileWriterTest {
+
+  @TempDir
+  Path temporaryFolder;
+
+  private Path file;
+
+  @BeforeEach
+  void setUp() {
+    this.file = this.temporaryFolder.resolve("mapped.txt");
+  }
+
+  @Test
+  void writeStringServeralWindows() throws IOException {
+    try (Writer writer = new MappedAsciiFileWriter(this.file, 4)) {
+      writer.write("1234567");
+      writer.write("abc€efgh");
+      writer.write('Z');
+    }
+    assertContent("1234567" + "abc?efgh" + "Z");
+  }
+
+  @Test
+  void writeCharArrayServeralWindows() throws IOException {
+    try (Writer writer = new MappedAsciiFileWriter(this.file, 4)) {
+      writer.write("1234567".toCharArray());
+      writer.write("abc€efgh".toCharArray());
+      writer.write('Z');
+    }
+    assertContent("1234567" + "abc?efgh" + "Z");
+  }
+
+  @Test
+  void appendServeralWindows() throws IOException {
+    try (Writer writer = new MappedAsciiFileWriter(this.file, 4)) {
+      writer.append(new StringBuilder("1234567"));
+      writer.append(new StringBuilder("abc€efgh"));
+      writer.append('Z');
+    }
+    assertContent("1234567" + "abc?efgh" + "Z");
+  }
+
+  @Test
+  void truncateExisting() throws IOException {
+    Files.write(this.file, "0123456789".getBytes(US_ASCII));
+    try (Writer writer = new MappedAsciiFileWriter(this.file)) {
+      writer.write("abc");
+    }
+    assertContent("abc");
+  }
+
+  @Test
+  void empty() throws IOException {
+    try (Writer writer = new MappedAsciiFileWriter(this.file)) {
+      writer.flush();
+    }
+    assertContent("");
+  }
+
+  @Test
+  void writeAfterClose() throws IOException {
+    Writer writer = new MappedAsciiFileWriter(this.file);
+    writer.close();
+    writer.close();
+    assertThrows(IOException.class, () -> writer.write("x"));
+  }
+
+  private void assertContent(String expected) throws IOException {
+    assertEquals(expected, new String(Files.readAllBytes(this.file), US_ASCII));
+  }
+
+}
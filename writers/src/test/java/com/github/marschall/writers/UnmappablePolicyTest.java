@@ -0,0 +1,222 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.UnmappableCharacterException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class UnmappablePolicyTest {
+
+  private static final String[] INPUTS = {
+    "abc",
+    "a\u00E9",
+    "\u20ACxyz\u20AC",
+    "a\uD83D\uDE00b",
+    "ab\uD83D\uDE00cdefgh\uD83D\uDE00",
+    "\uD83Dx",
+    "x\uDE00",
+    "long ASCII prefix \u00E4\u00F6\u00FC then a long ASCII suffix",
+    "x".repeat(CharSequences.SCRATCH_SIZE - 1) + "\uD83D\uDE00y"
+  };
+
+  static Stream<Arguments> writers() {
+    List<Arguments> arguments = new ArrayList<>();
+    for (UnmappablePolicy policy : UnmappablePolicy.values()) {
+      for (String input : INPUTS) {
+        arguments.add(Arguments.of("BufferedAscii(4)", writerFactory((out, p) -> new BufferedAsciiOutputStreamWriter(out, 4, p)), policy, input));
+        arguments.add(Arguments.of("BufferedAscii(64)", writerFactory((out, p) -> new BufferedAsciiOutputStreamWriter(out, 64, p)), policy, input));
+        arguments.add(Arguments.of("Ascii", writerFactory(AsciiOutputStreamWriter::new), policy, input));
+        arguments.add(Arguments.of("Ascii(3)", writerFactory((out, p) -> new AsciiOutputStreamWriter(out, 3, p)), policy, input));
+      }
+    }
+    return arguments.stream();
+  }
+
+  private static BiFunction<OutputStream, UnmappablePolicy, Writer> writerFactory(BiFunction<OutputStream, UnmappablePolicy, Writer> factory) {
+    return factory;
+  }
+
+  @ParameterizedTest(name = "{0} {2} {3}")
+  @MethodSource("writers")
+  void writeString(String name, BiFunction<OutputStream, UnmappablePolicy, Writer> factory, UnmappablePolicy policy, String input) throws IOException {
+    assertEncoded(factory, policy, input, writer -> writer.write(input));
+  }
+
+  @ParameterizedTest(name = "{0} {2} {3}")
+  @MethodSource("writers")
+  void writeCharArray(String name, BiFunction<OutputStream, UnmappablePolicy, Writer> factory, UnmappablePolicy policy, String input) throws IOException {
+    assertEncoded(factory, policy, input, writer -> writer.write(input.toCharArray()));
+  }
+
+  @ParameterizedTest(name = "{0} {2} {3}")
+  @MethodSource("writers")
+  void appendCharSequence(String name, BiFunction<OutputStream, UnmappablePolicy, Writer> factory, UnmappablePolicy policy, String input) throws IOException {
+    assertEncoded(factory, policy, input, writer -> writer.append(new StringBuilder(input)));
+  }
+
+  @ParameterizedTest(name = "{0} {2} {3}")
+  @MethodSource("writers")
+  void appendStringBuffer(String name, BiFunction<OutputStream, UnmappablePolicy, Writer> factory, UnmappablePolicy policy, String input) throws IOException {
+    assertEncoded(factory, policy, input, writer -> writer.append(new StringBuffer(input)));
+  }
+
+  @ParameterizedTest(name = "{0} {2} {3}")
+  @MethodSource("writers")
+  void appendHeapCharBuffer(String name, BiFunction<OutputStream, UnmappablePolicy, Writer> factory, UnmappablePolicy policy, String input) throws IOException {
+    CharBuffer buffer = CharBuffer.wrap(("zz" + input + "zz").toCharArray(), 2, input.length());
+    assertEncoded(factory, policy, input, writer -> writer.append(buffer));
+    assertEquals(2, buffer.position());
+  }
+
+  @ParameterizedTest(name = "{0} {2} {3}")
+  @MethodSource("writers")
+  void appendDirectCharBuffer(String name, BiFunction<OutputStream, UnmappablePolicy, Writer> factory, UnmappablePolicy policy, String input) throws IOException {
+    CharBuffer buffer = ByteBuffer.allocateDirect((input.length() + 2) * 2).asCharBuffer();
+    buffer.put("zz").put(input).flip().position(2);
+    assertEncoded(factory, policy, input, writer -> writer.append(buffer));
+    assertEquals(2, buffer.position());
+  }
+
+  @ParameterizedTest
+  @EnumSource(UnmappablePolicy.class)
+  void appendAsciiConstant(UnmappablePolicy policy) throws IOException {
+    for (String input : INPUTS) {
+      if (input.chars().allMatch(c -> c < 128)) {
+        assertEncoded(writerFactory((out, p) -> new BufferedAsciiOutputStreamWriter(out, 4, p)), policy, input, writer -> writer.append(AsciiConstant.of(input), 0, input.length()));
+        assertEncoded(writerFactory((out, p) -> new AsciiOutputStreamWriter(out, 3, p)), policy, input, writer -> writer.append(AsciiConstant.of(input)));
+      }
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(UnmappablePolicy.class)
+  void singleChars(UnmappablePolicy policy) throws IOException {
+    for (Writer writer : new Writer[] {
+        new BufferedAsciiOutputStreamWriter(new ByteArrayOutputStream(), 4, policy),
+        new AsciiOutputStreamWriter(new ByteArrayOutputStream(), policy)}) {
+      if (policy == UnmappablePolicy.REPORT) {
+        writer.write('a');
+        assertThrows(UnmappableCharacterException.class, () -> writer.write('\u00E9'));
+        assertThrows(UnmappableCharacterException.class, () -> writer.append('\u00E9'));
+      } else {
+        writer.write('a');
+        writer.write('\u00E9');
+        writer.append('\u20AC');
+      }
+    }
+  }
+
+  @Test
+  void singleCharsEscaped() throws IOException {
+    ByteArrayOutputStream json = new ByteArrayOutputStream();
+    try (Writer writer = new BufferedAsciiOutputStreamWriter(json, 4, UnmappablePolicy.ESCAPE_JSON)) {
+      writer.write('a');
+      writer.write('\u00E9');
+      writer.append('\u20AC');
+    }
+    assertEquals("a\\u00E9\\u20AC", new String(json.toByteArray(), US_ASCII));
+
+    ByteArrayOutputStream xml = new ByteArrayOutputStream();
+    try (Writer writer = new AsciiOutputStreamWriter(xml, UnmappablePolicy.ESCAPE_XML)) {
+      writer.write('a');
+      writer.write('\u00E9');
+      writer.append('\uD83D');
+    }
+    assertEquals("a&#233;&#65533;", new String(xml.toByteArray(), US_ASCII));
+  }
+
+  @Test
+  void escapeJson() throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try (Writer writer = new BufferedAsciiOutputStreamWriter(outputStream, 64, UnmappablePolicy.ESCAPE_JSON)) {
+      writer.write("\u00E9\uD83D\uDE00");
+    }
+    assertEquals("\\u00E9\\uD83D\\uDE00", new String(outputStream.toByteArray(), US_ASCII));
+  }
+
+  @Test
+  void escapeXml() throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try (Writer writer = new BufferedAsciiOutputStreamWriter(outputStream, 64, UnmappablePolicy.ESCAPE_XML)) {
+      writer.write("\u00E9\uD83D\uDE00\uDE00");
+    }
+    assertEquals("&#233;&#128512;&#65533;", new String(outputStream.toByteArray(), US_ASCII));
+  }
+
+  private static void assertEncoded(BiFunction<OutputStream, UnmappablePolicy, Writer> factory, UnmappablePolicy policy, String input,
+          WriterCallback callback) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    Writer writer = factory.apply(outputStream, policy);
+    String expected = encode(input, policy);
+    if (expected == null) {
+      assertThrows(UnmappableCharacterException.class, () -> callback.write(writer));
+    } else {
+      callback.write(writer);
+      writer.flush();
+      assertEquals(expected, new String(outputStream.toByteArray(), US_ASCII));
+    }
+  }
+
+  /**
+   * Reference implementation, returns {@code null} if an exception is expected.
+   */
+  private static String encode(String input, UnmappablePolicy policy) {
+    StringBuilder buffer = new StringBuilder();
+    int i = 0;
+    while (i < input.length()) {
+      char c = input.charAt(i);
+      int codePoint = input.codePointAt(i);
+      i += Character.charCount(codePoint);
+      if (c < 128) {
+        buffer.append(c);
+        continue;
+      }
+      switch (policy) {
+        case REPLACE:
+          buffer.append(Character.charCount(codePoint) == 1 ? "?" : "??");
+          break;
+        case REPORT:
+          return null;
+        case SKIP:
+          break;
+        case ESCAPE_JSON:
+          for (char each : Character.toChars(codePoint)) {
+            buffer.append(String.format("\\u%04X", (int) each));
+          }
+          break;
+        case ESCAPE_XML:
+          int value = Character.isSurrogate(c) && (Character.charCount(codePoint) == 1) ? 0xFFFD : codePoint;
+          buffer.append("&#").append(value).append(';');
+          break;
+        default:
+          throw new IllegalArgumentException("unknown policy: " + policy);
+      }
+    }
+    return buffer.toString();
+  }
+
+  @FunctionalInterface
+  interface WriterCallback {
+
+    void write(Writer writer) throws IOException;
+
+  }
+
+}
@@ -0,0 +1,92 @@
+package com.github.marschall.writers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Only run in a separate JVM with monitoring enabled, see the surefire
+ * configuration.
+ */
+class WriterMonitoringEnabledTest {
+
+  private static final String EVENT_NAME = "com.github.marschall.writers.Flush";
+
+  @Test
+  void countersAndEvents() throws IOException {
+    assertTrue(WriterMonitoring.isEnabled());
+    WriterStatistics statistics = WriterMonitoring.getStatistics();
+    long flushCount = statistics.getFlushCount();
+    long byteCount = statistics.getByteCount();
+    long unmappableCharCount = statistics.getUnmappableCharCount();
+    long segmentedWriteCount = statistics.getSegmentedWriteCount();
+
+    Path dump = Files.createTempFile("writers", ".jfr");
+    try {
+      try (Recording recording = new Recording()) {
+        recording.enable(EVENT_NAME);
+        recording.start();
+        try (Writer writer = new BufferedAsciiOutputStreamWriter(new ByteArrayOutputStream(), 4)) {
+          writer.write("ab");
+          // flushes "ab" and is written in two segments
+          writer.write("cdefgh");
+          writer.write("ä");
+        }
+        recording.stop();
+        recording.dump(dump);
+      }
+
+      assertEquals(flushCount + 4L, statistics.getFlushCount());
+      assertEquals(byteCount + 9L, statistics.getByteCount());
+      assertEquals(unmappableCharCount + 1L, statistics.getUnmappableCharCount());
+      assertEquals(segmentedWriteCount + 1L, statistics.getSegmentedWriteCount());
+
+      List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+              .filter(event -> event.getEventType().getName().equals(EVENT_NAME))
+              .collect(Collectors.toList());
+      assertEquals(List.of(2, 4, 2, 1), events.stream()
+              .map(event -> event.getInt("bytes"))
+              .collect(Collectors.toList()));
+      for (RecordedEvent event : events) {
+        assertEquals(BufferedAsciiOutputStreamWriter.class.getName(), event.getClass("writerClass").getName());
+      }
+    } finally {
+      Files.delete(dump);
+    }
+  }
+
+  @Test
+  void mbean() throws IOException, JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName objectName = new ObjectName(WriterMonitoring.OBJECT_NAME);
+    WriterMonitoring.registerMBean();
+    try {
+      long flushCount = (Long) server.getAttribute(objectName, "FlushCount");
+      try (Writer writer = new BufferedAsciiOutputStreamWriter(new ByteArrayOutputStream(), 4)) {
+        writer.write("ab");
+      }
+      assertEquals(flushCount + 1L, server.getAttribute(objectName, "FlushCount"));
+    } finally {
+      server.unregisterMBean(objectName);
+    }
+  }
+
+}
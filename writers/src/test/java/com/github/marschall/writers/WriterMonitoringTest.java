@@ -0,0 +1,44 @@
+package com.github.marschall.writers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.marschall.writers.WriterMonitoring.Counters;
+
+class WriterMonitoringTest {
+
+  @Test
+  void disabledByDefault() throws IOException {
+    assertFalse(WriterMonitoring.isEnabled());
+    try (Writer writer = new BufferedAsciiOutputStreamWriter(new ByteArrayOutputStream(), 4)) {
+      writer.write("abcdefgh");
+      writer.write("ä");
+    }
+    WriterStatistics statistics = WriterMonitoring.getStatistics();
+    assertEquals(0L, statistics.getFlushCount());
+    assertEquals(0L, statistics.getByteCount());
+    assertEquals(0L, statistics.getUnmappableCharCount());
+    assertEquals(0L, statistics.getSegmentedWriteCount());
+  }
+
+  @Test
+  void counters() {
+    Counters counters = new Counters();
+    counters.flushed(8);
+    counters.flushed(4);
+    counters.unmappable(3);
+    counters.unmappable(0);
+    counters.segmentedWrite();
+    assertEquals(2L, counters.getFlushCount());
+    assertEquals(12L, counters.getByteCount());
+    assertEquals(3L, counters.getUnmappableCharCount());
+    assertEquals(1L, counters.getSegmentedWriteCount());
+  }
+
+}
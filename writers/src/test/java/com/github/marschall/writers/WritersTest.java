@@ -0,0 +1,70 @@
+package com.github.marschall.writers;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_16;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.github.marschall.writers.Writers.Option;
+
+class WritersTest {
+
+  static Stream<Arguments> writers() {
+    Charset windows1252 = Charset.forName("windows-1252");
+    return Stream.of(
+            Arguments.of(US_ASCII, new Option[] {Option.BUFFERED}, BufferedAsciiOutputStreamWriter.class),
+            Arguments.of(US_ASCII, new Option[] {Option.BUFFERED, Option.THREAD_SAFE}, ConcurrentAsciiOutputStreamWriter.class),
+            Arguments.of(US_ASCII, new Option[] {Option.THREAD_SAFE}, AsciiOutputStreamWriter.class),
+            Arguments.of(US_ASCII, new Option[0], AsciiOutputStreamWriter.class),
+            Arguments.of(ISO_8859_1, new Option[] {Option.BUFFERED}, BufferedLatin1OutputStreamWriter.class),
+            Arguments.of(ISO_8859_1, new Option[0], BufferedLatin1OutputStreamWriter.class),
+            Arguments.of(ISO_8859_1, new Option[] {Option.BUFFERED, Option.THREAD_SAFE}, OutputStreamWriter.class),
+            Arguments.of(UTF_8, new Option[] {Option.BUFFERED}, BufferedUtf8OutputStreamWriter.class),
+            Arguments.of(UTF_8, new Option[] {Option.THREAD_SAFE}, OutputStreamWriter.class),
+            Arguments.of(windows1252, new Option[] {Option.BUFFERED}, BufferedSingleByteCharsetWriter.class),
+            Arguments.of(windows1252, new Option[] {Option.THREAD_SAFE}, OutputStreamWriter.class),
+            Arguments.of(UTF_16, new Option[] {Option.BUFFERED}, OutputStreamWriter.class));
+  }
+
+  @ParameterizedTest
+  @MethodSource("writers")
+  void newWriter(Charset charset, Option[] options, Class<? extends Writer> expectedClass) throws IOException {
+    String content = "abc€äöü";
+    ByteArrayOutputStream actual = new ByteArrayOutputStream();
+    try (Writer writer = Writers.newWriter(actual, charset, options)) {
+      assertEquals(expectedClass, writer.getClass());
+      writer.write(content);
+    }
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    try (Writer writer = new OutputStreamWriter(expected, charset)) {
+      writer.write(content);
+    }
+    assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+  }
+
+  @Test
+  void nullArguments() {
+    OutputStream out = new ByteArrayOutputStream();
+    assertThrows(NullPointerException.class, () -> Writers.newWriter(null, US_ASCII));
+    assertThrows(NullPointerException.class, () -> Writers.newWriter(out, null));
+    assertThrows(NullPointerException.class, () -> Writers.newWriter(out, US_ASCII, (Option[]) null));
+    assertThrows(NullPointerException.class, () -> Writers.newWriter(out, US_ASCII, (Option) null));
+  }
+
+}